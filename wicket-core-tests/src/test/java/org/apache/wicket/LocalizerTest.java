@@ -24,6 +24,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.MissingResourceException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.wicket.markup.html.WebPage;
 import org.apache.wicket.markup.html.basic.Label;
@@ -34,6 +35,7 @@ import org.apache.wicket.model.Model;
 import org.apache.wicket.model.PropertyModel;
 import org.apache.wicket.resource.DummyApplication;
 import org.apache.wicket.resource.loader.ComponentStringResourceLoader;
+import org.apache.wicket.resource.loader.IStringResourceLoader;
 import org.apache.wicket.settings.ResourceSettings;
 import org.apache.wicket.util.tester.WicketTester;
 import org.apache.wicket.util.value.ValueMap;
@@ -207,6 +209,51 @@ class LocalizerTest
 			"Expected string should be returned");
 	}
 
+	/**
+	 * Found and missing strings are loaded once only, until the cache is cleared.
+	 */
+	@Test
+	void cachedLookups()
+	{
+		localizer.setEnableCache(true);
+		Session.get().setLocale(Locale.ENGLISH);
+
+		AtomicInteger loads = new AtomicInteger();
+		settings.getStringResourceLoaders().add(0, new IStringResourceLoader()
+		{
+			@Override
+			public String loadStringResource(Class<?> clazz, String key, Locale locale,
+				String style, String variation)
+			{
+				return null;
+			}
+
+			@Override
+			public String loadStringResource(Component component, String key, Locale locale,
+				String style, String variation)
+			{
+				loads.incrementAndGet();
+				return "counted".equals(key) ? "value" : null;
+			}
+		});
+
+		MyMockPage page = new MyMockPage();
+		for (int i = 0; i < 3; i++)
+		{
+			assertEquals("value", localizer.getStringIgnoreSettings("counted", page.drop1, null, null));
+			assertNull(localizer.getStringIgnoreSettings("counted.missing", page.drop1, null, null));
+		}
+		assertEquals(2, loads.get());
+
+		// another component path is another key
+		assertEquals("value", localizer.getStringIgnoreSettings("counted", page.drop2, null, null));
+		assertEquals(3, loads.get());
+
+		localizer.clearCache();
+		assertEquals("value", localizer.getStringIgnoreSettings("counted", page.drop1, null, null));
+		assertEquals(4, loads.get());
+	}
+
 	/**
 	 * See https://issues.apache.org/jira/browse/WICKET-1851
 	 */
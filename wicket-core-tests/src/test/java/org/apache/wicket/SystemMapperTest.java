@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.apache.wicket.core.request.handler.BookmarkablePageRequestHandler;
+import org.apache.wicket.core.request.handler.ListenerRequestHandler;
+import org.apache.wicket.core.request.handler.PageAndComponentProvider;
+import org.apache.wicket.core.request.handler.PageProvider;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.IRequestMapper;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.handler.resource.ResourceReferenceRequestHandler;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
+import org.apache.wicket.request.resource.PackageResourceReference;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link SystemMapper}.
+ */
+class SystemMapperTest extends WicketTestCase
+{
+	private SystemMapper mapper;
+
+	@BeforeEach
+	void before()
+	{
+		mapper = (SystemMapper)tester.getApplication().getRootRequestMapper();
+		tester.getApplication().getRequestCycleSettings().setRememberHandlerMappers(true);
+	}
+
+	/**
+	 * Mappers are not remembered by default, so mappers deciding on parameter values are asked
+	 * for each handler.
+	 */
+	@Test
+	void valueDependentMapper()
+	{
+		tester.getApplication().getRequestCycleSettings().setRememberHandlerMappers(false);
+
+		tester.getApplication().mountPage("/link/${id}", MockPageWithLink.class);
+		mapper.add(new SecondOnlyMapper());
+
+		assertEquals("link/1", mapper.mapHandler(bookmarkable(new PageParameters().set("id", 1)))
+			.toString());
+		assertEquals("second", mapper.mapHandler(bookmarkable(new PageParameters().set("id", 2)))
+			.toString());
+		assertNull(mapper.getHandlerKey(bookmarkable(new PageParameters().set("id", 3))));
+		assertEquals(0, mapper.getHandlerCacheHits());
+		assertEquals(0, mapper.getHandlerCacheMisses());
+	}
+
+	/**
+	 * Bookmarkable handlers with equal page class and parameter names are mapped by the remembered
+	 * mapper.
+	 */
+	@Test
+	void bookmarkableHandlers()
+	{
+		tester.getApplication().mountPage("/link/${id}", MockPageWithLink.class);
+
+		assertEquals("link/1", mapper.mapHandler(bookmarkable(new PageParameters().set("id", 1)))
+			.toString());
+		assertEquals("link/2", mapper.mapHandler(bookmarkable(new PageParameters().set("id", 2)))
+			.toString());
+		assertEquals(1, mapper.getHandlerCacheHits());
+		assertEquals(1, mapper.getHandlerCacheMisses());
+
+		// different parameter names, not mappable by mount
+		assertEquals("wicket/bookmarkable/org.apache.wicket.MockPageWithLink?other=1",
+			mapper.mapHandler(bookmarkable(new PageParameters().set("other", 1))).toString());
+		assertEquals(1, mapper.getHandlerCacheHits());
+		assertEquals(2, mapper.getHandlerCacheMisses());
+
+		// remembered mappers are forgotten on mount
+		tester.getApplication().mountPage("/other/${id}", MockPageWithLink.class);
+		assertEquals("other/3", mapper.mapHandler(bookmarkable(new PageParameters().set("id", 3)))
+			.toString());
+		assertEquals(1, mapper.getHandlerCacheHits());
+		assertEquals(3, mapper.getHandlerCacheMisses());
+
+		// and on unmount
+		tester.getApplication().unmount("/other/3");
+		assertEquals("link/4", mapper.mapHandler(bookmarkable(new PageParameters().set("id", 4)))
+			.toString());
+		assertEquals(1, mapper.getHandlerCacheHits());
+		assertEquals(4, mapper.getHandlerCacheMisses());
+	}
+
+	/**
+	 * Resource reference handlers are keyed by their resource reference.
+	 */
+	@Test
+	void resourceHandlers()
+	{
+		PackageResourceReference a = new PackageResourceReference(MockPageWithLink.class,
+			"MockPageWithLink.html");
+		PackageResourceReference b = new PackageResourceReference(MockPageWithLink.class,
+			"MockPageWithLinkAndComponent.html");
+
+		assertNotNull(mapper.mapHandler(new ResourceReferenceRequestHandler(a)));
+		assertNotNull(mapper.mapHandler(new ResourceReferenceRequestHandler(a)));
+		assertNotNull(mapper.mapHandler(new ResourceReferenceRequestHandler(b)));
+
+		assertEquals(1, mapper.getHandlerCacheHits());
+		assertEquals(2, mapper.getHandlerCacheMisses());
+	}
+
+	/**
+	 * Listener handlers without a page instance have no key, since mappers might create it.
+	 */
+	@Test
+	void listenerWithoutPageInstance()
+	{
+		IRequestHandler handler = new ListenerRequestHandler(
+			new PageAndComponentProvider(MockPageWithLink.class, "link"));
+
+		assertNull(mapper.getHandlerKey(handler));
+	}
+
+	/**
+	 * Maps bookmarkable handlers with an id of 2 only.
+	 */
+	private static class SecondOnlyMapper implements IRequestMapper
+	{
+		@Override
+		public IRequestHandler mapRequest(Request request)
+		{
+			return null;
+		}
+
+		@Override
+		public int getCompatibilityScore(Request request)
+		{
+			return 0;
+		}
+
+		@Override
+		public Url mapHandler(IRequestHandler requestHandler)
+		{
+			if (requestHandler instanceof BookmarkablePageRequestHandler &&
+				((BookmarkablePageRequestHandler)requestHandler).getPageParameters()
+					.get("id")
+					.toInt(0) == 2)
+			{
+				return Url.parse("second");
+			}
+			return null;
+		}
+	}
+
+	private IRequestHandler bookmarkable(PageParameters parameters)
+	{
+		return new BookmarkablePageRequestHandler(
+			new PageProvider(MockPageWithLink.class, parameters));
+	}
+}
@@ -55,4 +55,20 @@ class AjaxHeaderContributionTest extends WicketTestCase
 			"AjaxHeaderContributionPage2_ajax_expected.html");
 
 	}
+
+	/**
+	 * A streamed Ajax response equals a buffered one.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	void streamingAjaxHeaderContribution() throws Exception
+	{
+		tester.getApplication().getRequestCycleSettings().setStreamingAjaxResponse(true);
+
+		tester.startPage(AjaxHeaderContributionPage2.class);
+		tester.executeAjaxEvent("link", "click");
+		tester.assertResultPage(AjaxHeaderContributionPage2.class,
+			"AjaxHeaderContributionPage2_ajax_expected.html");
+	}
 }
@@ -37,6 +37,7 @@ class TestPageRenderer extends WebPageRenderer
 	public boolean pageStateless;
 	public boolean redirectToBuffer;
 	public boolean sessionTemporary;
+	public boolean streamingRender;
 
 	public TestPageRenderer(RenderPageRequestHandler handler)
 	{
@@ -107,6 +108,12 @@ class TestPageRenderer extends WebPageRenderer
 		return redirectToBuffer;
 	}
 
+	@Override
+	protected boolean isStreamingRender()
+	{
+		return streamingRender;
+	}
+
 	@Override
 	protected boolean isSessionTemporary()
 	{
@@ -18,22 +18,29 @@ package org.apache.wicket.core.request.handler.render;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.wicket.core.request.handler.IPageProvider;
 import org.apache.wicket.core.request.handler.RenderPageRequestHandler;
 import org.apache.wicket.core.request.handler.RenderPageRequestHandler.RedirectPolicy;
 import org.apache.wicket.protocol.http.BufferedWebResponse;
+import org.apache.wicket.protocol.http.StreamingWebResponse;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.Response;
 import org.apache.wicket.request.Url;
 import org.apache.wicket.request.UrlRenderer;
 import org.apache.wicket.request.component.IRequestablePage;
@@ -44,6 +51,7 @@ import org.apache.wicket.request.http.WebResponse;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 /**
  * Tests for the calculation whether or not to redirect or directly render a page
@@ -107,6 +115,68 @@ class WebPageRendererTest
 		verify(response, never()).sendRedirect(anyString());
 	}
 
+	/**
+	 * Tests that a page is streamed instead of being rendered to a buffer when streaming is enabled
+	 */
+	@Test
+	void testOnePassStreamingRender()
+	{
+		TestPageRenderer renderer = new TestPageRenderer(handler);
+		renderer.onePassRender = true;
+		renderer.streamingRender = true;
+
+		when(urlRenderer.getBaseUrl()).thenReturn(Url.parse("base"));
+
+		when(requestCycle.mapUrlFor(eq(handler))).thenReturn(Url.parse("base/a"));
+
+		when(request.shouldPreserveClientUrl()).thenReturn(false);
+
+		renderer.respond(requestCycle);
+
+		verify(page).renderPage();
+		verify(response, never()).write(any(byte[].class));
+		verify(response, never()).sendRedirect(anyString());
+
+		// rendered into a streaming response, then the original response is restored
+		ArgumentCaptor<Response> responses = ArgumentCaptor.forClass(Response.class);
+		verify(requestCycle, times(2)).setResponse(responses.capture());
+		assertTrue(responses.getAllValues().get(0) instanceof StreamingWebResponse);
+		assertSame(response, responses.getAllValues().get(1));
+	}
+
+	/**
+	 * Tests that a request handler scheduled while streaming a page, but before its header was
+	 * flushed, still replaces the page
+	 */
+	@Test
+	void testOnePassStreamingRenderReplaced()
+	{
+		TestPageRenderer renderer = new TestPageRenderer(handler);
+		renderer.onePassRender = true;
+		renderer.streamingRender = true;
+
+		when(urlRenderer.getBaseUrl()).thenReturn(Url.parse("base"));
+
+		when(requestCycle.mapUrlFor(eq(handler))).thenReturn(Url.parse("base/a"));
+
+		when(request.shouldPreserveClientUrl()).thenReturn(false);
+
+		final AtomicReference<IRequestHandler> scheduled = new AtomicReference<>();
+		when(requestCycle.getRequestHandlerScheduledAfterCurrent()).thenAnswer(
+			invocation -> scheduled.get());
+		doAnswer(invocation -> {
+			scheduled.set(mock(IRequestHandler.class));
+			return null;
+		}).when(page).renderPage();
+
+		renderer.respond(requestCycle);
+
+		verify(page).renderPage();
+		verify(response).reset();
+		verify(response, never()).write(any(byte[].class));
+		verify(response, never()).write(any(CharSequence.class));
+	}
+
 	/**
 	 * Tests that when {@link org.apache.wicket.settings.RequestCycleSettings.RenderStrategy#ONE_PASS_RENDER}
 	 * is configured there will be a redirect issued if the protocols of the current and target urls
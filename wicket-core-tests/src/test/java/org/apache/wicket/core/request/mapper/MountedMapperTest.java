@@ -17,6 +17,7 @@
 package org.apache.wicket.core.request.mapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -968,4 +969,48 @@ class MountedMapperTest extends AbstractMapperTest
 			"exactCompatScore should have greater compatibility score than optional one" +
 				" got exact = " + exactCompatScore + " and optional = " + optCompatScore);
 	}
+
+	/**
+	 * The prefix segments are the leading fixed segments of the mount path.
+	 */
+	@Test
+	void prefixSegments()
+	{
+		assertArrayEquals(new String[] { "some", "mount", "path" },
+			new MountedMapper("/some/mount/path", MockPage.class).getPrefixSegments());
+		assertArrayEquals(new String[] { "some" },
+			new MountedMapper("/some/${param1}/path", MockPage.class).getPrefixSegments());
+		assertArrayEquals(new String[] { "all" },
+			new MountedMapper("/all/${exp}/fixed", MockPage.class).getPrefixSegments());
+		assertArrayEquals(new String[0],
+			new MountedMapper("/#{exp}", MockPage.class).getPrefixSegments());
+	}
+
+	/**
+	 * Subclasses might match other URLs, they have to opt in to prefix segments.
+	 */
+	@Test
+	void prefixSegmentsOfSubclass()
+	{
+		MountedMapper custom = new MountedMapper("/some/mount/path", MockPage.class)
+		{
+			@Override
+			protected boolean urlStartsWithMountedSegments(Url url)
+			{
+				return true;
+			}
+		};
+		assertNull(custom.getPrefixSegments());
+		assertNull(new HomePageMapper(MockPage.class).getPrefixSegments());
+
+		MountedMapper optIn = new MountedMapper("/some/mount/path", MockPage.class)
+		{
+			@Override
+			public String[] getPrefixSegments()
+			{
+				return getMountPrefixSegments();
+			}
+		};
+		assertArrayEquals(new String[] { "some", "mount", "path" }, optIn.getPrefixSegments());
+	}
 }
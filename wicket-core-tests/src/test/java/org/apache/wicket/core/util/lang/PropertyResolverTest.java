@@ -604,6 +604,29 @@ public class PropertyResolverTest extends WicketTestCase
 		PropertyResolver.getPropertyClass("country.subCountry.name", person);
 	}
 
+	/**
+	 * Compiled expressions are resolved again when the classes of intermediate values change.
+	 */
+	@Test
+	void compiledExpressionWithSubType()
+	{
+		Person person = new Person();
+		person.setCountry(new Country2("outer", new Country("inner")));
+		assertEquals("inner", PropertyResolver.getValue("country.subCountry.name", person));
+		assertEquals("outer", PropertyResolver.getValue("country.name", person));
+
+		person.setCountry(new Country("plain"));
+		assertEquals("plain", PropertyResolver.getValue("country.name", person));
+		assertThrows(WicketRuntimeException.class,
+			() -> PropertyResolver.getValue("country.subCountry.name", person));
+
+		person.setCountry(null);
+		assertNull(PropertyResolver.getValue("country.name", person));
+
+		person.setCountry(new Country2("again", null));
+		assertNull(PropertyResolver.getValue("country.subCountry.name", person));
+	}
+
 	/**
 	 * Used for models in testing.
 	 */
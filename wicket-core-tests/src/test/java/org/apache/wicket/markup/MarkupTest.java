@@ -163,4 +163,25 @@ class MarkupTest extends WicketTestCase
 		 */
 		assertNull(markup.find("c5"));
 	}
+
+	/**
+	 * Consecutive raw markup is merged for rendering, the elements are kept.
+	 */
+	@Test
+	void rawMarkupRuns()
+	{
+		Markup markup = Markup.of(
+			"<div><wicket:remove> <span id=\"test\"/> </wicket:remove></div><span wicket:id=\"a\"></span>");
+
+		assertEquals(4, markup.size());
+		assertEquals("<div></div>", markup.getRawMarkupRun(0));
+		assertNull(markup.getRawMarkupRun(1));
+		assertNull(markup.getRawMarkupRun(2));
+
+		MarkupStream markupStream = new MarkupStream(markup);
+		assertEquals("<div></div>", markupStream.getRawMarkupRun());
+		markupStream.skipRawMarkupRun();
+		assertEquals(2, markupStream.getCurrentIndex());
+		assertNull(markupStream.getRawMarkupRun());
+	}
 }
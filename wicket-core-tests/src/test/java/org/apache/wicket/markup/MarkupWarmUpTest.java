@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.MockPageWithLink;
+import org.apache.wicket.markup.html.panel.FragmentTestPanel;
+import org.apache.wicket.request.cycle.IRequestCycleListener;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MarkupWarmUp}.
+ */
+class MarkupWarmUpTest extends WicketTestCase
+{
+	@Test
+	void warmUp()
+	{
+		MarkupCache cache = (MarkupCache)MarkupFactory.get().getMarkupCache();
+		cache.clear();
+
+		Duration duration = new MarkupWarmUp().add(MockPageWithLink.class, FragmentTestPanel.class)
+			.setLocales(tester.getSession().getLocale())
+			.warmUp(tester.getApplication());
+
+		assertNotNull(duration);
+		assertEquals(2, cache.size());
+
+		// the page uses the cached markup
+		tester.startPage(MockPageWithLink.class);
+		tester.assertRenderedPage(MockPageWithLink.class);
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	void detach()
+	{
+		AtomicInteger detached = new AtomicInteger();
+		tester.getApplication().getRequestCycleListeners().add(new IRequestCycleListener()
+		{
+			@Override
+			public void onDetach(RequestCycle cycle)
+			{
+				detached.incrementAndGet();
+			}
+		});
+
+		new MarkupWarmUp().add(MockPageWithLink.class, FragmentTestPanel.class)
+			.setLocales(tester.getSession().getLocale())
+			.warmUp(tester.getApplication());
+
+		assertEquals(2, detached.get());
+	}
+}
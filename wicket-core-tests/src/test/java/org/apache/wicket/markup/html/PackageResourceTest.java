@@ -21,16 +21,27 @@ import org.apache.wicket.SharedResources;
 import org.apache.wicket.markup.html.snake_case.TestPageInsideSnakeCasePackage;
 import org.apache.wicket.protocol.http.WebApplication;
 import org.apache.wicket.protocol.https.HttpPage;
+import org.apache.wicket.request.resource.CompressedResourceCache;
 import org.apache.wicket.request.resource.JavaScriptPackageResource;
 import org.apache.wicket.request.resource.PackageResource;
 import org.apache.wicket.request.resource.PackageResourceReference;
+import org.apache.wicket.request.resource.ProcessedResourceCache;
 import org.apache.wicket.request.resource.ResourceReference;
+import org.apache.wicket.resource.CssUrlReplacer;
+import org.apache.wicket.resource.ITextResourceCompressor;
+import org.apache.wicket.util.lang.Bytes;
 import org.apache.wicket.util.lang.Packages;
 import org.apache.wicket.util.tester.WicketTestCase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -165,6 +176,166 @@ public class PackageResourceTest extends WicketTestCase
 		assertEquals("text/javascript", tester.getLastResponse().getContentType());
 	}
 
+	/**
+	 * Text resources are sent gzip compressed to clients accepting it
+	 */
+	@Test
+	void compressed() throws IOException
+	{
+		CompressedResourceCache cache = new CompressedResourceCache(Bytes.kilobytes(1));
+		application.getResourceSettings().setCompressedResourceCache(cache);
+
+		PackageResource resource = new PackageResource(PackageResourceTest.class, "packaged1.txt",
+			null, null, null)
+		{
+			private static final long serialVersionUID = 1L;
+		};
+
+		tester.startResource(resource);
+		assertNull(tester.getLastResponse().getHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", tester.getLastResponse().getHeader("Vary"));
+		assertEquals("TEST", tester.getLastResponseAsString());
+
+		tester.getRequest().setHeader("Accept-Encoding", "deflate, gzip;q=0.8");
+		tester.startResource(resource);
+		assertEquals("gzip", tester.getLastResponse().getHeader("Content-Encoding"));
+		assertEquals("TEST", gunzip(tester.getLastResponse().getBinaryContent()));
+		assertEquals(1, cache.size());
+
+		tester.getRequest().setHeader("Accept-Encoding", "gzip;q=0");
+		tester.startResource(resource);
+		assertNull(tester.getLastResponse().getHeader("Content-Encoding"));
+	}
+
+	/**
+	 * A precompressed variant of a resource is sent as is
+	 */
+	@Test
+	void precompressed() throws IOException
+	{
+		application.getResourceSettings()
+			.setCompressedResourceCache(new CompressedResourceCache(Bytes.kilobytes(1)));
+
+		PackageResource resource = new PackageResource(PackageResourceTest.class, "packaged5.txt",
+			null, null, null)
+		{
+			private static final long serialVersionUID = 1L;
+		};
+
+		tester.getRequest().setHeader("Accept-Encoding", "gzip");
+		tester.startResource(resource);
+		assertEquals("gzip", tester.getLastResponse().getHeader("Content-Encoding"));
+		assertEquals("PRECOMPRESSED", gunzip(tester.getLastResponse().getBinaryContent()));
+	}
+
+	/**
+	 * A precompressed variant is not sent for a resource processing its response
+	 */
+	@Test
+	void precompressedNotProcessed() throws IOException
+	{
+		application.getResourceSettings()
+			.setCompressedResourceCache(new CompressedResourceCache(Bytes.kilobytes(1)));
+
+		PackageResource resource = new PackageResource(PackageResourceTest.class, "packaged5.txt",
+			null, null, null)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected byte[] processResponse(Attributes attributes, byte[] original)
+			{
+				return "PROCESSED".getBytes(StandardCharsets.UTF_8);
+			}
+		};
+
+		tester.getRequest().setHeader("Accept-Encoding", "gzip");
+		tester.startResource(resource);
+		assertEquals("gzip", tester.getLastResponse().getHeader("Content-Encoding"));
+		assertEquals("PROCESSED", gunzip(tester.getLastResponse().getBinaryContent()));
+	}
+
+	/**
+	 * Processed content is cached and shared with bundles reading the resource stream
+	 */
+	@Test
+	void processedOnce() throws Exception
+	{
+		ProcessedResourceCache cache = new ProcessedResourceCache(Bytes.kilobytes(1));
+		application.getResourceSettings().setProcessedResourceCache(cache);
+
+		final AtomicInteger processed = new AtomicInteger();
+		PackageResource resource = new PackageResource(PackageResourceTest.class, "packaged1.txt",
+			null, null, null)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected byte[] processResponse(Attributes attributes, byte[] original)
+			{
+				processed.incrementAndGet();
+				return "PROCESSED".getBytes(StandardCharsets.UTF_8);
+			}
+		};
+
+		tester.startResource(resource);
+		assertEquals("PROCESSED", tester.getLastResponseAsString());
+		tester.startResource(resource);
+		assertEquals("PROCESSED", tester.getLastResponseAsString());
+
+		try (InputStream input = resource.getResourceStream().getInputStream())
+		{
+			assertEquals("PROCESSED", new String(input.readAllBytes(), StandardCharsets.UTF_8));
+		}
+		assertEquals(1, processed.get());
+		assertEquals(1, cache.size());
+	}
+
+	/**
+	 * Content processed depending on the request is not cached
+	 */
+	@Test
+	void scopeAwareNotCached() throws Exception
+	{
+		ProcessedResourceCache cache = new ProcessedResourceCache(Bytes.kilobytes(1));
+		application.getResourceSettings().setProcessedResourceCache(cache);
+
+		final AtomicInteger processed = new AtomicInteger();
+		PackageResource resource = new PackageResource(PackageResourceTest.class, "packaged1.txt",
+			null, null, null)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected ITextResourceCompressor getCompressor()
+			{
+				return new CssUrlReplacer()
+				{
+					@Override
+					public String process(String input, Class<?> scope, String name)
+					{
+						return "PROCESSED" + processed.incrementAndGet();
+					}
+				};
+			}
+		};
+		resource.setCompress(true);
+
+		tester.startResource(resource);
+		assertEquals("PROCESSED1", tester.getLastResponseAsString());
+		tester.startResource(resource);
+		assertEquals("PROCESSED2", tester.getLastResponseAsString());
+		assertEquals(0, cache.size());
+	}
+
+	private static String gunzip(byte[] compressed) throws IOException
+	{
+		try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed)))
+		{
+			return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
 	@Test
 	void textFileWithEncoding()
 	{
@@ -30,7 +30,16 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
 
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.form.Form;
+import org.apache.wicket.markup.html.form.upload.resource.FolderUploadsFileManager;
+import org.apache.wicket.protocol.http.servlet.IUploadSink;
 import org.apache.wicket.util.file.File;
+import org.apache.wicket.util.file.Files;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
 import org.apache.wicket.util.tester.FormTester;
 import org.apache.wicket.util.tester.WicketTestCase;
 import org.apache.wicket.validation.IValidatable;
@@ -179,6 +188,80 @@ class FileUploadFieldTest extends WicketTestCase
 		tester.assertNoErrorMessage();
 	}
 
+	/**
+	 * Files of a field with a sink are streamed into it instead of being buffered.
+	 */
+	@Test
+	void uploadSink() throws IOException
+	{
+		File folder = new File(java.nio.file.Files.createTempDirectory(TEST_FILE_NAME).toFile());
+		File tmp = writeTestFile(1000);
+		try
+		{
+			tester.startPage(new UploadSinkPage(folder.getAbsolutePath()));
+
+			FormTester formtester = tester.newFormTester("form");
+			formtester.setFile("upload", tmp, "text/plain");
+			formtester.submit();
+
+			UploadSinkPage page = (UploadSinkPage)tester.getLastRenderedPage();
+			assertTrue(page.submitted);
+			assertEquals(0, page.uploads);
+
+			File stored = new FolderUploadsFileManager(folder).getFile("sink", tmp.getName());
+			assertTrue(stored.exists());
+			assertEquals(new String(read(tmp)), new String(read(stored)));
+		}
+		finally
+		{
+			tmp.delete();
+			Files.removeFolder(folder);
+		}
+	}
+
+	private static class UploadSinkPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private static final long serialVersionUID = 1L;
+
+		private boolean submitted;
+
+		private int uploads = -1;
+
+		UploadSinkPage(final String folder)
+		{
+			Form<Void> form = new Form<>("form");
+			add(form);
+
+			form.add(new FileUploadField("upload")
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public IUploadSink getUploadSink()
+				{
+					return new FolderUploadsFileManager(new File(folder)).newUploadSink("sink");
+				}
+
+				@Override
+				public void validate()
+				{
+					super.validate();
+
+					submitted = true;
+					uploads = getFileUploads().size();
+				}
+			});
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container,
+			Class<?> containerClass)
+		{
+			return new StringResourceStream("<html><body><form wicket:id=\"form\">" +
+				"<input type=\"file\" wicket:id=\"upload\" /></form></body></html>");
+		}
+	}
+
 	public static class TestValidationPage extends MockPageWithFormAndUploadField
 	{
 		/** */
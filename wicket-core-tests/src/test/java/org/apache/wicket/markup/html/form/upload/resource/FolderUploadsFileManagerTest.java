@@ -24,9 +24,12 @@ import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.stream.Stream;
 
 import org.apache.wicket.markup.html.form.upload.FileUpload;
 import org.apache.wicket.util.file.File;
@@ -93,4 +96,31 @@ class FolderUploadsFileManagerTest
 		assertTrue(Files.exists(savedFile));
 		assertEquals("content", Files.readString(savedFile, StandardCharsets.UTF_8));
 	}
+
+	@Test
+	void abortedSinkKeepsExistingFile() throws IOException
+	{
+		FolderUploadsFileManager manager = new FolderUploadsFileManager(new File(tempDir.toFile()));
+		Path folder = Files.createDirectories(tempDir.resolve("uploadField"));
+		Path existing = Files.writeString(folder.resolve("safe.txt"), "existing");
+
+		InputStream aborted = new SequenceInputStream(
+			new ByteArrayInputStream("partial".getBytes(StandardCharsets.UTF_8)), new InputStream()
+			{
+				@Override
+				public int read() throws IOException
+				{
+					throw new IOException("aborted");
+				}
+			});
+
+		assertThrows(IOException.class, () -> manager.newUploadSink("uploadField")
+			.receive("upload", "safe.txt", "text/plain", aborted));
+
+		assertEquals("existing", Files.readString(existing, StandardCharsets.UTF_8));
+		try (Stream<Path> files = Files.list(folder))
+		{
+			assertEquals(1, files.count());
+		}
+	}
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.parser;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.wicket.util.WicketTestTag;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures parsing the markup of the tests, looking up the wicket:id of each tag like the
+ * markup filters do, or creating the attribute map of each tag.
+ */
+@Tag(WicketTestTag.SLOW)
+class XmlPullParserPerformanceTest
+{
+	private static final int WARMUP = 50;
+
+	private static final int RUNS = 200;
+
+	@Test
+	void performance() throws Exception
+	{
+		List<String> corpus = loadCorpus();
+		assertFalse(corpus.isEmpty());
+
+		run("lookup", corpus, false);
+		run("attribute map", corpus, true);
+	}
+
+	private void run(String name, List<String> corpus, boolean attributeMap) throws Exception
+	{
+		for (int i = 0; i < WARMUP; i++)
+		{
+			parse(corpus, attributeMap);
+		}
+
+		int tags = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < RUNS; i++)
+		{
+			tags = parse(corpus, attributeMap);
+		}
+		long parsing = System.nanoTime() - start;
+
+		System.out.printf("%s: %d files with %d tags, parsing took %d ms%n", name, corpus.size(),
+			tags, TimeUnit.NANOSECONDS.toMillis(parsing));
+	}
+
+	private int parse(List<String> corpus, boolean attributeMap) throws Exception
+	{
+		int tags = 0;
+		for (String markup : corpus)
+		{
+			XmlPullParser parser = new XmlPullParser();
+			parser.parse(markup);
+
+			XmlTag tag;
+			while ((tag = parser.nextTag()) != null)
+			{
+				if (attributeMap)
+				{
+					tag.getAttributes().getString("wicket:id");
+				}
+				else
+				{
+					tag.getAttribute("wicket:id");
+				}
+				tags++;
+			}
+		}
+		return tags;
+	}
+
+	private List<String> loadCorpus() throws Exception
+	{
+		Path root = Paths.get(getClass().getResource("/org/apache/wicket/markup").toURI());
+
+		List<String> corpus = new ArrayList<>();
+		try (Stream<Path> files = Files.walk(root))
+		{
+			for (Path file : (Iterable<Path>)files.filter(path -> path.toString().endsWith(".html"))::iterator)
+			{
+				String markup = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+				try
+				{
+					parse(List.of(markup), false);
+					corpus.add(markup);
+				}
+				catch (Exception ex)
+				{
+					// skip malformed markup of negative tests
+				}
+			}
+		}
+		return corpus;
+	}
+}
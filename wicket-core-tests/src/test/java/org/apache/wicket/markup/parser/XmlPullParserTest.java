@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.UnsupportedEncodingException;
@@ -286,6 +287,52 @@ class XmlPullParserTest
 		assertNotNull(ex);
 	}
 
+	/**
+	 * Attributes of plain tags are looked up without creating the attribute map.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	final void scannedAttributes() throws Exception
+	{
+		final XmlPullParser parser = new XmlPullParser();
+		parser.parse("<wicket:panel a=\"1\" wicket:id = 'panel' b:c:d=x-y.z disabled @click.prevent=\"go()\" e=\" &amp; \">");
+		XmlTag tag = parser.nextTag();
+		assertEquals("wicket", tag.getNamespace());
+		assertEquals("panel", tag.getName());
+		assertTrue(tag.hasAttributes());
+		assertEquals("panel", tag.getAttribute("wicket:id").toString());
+		assertEquals("x-y.z", tag.getAttribute("b:c:d").toString());
+		assertEquals("", tag.getAttribute("disabled").toString());
+		assertEquals("go()", tag.getAttribute("@click.prevent").toString());
+		assertEquals("&", tag.getAttribute("e").toString());
+		assertNull(tag.getAttribute("wicket"));
+
+		assertEquals(6, tag.getAttributes().size());
+		assertEquals("1", tag.getAttributes().getString("a"));
+		assertEquals("panel", tag.getAttribute("wicket:id").toString());
+
+		// immutable copies keep the attributes
+		parser.parse("<tag a='1' b=2>");
+		tag = parser.nextTag();
+		tag.makeImmutable();
+		XmlTag copy = tag.mutable();
+		copy.put("c", "3");
+		assertEquals(2, tag.getAttributes().size());
+		assertEquals("2", copy.getAttribute("b").toString());
+		assertEquals(3, copy.getAttributes().size());
+
+		// text not scanned is parsed with patterns
+		parser.parse("<tag a='1'b='2' c=3%>");
+		tag = parser.nextTag();
+		assertEquals("1", tag.getAttribute("a").toString());
+		assertEquals("2", tag.getAttribute("b").toString());
+		assertEquals("3", tag.getAttribute("c").toString());
+
+		parser.parse("<tag a='1' b=2 a=\"3\">");
+		assertThrows(ParseException.class, parser::nextTag);
+	}
+
 	/**
 	 *
 	 * @throws Exception
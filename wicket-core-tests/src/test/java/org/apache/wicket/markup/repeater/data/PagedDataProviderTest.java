@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.markup.html.navigation.paging.PagingNavigator;
+import org.apache.wicket.markup.repeater.Item;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link IPagedDataProvider} and {@link KeysetDataProvider}.
+ */
+class PagedDataProviderTest extends WicketTestCase
+{
+	/**
+	 * A view loads the page and the count with a single call.
+	 */
+	@Test
+	void singleCall()
+	{
+		CountingProvider provider = new CountingProvider();
+		DataViewPage page = new DataViewPage(provider);
+
+		tester.startPage(page);
+
+		assertEquals(1, provider.pages);
+		assertEquals(0, provider.sizes);
+		assertEquals(0, provider.iterators);
+		tester.assertContains("<span wicket:id=\"pages\">4</span>");
+		tester.assertContains("<span wicket:id=\"label\">2</span>");
+		tester.assertContainsNot("<span wicket:id=\"label\">3</span>");
+
+		page.view.setCurrentPage(3);
+		tester.startPage(page);
+
+		assertEquals(2, provider.pages);
+		assertEquals(0, provider.sizes);
+		tester.assertContains("<span wicket:id=\"label\">9</span>");
+	}
+
+	/**
+	 * Pages following a visited page are loaded after the key of its last item.
+	 */
+	@Test
+	void keyset()
+	{
+		Keyset provider = new Keyset();
+
+		DataPage<Integer> first = provider.page(0, 3);
+		assertEquals(List.of(0, 1, 2), first.getItems());
+		assertEquals(4, first.getSize());
+		assertFalse(first.isExact());
+		assertEquals(List.of("after null"), provider.loads);
+
+		DataPage<Integer> second = provider.page(3, 3);
+		assertEquals(List.of(3, 4, 5), second.getItems());
+		assertEquals("after 2", provider.loads.get(1));
+
+		DataPage<Integer> last = provider.page(9, 3);
+		assertEquals(List.of(9), last.getItems());
+		assertEquals(10, last.getSize());
+		assertTrue(last.isExact());
+		assertEquals("from 9", provider.loads.get(2));
+
+		provider.clearKeys();
+		provider.page(3, 3);
+		assertEquals("from 3", provider.loads.get(3));
+	}
+
+	/**
+	 * Only the keys of the most recently visited pages are remembered.
+	 */
+	@Test
+	void keysCapped()
+	{
+		Keyset provider = new Keyset(2);
+
+		provider.page(0, 3);
+		provider.page(3, 3);
+		provider.page(6, 3);
+		provider.page(6, 3);
+		assertEquals("after 5", provider.loads.get(3));
+
+		// key of the second page is forgotten
+		provider.page(3, 3);
+		assertEquals("from 3", provider.loads.get(4));
+	}
+
+	/**
+	 * Navigation does not offer a last page while the count is not exact.
+	 */
+	@Test
+	void openEnded()
+	{
+		NavigatorPage page = new NavigatorPage(new Keyset());
+
+		tester.startPage(page);
+		assertFalse(page.view.isItemCountExact());
+		tester.assertInvisible("navigator:last");
+
+		page.view.setCurrentPage(3);
+		tester.startPage(page);
+		assertTrue(page.view.isItemCountExact());
+		tester.assertVisible("navigator:last");
+	}
+
+	/**
+	 * Estimated counts are never less than the items seen.
+	 */
+	@Test
+	void estimated()
+	{
+		DataPage<Integer> page = DataPage.estimated(List.of(1, 2, 3), 6, 5);
+
+		assertEquals(9, page.getSize());
+		assertFalse(page.isExact());
+		assertTrue(DataPage.of(List.of(1), 1).isExact());
+	}
+
+	private static List<Integer> numbers()
+	{
+		List<Integer> numbers = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+		{
+			numbers.add(i);
+		}
+		return numbers;
+	}
+
+	private static class CountingProvider implements IPagedDataProvider<Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private int pages;
+
+		private int sizes;
+
+		private int iterators;
+
+		@Override
+		public DataPage<Integer> page(long first, long count)
+		{
+			pages++;
+
+			List<Integer> numbers = numbers();
+			return DataPage.of(
+				numbers.subList((int)first, (int)Math.min(numbers.size(), first + count)),
+				numbers.size());
+		}
+
+		@Override
+		public Iterator<? extends Integer> iterator(long first, long count)
+		{
+			iterators++;
+			return numbers().subList((int)first, (int)(first + count)).iterator();
+		}
+
+		@Override
+		public long size()
+		{
+			sizes++;
+			return 10;
+		}
+
+		@Override
+		public IModel<Integer> model(Integer object)
+		{
+			return Model.of(object);
+		}
+	}
+
+	private static class Keyset extends KeysetDataProvider<Integer, Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> loads = new ArrayList<>();
+
+		private Keyset()
+		{
+		}
+
+		private Keyset(int maxKeys)
+		{
+			super(maxKeys);
+		}
+
+		@Override
+		protected List<Integer> loadAfter(Integer after, long count)
+		{
+			loads.add("after " + after);
+
+			List<Integer> numbers = numbers();
+			int from = after == null ? 0 : after + 1;
+			return numbers.subList(from, (int)Math.min(numbers.size(), from + count));
+		}
+
+		@Override
+		protected List<Integer> loadFrom(long first, long count)
+		{
+			loads.add("from " + first);
+
+			List<Integer> numbers = numbers();
+			return numbers.subList((int)first, (int)Math.min(numbers.size(), first + count));
+		}
+
+		@Override
+		protected Integer getKey(Integer item)
+		{
+			return item;
+		}
+
+		@Override
+		public long size()
+		{
+			return 10;
+		}
+
+		@Override
+		public IModel<Integer> model(Integer object)
+		{
+			return Model.of(object);
+		}
+	}
+
+	private static class DataViewPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final DataView<Integer> view;
+
+		private DataViewPage(IDataProvider<Integer> provider)
+		{
+			view = new DataView<>("rows", provider, 3)
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void populateItem(Item<Integer> item)
+				{
+					item.add(new Label("label", item.getModel()));
+				}
+			};
+			add(new Label("pages", () -> view.getPageCount()));
+			add(view);
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container,
+			Class<?> containerClass)
+		{
+			return new StringResourceStream("<html><body><span wicket:id=\"pages\"></span>" +
+				"<div wicket:id=\"rows\"><span wicket:id=\"label\"></span></div></body></html>");
+		}
+	}
+
+	private static class NavigatorPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final DataView<Integer> view;
+
+		private NavigatorPage(IDataProvider<Integer> provider)
+		{
+			view = new DataView<>("rows", provider, 3)
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void populateItem(Item<Integer> item)
+				{
+					item.add(new Label("label", item.getModel()));
+				}
+			};
+			add(view);
+			add(new PagingNavigator("navigator", view));
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container,
+			Class<?> containerClass)
+		{
+			return new StringResourceStream("<html><body>" +
+				"<div wicket:id=\"rows\"><span wicket:id=\"label\"></span></div>" +
+				"<div wicket:id=\"navigator\"></div></body></html>");
+		}
+	}
+}
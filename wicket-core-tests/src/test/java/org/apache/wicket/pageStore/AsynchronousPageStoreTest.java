@@ -23,6 +23,9 @@ import static org.junit.jupiter.api.Assertions.fail;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -347,6 +350,236 @@ public class AsynchronousPageStoreTest
 		assertTrue(sync > 0);
 	}
 
+	/**
+	 * Repeated adds of a page still pending in the queue are coalesced into a single write.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	void coalescePendingAdds() throws InterruptedException
+	{
+		final CountDownLatch blocking = new CountDownLatch(1);
+		final Semaphore semaphore = new Semaphore(0);
+		final List<IManageablePage> added = new ArrayList<>();
+		final CountDownLatch stored = new CountDownLatch(2);
+
+		IPageStore store = new NoopPageStore() {
+
+			@Override
+			public synchronized void addPage(IPageContext context, IManageablePage page)
+			{
+				blocking.countDown();
+				try
+				{
+					semaphore.acquire();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+
+				added.add(page);
+				stored.countDown();
+			}
+		};
+
+		AsynchronousPageStore asyncPageStore = new AsynchronousPageStore(store, 100);
+
+		IPageContext context = new MockPageContext("sessionId");
+
+		SerializedPage page0 = new SerializedPage(0, "", new byte[0]);
+		asyncPageStore.addPage(context, page0);
+
+		// worker is blocked on first page now
+		assertTrue(blocking.await(5, TimeUnit.SECONDS));
+
+		SerializedPage page1a = new SerializedPage(1, "", new byte[0]);
+		SerializedPage page1b = new SerializedPage(1, "", new byte[0]);
+		asyncPageStore.addPage(context, page1a);
+		asyncPageStore.addPage(context, page1b);
+
+		assertEquals(1, asyncPageStore.getQueueSize());
+		assertEquals(1, asyncPageStore.getCoalescedAddCount());
+		assertEquals(page1b, asyncPageStore.getPage(context, 1));
+
+		semaphore.release(2);
+		assertTrue(stored.await(5, TimeUnit.SECONDS));
+
+		asyncPageStore.destroy();
+
+		assertEquals(List.of(page0, page1b), added);
+		assertEquals(0, asyncPageStore.getSynchronousAddCount());
+	}
+
+	/**
+	 * Pages are stored synchronously when the queue is full.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	void countSynchronousAdds() throws InterruptedException
+	{
+		final CountDownLatch blocking = new CountDownLatch(1);
+		final Semaphore semaphore = new Semaphore(0);
+		final CountDownLatch stored = new CountDownLatch(3);
+
+		IPageStore store = new NoopPageStore() {
+
+			@Override
+			public void addPage(IPageContext context, IManageablePage page)
+			{
+				if (page.getPageId() == 0)
+				{
+					blocking.countDown();
+					try
+					{
+						semaphore.acquire();
+					}
+					catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+				stored.countDown();
+			}
+		};
+
+		AsynchronousPageStore asyncPageStore = new AsynchronousPageStore(store, 1);
+
+		IPageContext context = new MockPageContext("sessionId");
+
+		asyncPageStore.addPage(context, new SerializedPage(0, "", new byte[0]));
+		assertTrue(blocking.await(5, TimeUnit.SECONDS));
+
+		asyncPageStore.addPage(context, new SerializedPage(1, "", new byte[0]));
+		asyncPageStore.addPage(context, new SerializedPage(2, "", new byte[0]));
+
+		assertEquals(1, asyncPageStore.getQueueSize());
+		assertEquals(1, asyncPageStore.getSynchronousAddCount());
+
+		semaphore.release();
+		assertTrue(stored.await(5, TimeUnit.SECONDS));
+
+		asyncPageStore.destroy();
+	}
+
+	/**
+	 * A page coalesced into an add waiting for the full queue is stored synchronously.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	void storeCoalescedPageSynchronously() throws InterruptedException
+	{
+		final CountDownLatch blocking = new CountDownLatch(1);
+		final Semaphore semaphore = new Semaphore(0);
+		final List<IManageablePage> added = new CopyOnWriteArrayList<>();
+
+		IPageStore store = new NoopPageStore() {
+
+			@Override
+			public void addPage(IPageContext context, IManageablePage page)
+			{
+				if (page.getPageId() == 0)
+				{
+					blocking.countDown();
+					try
+					{
+						semaphore.acquire();
+					}
+					catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+				added.add(page);
+			}
+		};
+
+		AsynchronousPageStore asyncPageStore = new AsynchronousPageStore(store, 1);
+
+		IPageContext context = new MockPageContext("sessionId");
+
+		asyncPageStore.addPage(context, new SerializedPage(0, "", new byte[0]));
+		assertTrue(blocking.await(5, TimeUnit.SECONDS));
+
+		// fill the queue
+		asyncPageStore.addPage(context, new SerializedPage(1, "", new byte[0]));
+
+		SerializedPage page2a = new SerializedPage(2, "", new byte[0]);
+		SerializedPage page2b = new SerializedPage(2, "", new byte[0]);
+
+		Thread waiting = new Thread(() -> asyncPageStore.addPage(context, page2a));
+		waiting.start();
+
+		// coalesce while the first add waits for the full queue
+		while (asyncPageStore.getPage(context, 2) == null)
+		{
+			Thread.onSpinWait();
+		}
+		asyncPageStore.addPage(context, page2b);
+
+		waiting.join(5000);
+		assertEquals(1, asyncPageStore.getCoalescedAddCount());
+		assertEquals(1, asyncPageStore.getSynchronousAddCount());
+		assertEquals(List.of(page2b), added);
+
+		semaphore.release();
+		asyncPageStore.destroy();
+	}
+
+	/**
+	 * Several workers keep the order of pages per session.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	void keepOrderPerSessionWithWorkers() throws InterruptedException
+	{
+		int sessions = 10;
+		int pages = 20;
+
+		final CountDownLatch stored = new CountDownLatch(sessions * pages);
+		final Map<String, List<Integer>> added = new ConcurrentHashMap<>();
+
+		IPageStore store = new NoopPageStore() {
+
+			@Override
+			public void addPage(IPageContext context, IManageablePage page)
+			{
+				added.computeIfAbsent(context.getSessionId(false), key -> new ArrayList<>())
+					.add(page.getPageId());
+
+				stored.countDown();
+			}
+		};
+
+		AsynchronousPageStore asyncPageStore = new AsynchronousPageStore(store,
+			sessions * pages, 4, true);
+
+		for (int p = 0; p < pages; p++)
+		{
+			for (int s = 0; s < sessions; s++)
+			{
+				asyncPageStore.addPage(new MockPageContext("session" + s),
+					new SerializedPage(p, "", new byte[0]));
+			}
+		}
+
+		assertTrue(stored.await(5, TimeUnit.SECONDS));
+
+		asyncPageStore.destroy();
+
+		assertEquals(sessions, added.size());
+		for (List<Integer> pageIds : added.values())
+		{
+			for (int p = 0; p < pages; p++)
+			{
+				assertEquals(p, pageIds.get(p));
+			}
+		}
+	}
+
 	private MetaDataKey<Serializable> KEY1 = new MetaDataKey<Serializable>()
 	{
 	};
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.apache.wicket.MockPage;
+import org.apache.wicket.mock.MockPageContext;
+import org.apache.wicket.mock.MockPageStore;
+import org.apache.wicket.serialize.java.JavaSerializer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link DeltaPageStore} and {@link BinaryDelta}.
+ */
+public class DeltaPageStoreTest
+{
+	private static final int PAGE_SIZE = 10 * 1024;
+
+	private final Random random = new Random(0);
+
+	@Test
+	void serializedPages()
+	{
+		DeltaPageStore store = new DeltaPageStore(new MockPageStore());
+		JavaSerializer serializer = new JavaSerializer("test");
+
+		IPageContext context = new MockPageContext();
+
+		for (int p = 0; p < 10; p++)
+		{
+			MockPage add = new MockPage(p);
+			store.addPage(context, new SerializedPage(p, "foo", serializer.serialize(add)));
+
+			SerializedPage serializedGot = (SerializedPage)store.getPage(context, p);
+			MockPage got = (MockPage)serializer.deserialize(serializedGot.getData());
+			assertEquals(p, got.getPageId());
+		}
+	}
+
+	@Test
+	void versions()
+	{
+		MockPageStore delegate = new MockPageStore();
+		DeltaPageStore store = new DeltaPageStore(delegate, 5, 10);
+
+		IPageContext context = new MockPageContext();
+
+		byte[][] versions = new byte[20][];
+		long fullBytes = 0;
+		byte[] data = randomBytes(PAGE_SIZE);
+		for (int p = 0; p < versions.length; p++)
+		{
+			data = modify(data);
+			versions[p] = data;
+			fullBytes += data.length;
+
+			store.addPage(context, new SerializedPage(p, "foo", data));
+		}
+
+		for (int p = 0; p < versions.length; p++)
+		{
+			SerializedPage page = (SerializedPage)store.getPage(context, p);
+			assertEquals(p, page.getPageId());
+			assertEquals("foo", page.getPageType());
+			assertArrayEquals(versions[p], page.getData());
+		}
+
+		// a snapshot every 6 versions
+		assertEquals(20 + 4, delegate.getPages().size());
+
+		// 4 snapshots plus small deltas
+		assertTrue(store.getStoredBytes() < 5 * PAGE_SIZE, "stored " + store.getStoredBytes());
+		assertEquals(fullBytes, store.getFullBytes());
+	}
+
+	@Test
+	void snapshotOnLargeDelta()
+	{
+		MockPageStore delegate = new MockPageStore();
+		DeltaPageStore store = new DeltaPageStore(delegate);
+
+		IPageContext context = new MockPageContext();
+
+		byte[] first = randomBytes(PAGE_SIZE);
+		byte[] second = randomBytes(PAGE_SIZE);
+		store.addPage(context, new SerializedPage(0, "foo", first));
+		store.addPage(context, new SerializedPage(1, "foo", second));
+
+		// one snapshot per page
+		assertEquals(4, delegate.getPages().size());
+
+		assertArrayEquals(first, ((SerializedPage)store.getPage(context, 0)).getData());
+		assertArrayEquals(second, ((SerializedPage)store.getPage(context, 1)).getData());
+	}
+
+	@Test
+	void snapshotsFromDelegate()
+	{
+		MockPageStore delegate = new MockPageStore();
+		DeltaPageStore store = new DeltaPageStore(delegate, 5, 0);
+
+		IPageContext context = new MockPageContext();
+
+		byte[] data = randomBytes(PAGE_SIZE);
+		store.addPage(context, new SerializedPage(0, "foo", data));
+		byte[] modified = modify(data);
+		store.addPage(context, new SerializedPage(1, "foo", modified));
+
+		// single snapshot only
+		assertEquals(3, delegate.getPages().size());
+
+		assertArrayEquals(data, ((SerializedPage)store.getPage(context, 0)).getData());
+		assertArrayEquals(modified, ((SerializedPage)store.getPage(context, 1)).getData());
+	}
+
+	@Test
+	void missingSnapshot()
+	{
+		MockPageStore delegate = new MockPageStore();
+		DeltaPageStore store = new DeltaPageStore(delegate, 5, 0);
+
+		IPageContext context = new MockPageContext();
+
+		store.addPage(context, new SerializedPage(0, "foo", randomBytes(PAGE_SIZE)));
+
+		// evict snapshot
+		delegate.getPages().removeIf(page -> page.getPageId() < 0);
+
+		assertNull(store.getPage(context, 0));
+
+		// a new snapshot is taken
+		byte[] data = randomBytes(PAGE_SIZE);
+		store.addPage(context, new SerializedPage(1, "foo", data));
+		assertArrayEquals(data, ((SerializedPage)store.getPage(context, 1)).getData());
+	}
+
+	@Test
+	void removeAllPages()
+	{
+		MockPageStore delegate = new MockPageStore();
+		DeltaPageStore store = new DeltaPageStore(delegate);
+
+		IPageContext context = new MockPageContext();
+
+		store.addPage(context, new SerializedPage(0, "foo", randomBytes(PAGE_SIZE)));
+		store.removeAllPages(context);
+
+		assertTrue(delegate.getPages().isEmpty());
+		assertNull(store.getPage(context, 0));
+	}
+
+	@Test
+	void binaryDelta()
+	{
+		byte[] empty = new byte[0];
+		assertArrayEquals(empty, BinaryDelta.apply(empty, BinaryDelta.create(empty, empty)));
+
+		for (int i = 0; i < 100; i++)
+		{
+			byte[] base = randomBytes(random.nextInt(2000));
+			byte[] target = random.nextBoolean() ? modify(base) : randomBytes(random.nextInt(2000));
+
+			byte[] delta = BinaryDelta.create(base, target);
+			assertArrayEquals(target, BinaryDelta.apply(base, delta));
+		}
+
+		byte[] base = randomBytes(PAGE_SIZE);
+		byte[] delta = BinaryDelta.create(base, base);
+		assertTrue(delta.length < 10, "delta " + delta.length);
+	}
+
+	@Test
+	void malformedDelta()
+	{
+		byte[] base = randomBytes(100);
+		byte[] delta = BinaryDelta.create(base, modify(base));
+
+		assertThrows(IllegalArgumentException.class,
+			() -> BinaryDelta.apply(new byte[50], delta));
+
+		byte[] truncated = new byte[delta.length - 1];
+		System.arraycopy(delta, 0, truncated, 0, truncated.length);
+		assertThrows(IllegalArgumentException.class, () -> BinaryDelta.apply(base, truncated));
+	}
+
+	private byte[] randomBytes(int length)
+	{
+		byte[] bytes = new byte[length];
+		random.nextBytes(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Modify, insert or remove a few bytes.
+	 */
+	private byte[] modify(byte[] data)
+	{
+		byte[] modified = data.clone();
+		if (modified.length > 0)
+		{
+			modified[random.nextInt(modified.length)]++;
+		}
+
+		int position = random.nextInt(modified.length + 1);
+		if (random.nextBoolean())
+		{
+			byte[] inserted = new byte[modified.length + 3];
+			System.arraycopy(modified, 0, inserted, 0, position);
+			System.arraycopy(modified, position, inserted, position + 3, modified.length - position);
+			return inserted;
+		}
+		else if (modified.length - position >= 3)
+		{
+			byte[] removed = new byte[modified.length - 3];
+			System.arraycopy(modified, 0, removed, 0, position);
+			System.arraycopy(modified, position + 3, removed, position, removed.length - position);
+			return removed;
+		}
+		return modified;
+	}
+}
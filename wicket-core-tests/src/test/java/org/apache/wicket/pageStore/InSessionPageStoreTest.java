@@ -16,8 +16,13 @@
  */
 package org.apache.wicket.pageStore;
 
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
 import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.mock.MockPageContext;
 import org.apache.wicket.pageStore.InSessionPageStore.SessionData;
+import org.junit.jupiter.api.Test;
 
 /**
  * Test for {@link InSessionPageStore}. 
@@ -43,4 +48,20 @@ public class InSessionPageStoreTest extends AbstractPageStoreTest
 		};
 	}
 
+	/**
+	 * Pages can be kept in a separate session attribute instead of the session's metadata.
+	 */
+	@Test
+	void attribute()
+	{
+		IPageContext context = new MockPageContext(sessionId);
+
+		InSessionPageStore store = ((InSessionPageStore)createPageStore(maxEntries))
+			.setAttributeName("pages");
+		store.addPage(context, new SerializedPage(pageId, pageData));
+
+		assertNotNull(store.getPage(context, pageId));
+		assertNotNull(context.getSessionAttribute("pages", null));
+		assertNull(context.getSessionData(KEY, null));
+	}
 }
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.apache.wicket.mock.MockPageContext;
+
+import org.apache.wicket.util.WicketTestTag;
+import org.apache.wicket.util.lang.Bytes;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MappedDiskPageStore}.
+ */
+@Tag(WicketTestTag.SLOW)
+public class MappedDiskPageStoreTest extends AbstractConcurrentPageStoreTest
+{
+
+	private static final Bytes MAX_SIZE_PER_SESSION = Bytes.megabytes(10);
+
+	/**
+	 * @throws IOException 
+	 */
+	@Test
+	void store() throws IOException
+	{
+		File fileStoreFolder = Files.createTempDirectory(null).toFile();
+
+		IPageStore pageStore = new MappedDiskPageStore("app1", fileStoreFolder, MAX_SIZE_PER_SESSION);
+
+		doTestStore(pageStore);
+
+		pageStore.destroy();
+	}
+
+	/**
+	 * Pages are readable after restart, also as zero-copy buffers.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	void restart() throws IOException
+	{
+		File fileStoreFolder = Files.createTempDirectory(null).toFile();
+
+		MappedDiskPageStore pageStore = new MappedDiskPageStore("app1", fileStoreFolder,
+			MAX_SIZE_PER_SESSION);
+
+		IPageContext context = new MockPageContext("session1");
+		byte[] data = new byte[100 * 1024];
+		for (int i = 0; i < data.length; i++)
+		{
+			data[i] = (byte)i;
+		}
+		pageStore.addPage(context, new SerializedPage(1, "type", data));
+		pageStore.addPage(context, new SerializedPage(2, "type", new byte[] { 1, 2, 3 }));
+
+		pageStore.destroy();
+
+		pageStore = new MappedDiskPageStore("app1", fileStoreFolder, MAX_SIZE_PER_SESSION);
+
+		SerializedPage page = (SerializedPage)pageStore.getPage(context, 1);
+		assertArrayEquals(data, page.getData());
+
+		String sessionIdentifier = pageStore.getSessionIdentifier(context);
+		ByteBuffer buffer = pageStore.getPageData(sessionIdentifier, 2);
+		assertEquals(3, buffer.remaining());
+		assertEquals(3, buffer.get(2));
+		assertNull(pageStore.getPageData(sessionIdentifier, 3));
+
+		pageStore.removePage(context, new SerializedPage(2, "type", new byte[0]));
+		assertNull(pageStore.getPageData(sessionIdentifier, 2));
+
+		pageStore.removeAllPages(context);
+		assertNull(pageStore.getPage(context, 1));
+
+		pageStore.destroy();
+	}
+}
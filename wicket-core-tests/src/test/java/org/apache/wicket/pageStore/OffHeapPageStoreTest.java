@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.wicket.MockPage;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.mock.MockPageContext;
+import org.apache.wicket.util.lang.Bytes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link OffHeapPageStore}.
+ */
+public class OffHeapPageStoreTest
+{
+	private OffHeapPageStore store;
+
+	@AfterEach
+	void after()
+	{
+		if (store != null)
+		{
+			store.destroy();
+		}
+	}
+
+	@Test
+	void addGetRemove()
+	{
+		store = new OffHeapPageStore("test", Bytes.kilobytes(64), Bytes.bytes(100));
+
+		IPageContext context = new MockPageContext("session");
+
+		byte[] data = bytes(250, 1);
+		store.addPage(context, new SerializedPage(1, "foo", data));
+
+		SerializedPage page = (SerializedPage)store.getPage(context, 1);
+		assertEquals(1, page.getPageId());
+		assertEquals("foo", page.getPageType());
+		assertArrayEquals(data, page.getData());
+
+		assertEquals(250, store.getTotalSize().bytes());
+		assertEquals(1, store.getPersistedPages("session").size());
+
+		store.removePage(context, page);
+		assertNull(store.getPage(context, 1));
+		assertEquals(0, store.getTotalSize().bytes());
+	}
+
+	@Test
+	void replacePage()
+	{
+		store = new OffHeapPageStore("test", Bytes.bytes(400), Bytes.bytes(100));
+
+		IPageContext context = new MockPageContext("session");
+
+		for (int i = 0; i < 10; i++)
+		{
+			store.addPage(context, new SerializedPage(1, "foo", bytes(400, i)));
+		}
+
+		assertArrayEquals(bytes(400, 9), ((SerializedPage)store.getPage(context, 1)).getData());
+		assertEquals(0, store.getEvictionCount());
+	}
+
+	@Test
+	void globalLimit()
+	{
+		store = new OffHeapPageStore("test", Bytes.bytes(1000), Bytes.bytes(100));
+
+		IPageContext[] contexts = new IPageContext[6];
+		for (int s = 0; s < contexts.length; s++)
+		{
+			contexts[s] = new MockPageContext("session" + s);
+			store.addPage(contexts[s], new SerializedPage(1, "foo", bytes(200, s)));
+		}
+
+		// room for 5 pages only, the oldest one was evicted
+		assertEquals(1, store.getEvictionCount());
+		assertEquals(1000, store.getTotalSize().bytes());
+		assertEquals(1000, store.getAllocatedSize().bytes());
+		assertNull(store.getPage(contexts[0], 1));
+		assertEquals(5, store.getSessionIdentifiers().size());
+		for (int s = 1; s < 6; s++)
+		{
+			assertArrayEquals(bytes(200, s),
+				((SerializedPage)store.getPage(contexts[s], 1)).getData());
+		}
+	}
+
+	@Test
+	void secondChance()
+	{
+		store = new OffHeapPageStore("test", Bytes.bytes(300), Bytes.bytes(100));
+
+		IPageContext context = new MockPageContext("session");
+		store.addPage(context, new SerializedPage(1, "foo", bytes(100, 1)));
+		store.addPage(context, new SerializedPage(2, "foo", bytes(100, 2)));
+		store.addPage(context, new SerializedPage(3, "foo", bytes(100, 3)));
+
+		// page 1 is still used
+		assertNotNull(store.getPage(context, 1));
+
+		store.addPage(context, new SerializedPage(4, "foo", bytes(100, 4)));
+
+		assertNotNull(store.getPage(context, 1));
+		assertNull(store.getPage(context, 2));
+		assertNotNull(store.getPage(context, 3));
+		assertNotNull(store.getPage(context, 4));
+	}
+
+	@Test
+	void tooLarge()
+	{
+		store = new OffHeapPageStore("test", Bytes.bytes(300), Bytes.bytes(100));
+
+		IPageContext context = new MockPageContext("session");
+		store.addPage(context, new SerializedPage(1, "foo", bytes(100, 1)));
+		store.addPage(context, new SerializedPage(2, "foo", bytes(301, 2)));
+
+		assertNotNull(store.getPage(context, 1));
+		assertNull(store.getPage(context, 2));
+	}
+
+	@Test
+	void serializedOnly()
+	{
+		store = new OffHeapPageStore("test", Bytes.bytes(300), Bytes.bytes(100));
+
+		IPageContext context = new MockPageContext("session");
+		assertThrows(WicketRuntimeException.class, () -> store.addPage(context, new MockPage(1)));
+	}
+
+	@Test
+	void removeAllPages()
+	{
+		store = new OffHeapPageStore("test", Bytes.kilobytes(1), Bytes.bytes(100));
+
+		IPageContext context = new MockPageContext("session");
+		store.addPage(context, new SerializedPage(1, "foo", bytes(100, 1)));
+		store.addPage(context, new SerializedPage(2, "foo", bytes(100, 2)));
+
+		store.removeAllPages(context);
+
+		assertNull(store.getPage(context, 1));
+		assertNull(store.getPage(context, 2));
+		assertTrue(store.getSessionIdentifiers().isEmpty());
+		assertEquals(0, store.getTotalSize().bytes());
+	}
+
+	@Test
+	void concurrent() throws Exception
+	{
+		store = new OffHeapPageStore("test", Bytes.kilobytes(100), Bytes.bytes(512));
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try
+		{
+			Future<?>[] futures = new Future<?>[8];
+			for (int t = 0; t < futures.length; t++)
+			{
+				IPageContext context = new MockPageContext("session" + t);
+				futures[t] = executor.submit(() -> {
+					Random random = new Random();
+					for (int i = 0; i < 2000; i++)
+					{
+						int id = random.nextInt(20);
+						if (random.nextBoolean())
+						{
+							store.addPage(context,
+								new SerializedPage(id, "foo", bytes(1000 + id * 100, id)));
+						}
+						else
+						{
+							SerializedPage page = (SerializedPage)store.getPage(context, id);
+							if (page != null)
+							{
+								assertArrayEquals(bytes(1000 + id * 100, id), page.getData());
+							}
+						}
+					}
+				});
+			}
+			for (Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+
+		assertTrue(store.getTotalSize().bytes() <= Bytes.kilobytes(100).bytes());
+		assertTrue(store.getEvictionCount() > 0);
+	}
+
+	private static byte[] bytes(int length, int seed)
+	{
+		byte[] bytes = new byte[length];
+		new Random(seed).nextBytes(bytes);
+		return bytes;
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.wicket.mock.MockPageContext;
+import org.apache.wicket.util.WicketTestTag;
+import org.apache.wicket.util.lang.Bytes;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the throughput of the persistent stores on disk, with several threads reading pages of
+ * a single session concurrently.
+ */
+@Tag(WicketTestTag.SLOW)
+public class PersistentPageStorePerformanceTest
+{
+	private static final Bytes MAX_SIZE_PER_SESSION = Bytes.megabytes(10);
+
+	private static final int PAGES = 50;
+
+	private static final int PAGE_SIZE = 20 * 1024;
+
+	private static final int THREADS = 8;
+
+	private static final int READS = 2000;
+
+	@Test
+	void performance() throws Exception
+	{
+		// warm up
+		run("DiskPageStore", DiskPageStore::new);
+		run("FilePageStore", FilePageStore::new);
+		run("MappedDiskPageStore", MappedDiskPageStore::new);
+		run("SegmentPageStore", SegmentPageStore::new);
+
+		run("DiskPageStore", DiskPageStore::new);
+		run("FilePageStore", FilePageStore::new);
+		run("MappedDiskPageStore", MappedDiskPageStore::new);
+		run("SegmentPageStore", SegmentPageStore::new);
+	}
+
+	private void run(String name, StoreFactory factory) throws Exception
+	{
+		File folder = Files.createTempDirectory(null).toFile();
+
+		IPageStore pageStore = factory.create(name, folder, MAX_SIZE_PER_SESSION);
+		try
+		{
+			IPageContext context = new MockPageContext("session");
+
+			Random random = new Random(0);
+			byte[] data = new byte[PAGE_SIZE];
+			random.nextBytes(data);
+
+			long start = System.nanoTime();
+			for (int id = 0; id < PAGES; id++)
+			{
+				pageStore.addPage(context, new SerializedPage(id, "type", data));
+			}
+			long writing = System.nanoTime() - start;
+
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			try
+			{
+				start = System.nanoTime();
+				Future<?>[] futures = new Future<?>[THREADS];
+				for (int t = 0; t < THREADS; t++)
+				{
+					futures[t] = executor.submit(() -> {
+						Random r = new Random();
+						for (int i = 0; i < READS; i++)
+						{
+							SerializedPage page = (SerializedPage)pageStore.getPage(context,
+								r.nextInt(PAGES));
+							assertEquals(PAGE_SIZE, page.getData().length);
+						}
+					});
+				}
+				for (Future<?> future : futures)
+				{
+					future.get();
+				}
+			}
+			finally
+			{
+				executor.shutdown();
+				executor.awaitTermination(1, TimeUnit.MINUTES);
+			}
+			long reading = System.nanoTime() - start;
+
+			System.out.printf("%s: writing %d pages took %d ms, reading %d pages took %d ms%n",
+				name, PAGES, TimeUnit.NANOSECONDS.toMillis(writing), THREADS * READS,
+				TimeUnit.NANOSECONDS.toMillis(reading));
+		}
+		finally
+		{
+			pageStore.destroy();
+		}
+	}
+
+	private interface StoreFactory
+	{
+		IPageStore create(String applicationName, File folder, Bytes maxSizePerSession);
+	}
+}
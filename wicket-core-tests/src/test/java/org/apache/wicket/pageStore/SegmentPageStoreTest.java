@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+
+import org.apache.wicket.mock.MockPageContext;
+import org.apache.wicket.util.WicketTestTag;
+import org.apache.wicket.util.lang.Bytes;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link SegmentPageStore}.
+ */
+@Tag(WicketTestTag.SLOW)
+public class SegmentPageStoreTest extends AbstractConcurrentPageStoreTest
+{
+
+	private static final Bytes MAX_SIZE_PER_SESSION = Bytes.megabytes(10);
+
+	/**
+	 * @throws IOException 
+	 */
+	@Test
+	void store() throws IOException
+	{
+		File fileStoreFolder = Files.createTempDirectory(null).toFile();
+
+		IPageStore pageStore = new SegmentPageStore("app1", fileStoreFolder, MAX_SIZE_PER_SESSION,
+			Bytes.megabytes(1), Duration.ofMillis(100));
+
+		doTestStore(pageStore);
+
+		pageStore.destroy();
+	}
+
+	/**
+	 * Expired pages are reclaimed by compaction, live pages survive compaction and restart.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	void compactAndRestart() throws IOException
+	{
+		File fileStoreFolder = Files.createTempDirectory(null).toFile();
+
+		SegmentPageStore pageStore = new SegmentPageStore("app1", fileStoreFolder,
+			Bytes.bytes(3000), Bytes.bytes(2000), Duration.ZERO);
+
+		IPageContext context = new MockPageContext("session1");
+
+		for (int id = 0; id < 10; id++)
+		{
+			pageStore.addPage(context, new SerializedPage(id, "type", data(id, 1000)));
+		}
+
+		// only the last three pages fit into the session
+		assertNull(pageStore.getPage(context, 6));
+		assertEquals(3000, pageStore.getTotalSize().bytes());
+		assertEquals(10000, pageStore.getSegmentsSize().bytes());
+
+		pageStore.compact();
+
+		assertTrue(pageStore.getSegmentsSize().bytes() < 10000);
+		for (int id = 7; id < 10; id++)
+		{
+			SerializedPage page = (SerializedPage)pageStore.getPage(context, id);
+			assertArrayEquals(data(id, 1000), page.getData());
+		}
+
+		pageStore.destroy();
+
+		pageStore = new SegmentPageStore("app1", fileStoreFolder, Bytes.bytes(3000),
+			Bytes.bytes(2000), Duration.ZERO);
+
+		assertEquals(3, pageStore.getPersistedPages(pageStore.getSessionIdentifier(context)).size());
+		for (int id = 7; id < 10; id++)
+		{
+			SerializedPage page = (SerializedPage)pageStore.getPage(context, id);
+			assertArrayEquals(data(id, 1000), page.getData());
+		}
+
+		pageStore.removeAllPages(context);
+		assertNull(pageStore.getPage(context, 9));
+		assertEquals(0, pageStore.getTotalSize().bytes());
+
+		pageStore.destroy();
+	}
+
+	private byte[] data(int id, int length)
+	{
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++)
+		{
+			data[i] = (byte)(id + i);
+		}
+		return data;
+	}
+}
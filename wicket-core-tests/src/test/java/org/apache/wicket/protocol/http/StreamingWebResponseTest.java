@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.behavior.Behavior;
+import org.apache.wicket.mock.MockWebResponse;
+import org.apache.wicket.settings.RequestCycleSettings.RenderStrategy;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link StreamingWebResponse}.
+ */
+class StreamingWebResponseTest extends WicketTestCase
+{
+	/**
+	 * Everything is buffered until the first flush.
+	 */
+	@Test
+	void bufferUntilFlush()
+	{
+		MockWebResponse originalResponse = new MockWebResponse();
+
+		StreamingWebResponse response = new StreamingWebResponse(originalResponse);
+
+		response.addHeader("key1", "value1");
+		response.write("head");
+
+		assertNull(originalResponse.getHeader("key1"));
+		assertNull(originalResponse.getTextResponse());
+
+		response.flush();
+
+		assertTrue(response.isStreaming());
+		assertEquals("value1", originalResponse.getHeader("key1"));
+		assertEquals("head", originalResponse.getTextResponse().toString());
+
+		response.write("body");
+
+		assertEquals("headbody", originalResponse.getTextResponse().toString());
+	}
+
+	/**
+	 * The buffer can be reset until the first flush only.
+	 */
+	@Test
+	void resetUntilFlush()
+	{
+		MockWebResponse originalResponse = new MockWebResponse();
+
+		StreamingWebResponse response = new StreamingWebResponse(originalResponse);
+
+		response.write("discarded");
+		response.reset();
+		response.write("written");
+		response.startStreaming();
+
+		assertEquals("written", originalResponse.getTextResponse().toString());
+
+		assertThrows(IllegalStateException.class, response::reset);
+	}
+
+	/**
+	 * The page is streamed after its header was rendered.
+	 */
+	@Test
+	void streamPage()
+	{
+		tester.getApplication()
+			.getRequestCycleSettings()
+			.setRenderStrategy(RenderStrategy.ONE_PASS_RENDER)
+			.setStreamingRender(true);
+
+		AtomicBoolean streaming = new AtomicBoolean();
+
+		MockPage page = new MockPage();
+		page.get("actionLink").add(new Behavior()
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void beforeRender(Component component)
+			{
+				streaming.set(((StreamingWebResponse)component.getResponse()).isStreaming());
+			}
+		});
+		tester.startPage(page);
+
+		tester.assertRenderedPage(MockPage.class);
+		tester.assertContains("<title>Mock Page</title>");
+		tester.assertContains("Action link clicked");
+		assertTrue(streaming.get());
+	}
+
+	/**
+	 * Pages are not streamed unless enabled.
+	 */
+	@Test
+	void bufferPage()
+	{
+		tester.getApplication()
+			.getRequestCycleSettings()
+			.setRenderStrategy(RenderStrategy.ONE_PASS_RENDER);
+
+		AtomicBoolean streamed = new AtomicBoolean();
+
+		MockPage page = new MockPage();
+		page.get("actionLink").add(new Behavior()
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void beforeRender(Component component)
+			{
+				streamed.set(component.getResponse() instanceof StreamingWebResponse);
+			}
+		});
+		tester.startPage(page);
+
+		tester.assertRenderedPage(MockPage.class);
+		assertFalse(streamed.get());
+	}
+}
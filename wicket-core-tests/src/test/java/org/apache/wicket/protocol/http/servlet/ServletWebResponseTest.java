@@ -34,6 +34,7 @@ import org.apache.wicket.protocol.http.mock.MockHttpServletResponse;
 import org.apache.wicket.request.Url;
 import org.apache.wicket.request.UrlRenderer;
 import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.util.string.AppendingStringBuffer;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 
@@ -214,4 +215,28 @@ class ServletWebResponseTest
 		ServletWebResponse webResponse = new ServletWebResponse(webRequest, httpServletResponse);
 		assertEquals(url + ";foo", webResponse.encodeRedirectURL(url));
 	}
+
+	/**
+	 * Large char sequences are written in chunks
+	 */
+	@Test
+	void writeLargeCharSequence()
+	{
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; text.length() < 20000; i++)
+		{
+			text.append(i).append(' ');
+		}
+
+		ServletWebRequest webRequest = mock(ServletWebRequest.class);
+		MockHttpServletRequest httpRequest = mock(MockHttpServletRequest.class);
+		MockHttpServletResponse httpResponse = new MockHttpServletResponse(httpRequest);
+		ServletWebResponse response = new ServletWebResponse(webRequest, httpResponse);
+
+		response.write(text);
+		response.write(new AppendingStringBuffer(text));
+		response.write("end");
+
+		assertEquals(text.toString() + text + "end", httpResponse.getDocument());
+	}
 }
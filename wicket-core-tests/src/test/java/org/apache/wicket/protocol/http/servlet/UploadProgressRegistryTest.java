@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.http.servlet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link UploadProgressRegistry}.
+ */
+class UploadProgressRegistryTest extends WicketTestCase
+{
+	@Test
+	void setGetRemove()
+	{
+		UploadProgressRegistry registry = new UploadProgressRegistry();
+
+		UploadInfo info = new UploadInfo(100);
+		registry.set("session", "upload", info);
+
+		assertSame(info, registry.get("session", "upload"));
+		assertNull(registry.get("session", "other"));
+		assertNull(registry.get("other", "upload"));
+
+		registry.remove("session", "upload");
+		assertNull(registry.get("session", "upload"));
+	}
+
+	@Test
+	void bounded() throws Exception
+	{
+		UploadProgressRegistry registry = new UploadProgressRegistry(2, Duration.ofHours(1));
+
+		UploadInfo info1 = new UploadInfo(100);
+		registry.set("session", "upload1", info1);
+		Thread.sleep(1);
+		registry.set("session", "upload2", new UploadInfo(100));
+		Thread.sleep(1);
+		registry.set("session", "upload1", info1);
+		registry.set("session", "upload3", new UploadInfo(100));
+
+		assertEquals(2, registry.size());
+		assertSame(info1, registry.get("session", "upload1"));
+		assertNull(registry.get("session", "upload2"));
+	}
+
+	@Test
+	void expired() throws Exception
+	{
+		UploadProgressRegistry registry = new UploadProgressRegistry(10, Duration.ZERO);
+
+		registry.set("session", "upload", new UploadInfo(100));
+		Thread.sleep(1);
+
+		assertNull(registry.get("session", "upload"));
+		assertEquals(0, registry.size());
+	}
+
+	/**
+	 * The progress is kept off the http session by default.
+	 */
+	@Test
+	void notInSession()
+	{
+		HttpServletRequest request = tester.getRequest();
+
+		UploadInfo info = new UploadInfo(100);
+		MultipartServletWebRequestImpl.setUploadInfo(request, "upload", info);
+		info.setBytesUploaded(50);
+
+		assertSame(info, MultipartServletWebRequestImpl.getUploadInfo(request, "upload"));
+		assertEquals(50, MultipartServletWebRequestImpl.getUploadInfo(request, "upload")
+			.getPercentageComplete());
+		for (String name : Collections.list(request.getSession().getAttributeNames()))
+		{
+			assertFalse(name.startsWith(MultipartServletWebRequestImpl.class.getName()));
+		}
+
+		MultipartServletWebRequestImpl.clearUploadInfo(request, "upload");
+		assertNull(MultipartServletWebRequestImpl.getUploadInfo(request, "upload"));
+	}
+}
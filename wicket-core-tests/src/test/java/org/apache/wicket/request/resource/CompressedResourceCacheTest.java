@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+
+import org.apache.wicket.util.lang.Bytes;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CompressedResourceCache}.
+ */
+class CompressedResourceCacheTest
+{
+	private final CompressedResourceCache cache = new CompressedResourceCache(Bytes.bytes(10));
+
+	@Test
+	void compressible()
+	{
+		assertTrue(cache.isCompressible("text/css"));
+		assertTrue(cache.isCompressible("text/javascript; charset=UTF-8"));
+		assertTrue(cache.isCompressible("application/json"));
+		assertTrue(cache.isCompressible("image/svg+xml"));
+		assertFalse(cache.isCompressible("image/png"));
+		assertFalse(cache.isCompressible(null));
+	}
+
+	@Test
+	void evictLeastRecentlyUsed()
+	{
+		Instant version = Instant.now();
+
+		cache.getCompressed("a", version, () -> new byte[4]);
+		cache.getCompressed("b", version, () -> new byte[4]);
+		// use a again
+		cache.getCompressed("a", version, () -> new byte[0]);
+		cache.getCompressed("c", version, () -> new byte[4]);
+
+		assertEquals(2, cache.size());
+		assertEquals(8, cache.getCachedSize().bytes());
+		assertEquals(4, cache.getCompressed("a", version, () -> new byte[0]).length);
+		assertEquals(0, cache.getCompressed("b", version, () -> new byte[0]).length);
+	}
+
+	@Test
+	void newVersion()
+	{
+		cache.getCompressed("a", Instant.ofEpochSecond(1), () -> new byte[] { 1 });
+
+		assertArrayEquals(new byte[] { 2 },
+			cache.getCompressed("a", Instant.ofEpochSecond(2), () -> new byte[] { 2 }));
+	}
+
+	@Test
+	void tooLarge()
+	{
+		cache.getCompressed("a", null, () -> new byte[11]);
+
+		assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource.caching.version;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CachingResourceVersion}.
+ */
+class CachingResourceVersionTest
+{
+	private final AtomicInteger computed = new AtomicInteger();
+
+	private final CachingResourceVersion version = new CachingResourceVersion(new IResourceVersion()
+	{
+		@Override
+		public String getVersion(IStaticCacheableResource resource)
+		{
+			computed.incrementAndGet();
+			return resource.getCacheKey().toString();
+		}
+
+		@Override
+		public Pattern getVersionPattern()
+		{
+			return Pattern.compile(".*");
+		}
+	}, 2);
+
+	@Test
+	void expireLeastRecentlyUsed()
+	{
+		IStaticCacheableResource a = resource("a");
+		IStaticCacheableResource b = resource("b");
+		IStaticCacheableResource c = resource("c");
+
+		assertEquals("a", version.getVersion(a));
+		assertEquals("b", version.getVersion(b));
+		assertEquals("a", version.getVersion(a));
+		assertEquals(2, computed.get());
+
+		// expires b
+		assertEquals("c", version.getVersion(c));
+		assertEquals("a", version.getVersion(a));
+		assertEquals(3, computed.get());
+
+		assertEquals("b", version.getVersion(b));
+		assertEquals(4, computed.get());
+	}
+
+	@Test
+	void invalidate()
+	{
+		IStaticCacheableResource a = resource("a");
+
+		version.getVersion(a);
+		version.invalidate(a);
+		version.getVersion(a);
+
+		assertEquals(2, computed.get());
+	}
+
+	private IStaticCacheableResource resource(String key)
+	{
+		IStaticCacheableResource resource = mock(IStaticCacheableResource.class);
+		when(resource.getCacheKey()).thenReturn(key);
+		return resource;
+	}
+}
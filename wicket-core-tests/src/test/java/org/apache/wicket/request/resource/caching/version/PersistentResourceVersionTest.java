@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource.caching.version;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
+import org.apache.wicket.util.lang.Bytes;
+import org.apache.wicket.util.resource.IFixedLocationResourceStream;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link PersistentResourceVersion}.
+ */
+class PersistentResourceVersionTest
+{
+	@TempDir
+	File dir;
+
+	private final AtomicInteger computed = new AtomicInteger();
+
+	private final IResourceVersion delegate = new IResourceVersion()
+	{
+		@Override
+		public String getVersion(IStaticCacheableResource resource)
+		{
+			return "v" + computed.incrementAndGet();
+		}
+
+		@Override
+		public Pattern getVersionPattern()
+		{
+			return Pattern.compile("v[0-9]+");
+		}
+	};
+
+	@Test
+	void survivesRestart()
+	{
+		File file = new File(dir, "versions");
+		IStaticCacheableResource resource = resource("a", Instant.ofEpochMilli(1000));
+
+		assertEquals("v1", new PersistentResourceVersion(delegate, file).getVersion(resource));
+
+		// restart
+		PersistentResourceVersion version = new PersistentResourceVersion(delegate, file);
+		assertEquals("v1", version.getVersion(resource));
+		assertEquals(1, computed.get());
+
+		// modified
+		assertEquals("v2", version.getVersion(resource("a", Instant.ofEpochMilli(2000))));
+
+		// restart again
+		version = new PersistentResourceVersion(delegate, file);
+		assertEquals("v2", version.getVersion(resource("a", Instant.ofEpochMilli(2000))));
+		assertEquals("v3", version.getVersion(resource("b", Instant.ofEpochMilli(2000))));
+		assertEquals(3, computed.get());
+	}
+
+	@Test
+	void compactsOnLoad() throws IOException
+	{
+		File file = new File(dir, "versions");
+		PersistentResourceVersion version = new PersistentResourceVersion(delegate, file);
+		version.getVersion(resource("a", Instant.ofEpochMilli(1000)));
+		version.getVersion(resource("a", Instant.ofEpochMilli(2000)));
+		version.getVersion(resource("b", Instant.ofEpochMilli(1000)));
+		assertEquals(3, Files.readAllLines(file.toPath()).size());
+
+		// restart
+		version = new PersistentResourceVersion(delegate, file);
+		assertEquals(2, Files.readAllLines(file.toPath()).size());
+		assertEquals("v2", version.getVersion(resource("a", Instant.ofEpochMilli(2000))));
+		assertEquals("v3", version.getVersion(resource("b", Instant.ofEpochMilli(1000))));
+		assertEquals(3, computed.get());
+		assertEquals(1, dir.list().length);
+	}
+
+	/**
+	 * Reproducible builds give all entries of a jar the same last modification
+	 */
+	@Test
+	void changedLengthOrJar() throws IOException
+	{
+		File file = new File(dir, "versions");
+		File jar = new File(dir, "resources.jar");
+		Files.write(jar.toPath(), new byte[] { 1 });
+		String location = "jar:" + jar.toURI() + "!/a.js";
+		Instant lastModified = Instant.ofEpochMilli(1000);
+
+		PersistentResourceVersion version = new PersistentResourceVersion(delegate, file);
+		assertEquals("v1", version.getVersion(resource("a", lastModified, 10, location)));
+		assertEquals("v1", version.getVersion(resource("a", lastModified, 10, location)));
+		assertEquals("v2", version.getVersion(resource("a", lastModified, 20, location)));
+
+		// new release
+		Files.write(jar.toPath(), new byte[] { 1, 2 });
+		version = new PersistentResourceVersion(delegate, file);
+		assertEquals("v3", version.getVersion(resource("a", lastModified, 20, location)));
+		assertEquals(3, computed.get());
+	}
+
+	private IStaticCacheableResource resource(String key, Instant lastModified)
+	{
+		return resource(key, lastModified, 0, null);
+	}
+
+	private IStaticCacheableResource resource(String key, Instant lastModified, long length,
+		String location)
+	{
+		IResourceStream stream = mock(IResourceStream.class,
+			withSettings().extraInterfaces(IFixedLocationResourceStream.class));
+		when(stream.lastModifiedTime()).thenReturn(lastModified);
+		when(stream.length()).thenReturn(Bytes.bytes(length));
+		when(((IFixedLocationResourceStream)stream).locationAsString()).thenReturn(location);
+
+		IStaticCacheableResource resource = mock(IStaticCacheableResource.class);
+		when(resource.getCacheKey()).thenReturn(key);
+		when(resource.getResourceStream()).thenReturn(stream);
+		return resource;
+	}
+}
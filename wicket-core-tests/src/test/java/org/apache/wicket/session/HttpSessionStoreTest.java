@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.apache.wicket.request.Request;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link HttpSessionStore}.
+ */
+class HttpSessionStoreTest extends WicketTestCase
+{
+	@Test
+	void changeTracking()
+	{
+		HttpSessionStore store = new HttpSessionStore().setChangeTracking(true);
+		Request request = tester.getRequestCycle().getRequest();
+		store.getSessionId(request, true);
+
+		ArrayList<String> value = new ArrayList<>();
+		value.add("a");
+
+		store.setAttribute(request, "attribute", value);
+		store.setAttribute(request, "attribute", value);
+		value.add("b");
+		store.setAttribute(request, "attribute", value);
+
+		ReplicationStatistics statistics = store.getReplicationStatistics();
+		assertEquals(2, statistics.getWrittenAttributes());
+		assertEquals(1, statistics.getSkippedAttributes());
+		assertTrue(statistics.getWrittenBytes() > 0);
+		assertSame(value, store.getAttribute(request, "attribute"));
+
+		// an equal instance replaces the current one
+		ArrayList<String> copy = new ArrayList<>(value);
+		store.setAttribute(request, "attribute", copy);
+		assertEquals(3, statistics.getWrittenAttributes());
+		assertSame(copy, store.getAttribute(request, "attribute"));
+
+		store.removeAttribute(request, "attribute");
+		assertNull(store.getAttribute(request, "attribute"));
+		store.setAttribute(request, "attribute", copy);
+		assertEquals(4, statistics.getWrittenAttributes());
+	}
+
+	@Test
+	void noChangeTracking()
+	{
+		HttpSessionStore store = new HttpSessionStore();
+		Request request = tester.getRequestCycle().getRequest();
+		store.getSessionId(request, true);
+
+		store.setAttribute(request, "attribute", "value");
+
+		assertEquals("value", store.getAttribute(request, "attribute"));
+		assertNull(store.getReplicationStatistics());
+	}
+}
@@ -23,14 +23,18 @@ import org.apache.wicket.page.PageManager;
 import org.apache.wicket.pageStore.AsynchronousPageStore;
 import org.apache.wicket.pageStore.CachingPageStore;
 import org.apache.wicket.pageStore.CryptingPageStore;
+import org.apache.wicket.pageStore.DeltaPageStore;
 import org.apache.wicket.pageStore.DiskPageStore;
 import org.apache.wicket.pageStore.FilePageStore;
 import org.apache.wicket.pageStore.GroupingPageStore;
 import org.apache.wicket.pageStore.IPageStore;
 import org.apache.wicket.pageStore.InMemoryPageStore;
 import org.apache.wicket.pageStore.InSessionPageStore;
+import org.apache.wicket.pageStore.MappedDiskPageStore;
 import org.apache.wicket.pageStore.NoopPageStore;
+import org.apache.wicket.pageStore.OffHeapPageStore;
 import org.apache.wicket.pageStore.RequestPageStore;
+import org.apache.wicket.pageStore.SegmentPageStore;
 import org.apache.wicket.pageStore.SerializedPage;
 import org.apache.wicket.pageStore.SerializingPageStore;
 import org.apache.wicket.serialize.ISerializer;
@@ -77,6 +81,10 @@ import org.apache.wicket.util.lang.Bytes;
  * <li>{@link NoopPageStore} discards all pages</li>
  * <li>{@link GroupingPageStore} groups pages, e.g. to limit storage size on a per-group basis</li>
  * <li>{@link FilePageStore} as an alternative to the trusted {@link DiskPageStore}</li>
+ * <li>{@link MappedDiskPageStore} as a memory mapped variant of {@link DiskPageStore}</li>
+ * <li>{@link SegmentPageStore} appending the pages of all sessions to a few segment files</li>
+ * <li>{@link DeltaPageStore} storing binary deltas of serialized pages against periodic snapshots</li>
+ * <li>{@link OffHeapPageStore} keeping the pages of all sessions off the heap within a single memory limit</li>
  * <li>other implementations from <a href="https://github.com/wicketstuff/core/tree/master/datastores-parent">wicketstuff-datastores</a></li>
  * </ul>
  */
@@ -162,7 +170,9 @@ public class DefaultPageManagerProvider implements IPageManagerProvider
 		if (storeSettings.isAsynchronous())
 		{
 			int capacity = storeSettings.getAsynchronousQueueCapacity();
-			pageStore = new AsynchronousPageStore(pageStore, capacity);
+			int workers = storeSettings.getAsynchronousWorkers();
+			boolean virtualThreads = storeSettings.isAsynchronousVirtualThreads();
+			pageStore = new AsynchronousPageStore(pageStore, capacity, workers, virtualThreads);
 		}
 
 		return pageStore;
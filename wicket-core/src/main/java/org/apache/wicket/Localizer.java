@@ -16,14 +16,15 @@
  */
 package org.apache.wicket;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.wicket.core.util.string.interpolator.ConvertingPropertyVariableInterpolator;
 import org.apache.wicket.markup.repeater.AbstractRepeater;
@@ -31,7 +32,6 @@ import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
 import org.apache.wicket.resource.loader.IStringResourceLoader;
 import org.apache.wicket.settings.ResourceSettings;
-import org.apache.wicket.util.lang.Generics;
 import org.apache.wicket.util.string.AppendingStringBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,14 +57,15 @@ public class Localizer
 {
 	private static final Logger log = LoggerFactory.getLogger(Localizer.class);
 
-	/** ConcurrentHashMap does not allow null values */
-	private static final String NULL_VALUE = "<null-value>";
+	/**
+	 * Cached for strings which were not found, ConcurrentHashMap does not allow null values
+	 * 
+	 * @see #getFromCache(CacheKey)
+	 */
+	protected static final String NULL_VALUE = "<null-value>";
 
 	/** Cache properties */
-	private Map<String, String> cache = newCache();
-
-	/** Database that maps class names to an integer id. */
-	private final ClassMetaDatabase metaDatabase = new ClassMetaDatabase();
+	private volatile Map<CacheKey, String> cache = newCache();
 
 	/**
 	 * @return Same as Application.get().getResourceSettings().getLocalizer()
@@ -338,8 +339,8 @@ public class Localizer
 			}
 		}
 
-		String cacheKey = null;
-		String value;
+		CacheKey cacheKey = null;
+		String value = null;
 
 		// Make sure locale, style and variation have the right values
 		String variation = (component != null ? component.getVariation() : null);
@@ -369,10 +370,18 @@ public class Localizer
 			cacheKey = getCacheKey(key, component, locale, style, variation);
 		}
 
-		// Value not found are cached as well (value = null)
-		if ((cacheKey != null) && cache.containsKey(cacheKey))
+		// Value not found are cached as well (value = NULL_VALUE)
+		if (cacheKey != null)
 		{
 			value = getFromCache(cacheKey);
+		}
+
+		if (value != null)
+		{
+			if (NULL_VALUE == value)
+			{
+				value = null;
+			}
 			if (log.isDebugEnabled())
 			{
 				log.debug("Property found in cache: '" + key + "'; Component: '" +
@@ -390,7 +399,6 @@ public class Localizer
 
 			// Iterate over all registered string resource loaders until the property has been found
 			Iterator<IStringResourceLoader> iter = getStringResourceLoaders().iterator();
-			value = null;
 			while (iter.hasNext() && (value == null))
 			{
 				IStringResourceLoader loader = iter.next();
@@ -440,46 +448,36 @@ public class Localizer
 	 * 
 	 * @param cacheKey
 	 * @param string
+	 *            the value, {@code null} if the string was not found
 	 */
-	protected void putIntoCache(final String cacheKey, final String string)
+	protected void putIntoCache(final CacheKey cacheKey, final String string)
 	{
+		final Map<CacheKey, String> cache = this.cache;
 		if (cache == null)
 		{
 			return;
 		}
 
 		// ConcurrentHashMap does not allow null values
-		if (string == null)
-		{
-			cache.put(cacheKey, NULL_VALUE);
-		}
-		else
-		{
-			cache.put(cacheKey, string);
-		}
+		cache.put(cacheKey, string == null ? NULL_VALUE : string);
 	}
 
 	/**
-	 * Get the value associated with the key from the cache.
+	 * Get the value associated with the key from the cache, in a single lookup.
 	 * 
 	 * @param cacheKey
-	 * @return The value of the key
+	 * @return The value of the key, {@code null} if not cached or {@link #NULL_VALUE} if the
+	 *         string is cached as not found
 	 */
-	protected String getFromCache(final String cacheKey)
+	protected String getFromCache(final CacheKey cacheKey)
 	{
+		final Map<CacheKey, String> cache = this.cache;
 		if (cache == null)
 		{
 			return null;
 		}
 
-		final String value = cache.get(cacheKey);
-
-		// ConcurrentHashMap does not allow null values
-		if (NULL_VALUE == value)
-		{
-			return null;
-		}
-		return value;
+		return cache.get(cacheKey);
 	}
 
 	/**
@@ -493,19 +491,18 @@ public class Localizer
 	 * @param variation
 	 * @return The value of the key
 	 */
-	protected String getCacheKey(final String key, final Component component, final Locale locale,
-		final String style, final String variation)
+	protected CacheKey getCacheKey(final String key, final Component component,
+		final Locale locale, final String style, final String variation)
 	{
 		if (component != null)
 		{
-			StringBuilder buffer = new StringBuilder(200);
-			buffer.append(key);
+			List<Object> path = new ArrayList<>();
 
 			Component cursor = component;
 
 			while (cursor != null)
 			{
-				buffer.append('-').append(metaDatabase.id(cursor.getClass()));
+				path.add(cursor.getClass());
 
 				if (cursor instanceof Page)
 				{
@@ -513,11 +510,11 @@ public class Localizer
 				}
 
 				/*
-				 * only append component id if component is not a loop item because (a) these ids
+				 * only add component id if component is not a loop item because (a) these ids
 				 * are irrelevant when generating resource cache keys (b) they cause a lot of
 				 * redundant keys to be generated
 				 * 
-				 * also if the cursor component is an auto component we append a constant string
+				 * also if the cursor component is an auto component we add a constant string
 				 * instead of component's id because auto components have a newly generated id on
 				 * every render.
 				 */
@@ -526,27 +523,22 @@ public class Localizer
 
 				if (skip == false)
 				{
-					String cursorKey = cursor.isAuto() ? "wicket-auto" : cursor.getId();
-					buffer.append(':').append(cursorKey);
+					path.add(cursor.isAuto() ? "wicket-auto" : cursor.getId());
 				}
 
 				cursor = parent;
 			}
 
-			buffer.append('-').append(locale);
-			buffer.append('-').append(style);
-			buffer.append('-').append(variation);
-
-			return buffer.toString();
+			return new CacheKey(key, path.toArray(), locale, style, variation);
 		}
 		else
 		{
 			// locale is guaranteed to be != null
-			return key + '-' + locale.toString() + '-' + style;
+			return new CacheKey(key, null, locale, style, null);
 		}
 	}
 
-/**
+	/**
 	 * Helper method to handle property variable substitution in strings.
 	 * 
 	 * @param component
@@ -615,43 +607,88 @@ public class Localizer
 	 * 
 	 * @return cache
 	 */
-	protected Map<String, String> newCache()
+	protected Map<CacheKey, String> newCache()
 	{
 		return new ConcurrentHashMap<>();
 	}
 
 	/**
-	 * Database that maps class names to an integer id. This is used to make localizer keys shorter
-	 * because sometimes they can contain a large number of class names.
-	 * 
-	 * @author igor.vaynberg
+	 * Key of a cached string: the resource key, the path of component classes and ids up to the
+	 * page, and locale, style and variation. Compared field by field, so no string has to be built
+	 * for each lookup.
 	 */
-	private static class ClassMetaDatabase
+	protected static final class CacheKey
 	{
-		private final ConcurrentMap<String, Long> nameToId = Generics.newConcurrentHashMap();
-		private final AtomicLong nameCounter = new AtomicLong();
+		private final String key;
+
+		private final Object[] path;
+
+		private final Locale locale;
+
+		private final String style;
+
+		private final String variation;
+
+		private final int hash;
 
 		/**
-		 * Returns a unique id that represents this class' name. This can be used for compressing
-		 * class names. Notice this id should not be used across cluster nodes.
+		 * Construct.
 		 * 
-		 * @param clazz
-		 * @return long id of class name
+		 * @param key
+		 *            resource key
+		 * @param path
+		 *            component classes and ids, may be {@code null}
+		 * @param locale
+		 *            locale
+		 * @param style
+		 *            style, may be {@code null}
+		 * @param variation
+		 *            variation, may be {@code null}
 		 */
-		public long id(Class<?> clazz)
+		public CacheKey(final String key, final Object[] path, final Locale locale,
+			final String style, final String variation)
+		{
+			this.key = key;
+			this.path = path;
+			this.locale = locale;
+			this.style = style;
+			this.variation = variation;
+
+			int result = Objects.hashCode(key);
+			result = 31 * result + Arrays.hashCode(path);
+			result = 31 * result + Objects.hashCode(locale);
+			result = 31 * result + Objects.hashCode(style);
+			result = 31 * result + Objects.hashCode(variation);
+			hash = result;
+		}
+
+		@Override
+		public boolean equals(final Object obj)
 		{
-			final String name = clazz.getName();
-			Long id = nameToId.get(name);
-			if (id == null)
+			if (this == obj)
 			{
-				id = nameCounter.incrementAndGet();
-				Long previousId = nameToId.putIfAbsent(name, id);
-				if (previousId != null)
-				{
-					id = previousId;
-				}
+				return true;
 			}
-			return id;
+			if (obj instanceof CacheKey == false)
+			{
+				return false;
+			}
+			CacheKey other = (CacheKey)obj;
+			return hash == other.hash && Objects.equals(key, other.key) &&
+				Objects.equals(locale, other.locale) && Objects.equals(style, other.style) &&
+				Objects.equals(variation, other.variation) && Arrays.equals(path, other.path);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public String toString()
+		{
+			return key + '-' + Arrays.toString(path) + '-' + locale + '-' + style + '-' + variation;
 		}
 	}
 }
@@ -1402,6 +1402,8 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 	 * THIS METHOD IS NOT PART OF THE WICKET PUBLIC API. DO NOT USE OR OVERWRITE IT.
 	 * 
 	 * Renders the next element of markup in the given markup stream.
+	 * <p>
+	 * Note: consecutive raw markup elements are rendered at once, without calling this method.
 	 * 
 	 * @param markupStream
 	 *            The markup stream
@@ -1640,6 +1642,15 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 				break;
 			}
 
+			// Render consecutive raw markup at once
+			final CharSequence rawMarkupRun = markupStream.getRawMarkupRun();
+			if (rawMarkupRun != null)
+			{
+				getResponse().write(rawMarkupRun);
+				markupStream.skipRawMarkupRun();
+				continue;
+			}
+
 			// Remember where we are
 			final int index = markupStream.getCurrentIndex();
 
@@ -16,21 +16,37 @@
  */
 package org.apache.wicket;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
+import org.apache.wicket.core.request.handler.IComponentRequestHandler;
+import org.apache.wicket.core.request.handler.IPageClassRequestHandler;
+import org.apache.wicket.core.request.handler.IPageRequestHandler;
 import org.apache.wicket.core.request.mapper.BookmarkableMapper;
 import org.apache.wicket.core.request.mapper.BufferedResponseMapper;
 import org.apache.wicket.core.request.mapper.HomePageMapper;
 import org.apache.wicket.core.request.mapper.PageInstanceMapper;
 import org.apache.wicket.core.request.mapper.ResourceReferenceMapper;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.IRequestHandlerDelegate;
 import org.apache.wicket.request.IRequestMapper;
 import org.apache.wicket.request.component.IRequestablePage;
+import org.apache.wicket.request.handler.resource.ResourceReferenceRequestHandler;
 import org.apache.wicket.request.mapper.CompoundRequestMapper;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
 import org.apache.wicket.request.mapper.parameter.PageParametersEncoder;
 import org.apache.wicket.request.resource.caching.IResourceCachingStrategy;
 
 /**
  * Mapper that encapsulates mappers that are necessary for Wicket to function.
+ * <p>
+ * If enabled with
+ * {@link org.apache.wicket.settings.RequestCycleSettings#setRememberHandlerMappers(boolean)}, page
+ * and resource reference handlers are keyed by their type, their page class or resource reference
+ * and the names of their parameters, so the mapper for following handlers with equal keys is
+ * remembered. If you register a custom mapper which decides on anything else (e.g. the values of
+ * parameters), keep it disabled or override {@link #getHandlerKey(IRequestHandler)} accordingly.
  * 
  * @author igor.vaynberg
  */
@@ -57,6 +73,79 @@ public class SystemMapper extends CompoundRequestMapper
 		add(newBufferedResponseMapper());
 	}
 
+	/**
+	 * Keys page handlers and resource reference handlers, if remembering their mappers is enabled.
+	 * 
+	 * @see org.apache.wicket.settings.RequestCycleSettings#setRememberHandlerMappers(boolean)
+	 */
+	@Override
+	protected Object getHandlerKey(IRequestHandler handler)
+	{
+		if (application.getRequestCycleSettings().getRememberHandlerMappers() == false)
+		{
+			return null;
+		}
+
+		List<Object> key = new ArrayList<>();
+
+		while (handler instanceof IRequestHandlerDelegate)
+		{
+			key.add(handler.getClass());
+			handler = ((IRequestHandlerDelegate)handler).getDelegateHandler();
+		}
+		key.add(handler.getClass());
+
+		if (handler instanceof IPageClassRequestHandler)
+		{
+			IPageClassRequestHandler pageClassHandler = (IPageClassRequestHandler)handler;
+			key.add(pageClassHandler.getPageClass());
+			addParameterNames(key, pageClassHandler.getPageParameters());
+
+			if (handler instanceof IPageRequestHandler)
+			{
+				IPageRequestHandler pageHandler = (IPageRequestHandler)handler;
+				if (pageHandler.isPageInstanceCreated())
+				{
+					IRequestablePage page = pageHandler.getPage();
+					key.add(page.getClass());
+					key.add(page.wasCreatedBookmarkable());
+					addParameterNames(key, page.getPageParameters());
+				}
+				else if (pageHandler instanceof IComponentRequestHandler)
+				{
+					// mappers might create the page
+					return null;
+				}
+			}
+
+			return key;
+		}
+		else if (handler instanceof ResourceReferenceRequestHandler)
+		{
+			ResourceReferenceRequestHandler resourceHandler = (ResourceReferenceRequestHandler)handler;
+			key.add(resourceHandler.getResourceReference().getClass());
+			key.add(resourceHandler.getResourceReference().getKey());
+			addParameterNames(key, resourceHandler.getPageParameters());
+
+			return key;
+		}
+
+		return null;
+	}
+
+	private void addParameterNames(List<Object> key, PageParameters parameters)
+	{
+		if (parameters == null)
+		{
+			key.add(null);
+		}
+		else
+		{
+			key.add(parameters.getNamedKeys());
+			key.add(parameters.getIndexedCount());
+		}
+	}
+
 	protected IRequestMapper newBufferedResponseMapper()
 	{
 		return new BufferedResponseMapper();
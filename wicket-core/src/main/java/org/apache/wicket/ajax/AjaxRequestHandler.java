@@ -282,9 +282,15 @@ public class AjaxRequestHandler extends AbstractPartialPageRequestHandler implem
 		// Make sure it is not cached by a client
 		response.disableCaching();
 
-		final List<IResponseFilter> filters = Application.get()
-			.getRequestCycleSettings()
-			.getResponseFilters();
+		final List<IResponseFilter> filters = app.getRequestCycleSettings().getResponseFilters();
+		if ((filters == null || filters.isEmpty()) &&
+			app.getRequestCycleSettings().getStreamingAjaxResponse())
+		{
+			// write each component as soon as it is rendered
+			getUpdate().writeTo(response, encoding);
+			return;
+		}
+
 		// WICKET-7074 we need to write to a temporary buffer, otherwise, if an exception is produced,
 		// and a redirect is done we will end up with a malformed XML
 		final StringResponse bodyResponse = new StringResponse();
@@ -17,6 +17,7 @@
 package org.apache.wicket.core.request.mapper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 
@@ -221,6 +222,23 @@ public abstract class AbstractBookmarkableMapper extends AbstractComponentMapper
 		}
 	}
 
+	/**
+	 * Get the leading fixed segments of the mount path, e.g. for a mapper implementing
+	 * {@link org.apache.wicket.request.mapper.IPrefixedRequestMapper}.
+	 * 
+	 * @return segments before the first placeholder
+	 */
+	protected final String[] getMountPrefixSegments()
+	{
+		int fixed = 0;
+		while (fixed < mountSegments.length && getPlaceholder(mountSegments[fixed]) == null &&
+			getOptionalPlaceholder(mountSegments[fixed]) == null)
+		{
+			fixed++;
+		}
+		return Arrays.copyOf(mountSegments, fixed);
+	}
+
 	/**
 	 * Creates a {@code IRequestHandler} that processes a bookmarkable request.
 	 * 
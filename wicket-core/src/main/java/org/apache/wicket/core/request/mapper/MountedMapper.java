@@ -24,6 +24,7 @@ import org.apache.wicket.request.IRequestHandler;
 import org.apache.wicket.request.Request;
 import org.apache.wicket.request.Url;
 import org.apache.wicket.request.component.IRequestablePage;
+import org.apache.wicket.request.mapper.IPrefixedRequestMapper;
 import org.apache.wicket.request.mapper.info.ComponentInfo;
 import org.apache.wicket.request.mapper.info.PageComponentInfo;
 import org.apache.wicket.request.mapper.info.PageInfo;
@@ -62,7 +63,7 @@ import org.apache.wicket.util.string.Strings;
  * 
  * @author Matej Knopp
  */
-public class MountedMapper extends AbstractBookmarkableMapper
+public class MountedMapper extends AbstractBookmarkableMapper implements IPrefixedRequestMapper
 {
 	/** bookmarkable page class. */
 	private final Supplier<Class<? extends IRequestablePage>> pageClassProvider;
@@ -262,6 +263,19 @@ public class MountedMapper extends AbstractBookmarkableMapper
 		return pageClassProvider.get();
 	}
 
+	/**
+	 * The leading fixed segments of the mount path. Subclasses might be compatible with other URLs,
+	 * e.g. by overriding {@link #getCompatibilityScore(Request)} or {@link #parseRequest(Request)},
+	 * so they have to opt in by overriding this method.
+	 * 
+	 * @return segments or {@code null} for subclasses
+	 */
+	@Override
+	public String[] getPrefixSegments()
+	{
+		return getClass() == MountedMapper.class ? getMountPrefixSegments() : null;
+	}
+
 	@Override
 	public String toString()
 	{
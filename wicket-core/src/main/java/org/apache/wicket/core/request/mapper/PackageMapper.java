@@ -23,6 +23,7 @@ import org.apache.wicket.protocol.http.WebApplication;
 import org.apache.wicket.request.Request;
 import org.apache.wicket.request.Url;
 import org.apache.wicket.request.component.IRequestablePage;
+import org.apache.wicket.request.mapper.IPrefixedRequestMapper;
 import org.apache.wicket.request.mapper.info.PageComponentInfo;
 import org.apache.wicket.request.mapper.parameter.IPageParametersEncoder;
 import org.apache.wicket.request.mapper.parameter.PageParameters;
@@ -61,7 +62,7 @@ import org.apache.wicket.util.string.Strings;
  *  (these will redirect to hybrid if page is not stateless)
  * </pre>
  */
-public class PackageMapper extends AbstractBookmarkableMapper
+public class PackageMapper extends AbstractBookmarkableMapper implements IPrefixedRequestMapper
 {
 	/**
 	 * the name of the package for which all bookmarkable pages should be mounted
@@ -247,4 +248,17 @@ public class PackageMapper extends AbstractBookmarkableMapper
 		PackageName pageClassPackageName = PackageName.forClass(pageClass);
 		return packageName.equals(pageClassPackageName);
 	}
+
+	/**
+	 * The leading fixed segments of the mount path. Subclasses might be compatible with other URLs,
+	 * e.g. by overriding {@link #getCompatibilityScore(Request)} or {@link #parseRequest(Request)},
+	 * so they have to opt in by overriding this method.
+	 * 
+	 * @return segments or {@code null} for subclasses
+	 */
+	@Override
+	public String[] getPrefixSegments()
+	{
+		return getClass() == PackageMapper.class ? getMountPrefixSegments() : null;
+	}
 }
@@ -16,10 +16,15 @@
  */
 package org.apache.wicket.core.util.lang;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -106,6 +111,12 @@ public final class PropertyResolver
 			return object;
 		}
 
+		IPropertyLocator locator = getLocator();
+		if (locator instanceof CachingPropertyLocator)
+		{
+			return getCompiledValue((CachingPropertyLocator)locator, expression, object);
+		}
+
 		ObjectWithGetAndSet objectWithGetAndSet = getObjectWithGetAndSet(expression, object, RETURN_NULL);
 		if (objectWithGetAndSet == null)
 		{
@@ -184,7 +195,7 @@ public final class PropertyResolver
 	@SuppressWarnings("unchecked")
 	public static <T> Class<T> getPropertyClass(final String expression, final Class<?> clz)
 	{
-		ObjectWithGetAndSet objectWithGetAndSet = getObjectWithGetAndSet(expression, null, RESOLVE_CLASS, clz);
+		ObjectWithGetAndSet objectWithGetAndSet = getObjectWithGetAndSet(expression, null, RESOLVE_CLASS, clz, null);
 		if (objectWithGetAndSet == null)
 		{
 			throw new WicketRuntimeException("No Class returned for expression: " + expression +
@@ -256,7 +267,7 @@ public final class PropertyResolver
 	private static ObjectWithGetAndSet getObjectWithGetAndSet(final String expression,
 		final Object object, int tryToCreateNull)
 	{
-		return getObjectWithGetAndSet(expression, object, tryToCreateNull, object.getClass());
+		return getObjectWithGetAndSet(expression, object, tryToCreateNull, object.getClass(), null);
 	}
 
 	/**
@@ -267,9 +278,10 @@ public final class PropertyResolver
 	 * @param object root object
 	 * @param tryToCreateNull how should null values be handled
 	 * @param clz owning clazz
+	 * @param steps optional list to collect the classes and getAndSets of all steps into
 	 * @return final getAndSet and the target to apply it on, or {@code null} if expression results in an intermediate null
 	 */
-	private static ObjectWithGetAndSet getObjectWithGetAndSet(final String expression, final Object object, final int tryToCreateNull, Class<?> clz)
+	private static ObjectWithGetAndSet getObjectWithGetAndSet(final String expression, final Object object, final int tryToCreateNull, Class<?> clz, final List<Object> steps)
 	{
 		String expressionBracketsSeperated = Strings.replaceAll(expression, "[", ".[").toString();
 		int index = getNextDotIndex(expressionBracketsSeperated, 0);
@@ -314,6 +326,11 @@ public final class PropertyResolver
 			Object nextValue = null;
 			if (value != null)
 			{
+				if (steps != null)
+				{
+					steps.add(clz);
+					steps.add(getAndSet);
+				}
 				nextValue = getAndSet.getValue(value);
 			}
 			if (nextValue == null)
@@ -351,9 +368,50 @@ public final class PropertyResolver
 			}
 		}
 		IGetAndSet getAndSet = getGetAndSet(exp, clz);
+		if (steps != null)
+		{
+			steps.add(clz);
+			steps.add(getAndSet);
+		}
 		return new ObjectWithGetAndSet(getAndSet, value);
 	}
 
+	/**
+	 * Get a value with the compiled expression for the class of the object, compiling it on first
+	 * use or if the classes of the intermediate values changed.
+	 *
+	 * @param locator caching locator holding the compiled expressions
+	 * @param expression property expression
+	 * @param object root object
+	 * @return the value or {@code null} if something in the expression evaluated to null
+	 */
+	private static Object getCompiledValue(final CachingPropertyLocator locator,
+		final String expression, final Object object)
+	{
+		final Map<String, CompiledExpression> compiled = locator.compiled.get(object.getClass());
+
+		CompiledExpression compiledExpression = compiled.get(expression);
+		if (compiledExpression != null)
+		{
+			Object value = compiledExpression.getValue(object);
+			if (value != CompiledExpression.MISMATCH)
+			{
+				return value;
+			}
+		}
+
+		List<Object> steps = new ArrayList<>();
+		ObjectWithGetAndSet objectWithGetAndSet = getObjectWithGetAndSet(expression, object,
+			RETURN_NULL, object.getClass(), steps);
+		if (objectWithGetAndSet == null)
+		{
+			return null;
+		}
+
+		compiled.put(expression, new CompiledExpression(steps));
+		return objectWithGetAndSet.getValue();
+	}
+
 	/**
 	 *
 	 * @param expression
@@ -395,6 +453,25 @@ public final class PropertyResolver
 		return getAndSet;
 	}
 
+	/**
+	 * Adapt a handle to a getter to {@code (Object)Object}, so it can be invoked exactly without
+	 * the overhead of reflection.
+	 *
+	 * @param handle
+	 *            handle of getter method or field
+	 * @param isStatic
+	 *            whether the handle does not take the object as argument
+	 * @return adapted handle
+	 */
+	private static MethodHandle toGetter(MethodHandle handle, boolean isStatic)
+	{
+		if (isStatic)
+		{
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		return handle.asType(MethodType.methodType(Object.class, Object.class));
+	}
+
 	/**
 	 * Utility class: instantiation not allowed.
 	 */
@@ -471,6 +548,61 @@ public final class PropertyResolver
 		}
 	}
 
+	/**
+	 * An expression resolved to a chain of {@link IGetAndSet}s, valid as long as each step is
+	 * applied on an object of the class it was resolved for.
+	 */
+	private static final class CompiledExpression
+	{
+		/**
+		 * Returned by {@link #getValue(Object)} if an object does not match its class.
+		 */
+		private static final Object MISMATCH = new Object();
+
+		private final Class<?>[] classes;
+
+		private final IGetAndSet[] getAndSets;
+
+		/**
+		 * @param steps
+		 *            alternately the class and the getAndSet of each step
+		 */
+		CompiledExpression(List<Object> steps)
+		{
+			int count = steps.size() / 2;
+			classes = new Class<?>[count];
+			getAndSets = new IGetAndSet[count];
+			for (int i = 0; i < count; i++)
+			{
+				classes[i] = (Class<?>)steps.get(i * 2);
+				getAndSets[i] = (IGetAndSet)steps.get(i * 2 + 1);
+			}
+		}
+
+		/**
+		 * @param object
+		 *            root object
+		 * @return the value, {@code null} if an intermediate value is null or {@link #MISMATCH}
+		 */
+		Object getValue(Object object)
+		{
+			Object value = object;
+			for (int i = 0; i < classes.length; i++)
+			{
+				if (value == null)
+				{
+					return null;
+				}
+				if (value.getClass() != classes[i])
+				{
+					return MISMATCH;
+				}
+				value = getAndSets[i].getValue(value);
+			}
+			return value;
+		}
+	}
+
 	/**
 	 * A property to get and set.
 	 * 
@@ -846,6 +978,7 @@ public final class PropertyResolver
 	private static final class MethodGetAndSet extends AbstractGetAndSet
 	{
 		private final Method getMethod;
+		private final MethodHandle getHandle;
 		private final Method setMethod;
 		private final Field field;
 
@@ -855,27 +988,34 @@ public final class PropertyResolver
 			this.getMethod.setAccessible(true);
 			this.field = field;
 			this.setMethod = setMethod;
+
+			try
+			{
+				getHandle = toGetter(MethodHandles.lookup().unreflect(getMethod),
+					Modifier.isStatic(getMethod.getModifiers()));
+			}
+			catch (IllegalAccessException ex)
+			{
+				throw new WicketRuntimeException("Cannot access method: " + getMethod, ex);
+			}
 		}
 
 		@Override
 		public final Object getValue(final Object object)
 		{
-			Object ret;
 			try
 			{
-				ret = getMethod.invoke(object, (Object[])null);
+				return (Object)getHandle.invokeExact(object);
 			}
-			catch (InvocationTargetException ex)
+			catch (Error ex)
 			{
-				throw new WicketRuntimeException("Error calling method: " + getMethod +
-					" on object: " + object, ex.getCause());
+				throw ex;
 			}
-			catch (Exception ex)
+			catch (Throwable ex)
 			{
 				throw new WicketRuntimeException("Error calling method: " + getMethod +
 					" on object: " + object, ex);
 			}
-			return ret;
 		}
 
 		@Override
@@ -1047,6 +1187,7 @@ public final class PropertyResolver
 	private static class FieldGetAndSet extends AbstractGetAndSet
 	{
 		private final Field field;
+		private final MethodHandle getHandle;
 
 		/**
 		 * Construct.
@@ -1058,6 +1199,16 @@ public final class PropertyResolver
 			super();
 			this.field = field;
 			this.field.setAccessible(true);
+
+			try
+			{
+				getHandle = toGetter(MethodHandles.lookup().unreflectGetter(field),
+					Modifier.isStatic(field.getModifiers()));
+			}
+			catch (IllegalAccessException ex)
+			{
+				throw new WicketRuntimeException("Cannot access field: " + field, ex);
+			}
 		}
 
 		@Override
@@ -1065,9 +1216,13 @@ public final class PropertyResolver
 		{
 			try
 			{
-				return field.get(object);
+				return (Object)getHandle.invokeExact(object);
 			}
-			catch (Exception ex)
+			catch (Error ex)
+			{
+				throw ex;
+			}
+			catch (Throwable ex)
 			{
 				throw new WicketRuntimeException("Error getting field value of field " + field +
 					" from object " + object, ex);
@@ -1196,10 +1351,32 @@ public final class PropertyResolver
 
 	/**
 	 * A wrapper for another {@link IPropertyLocator} that caches results of {@link #get(Class, String)}.
+	 * <p>
+	 * Additionally {@link PropertyResolver#getValue(String, Object)} caches whole expressions per
+	 * root class, so following lookups skip parsing the expression and locating each property.
 	 */
 	public static class CachingPropertyLocator implements IPropertyLocator
 	{
-		private final ConcurrentHashMap<String, IGetAndSet> map = Generics.newConcurrentHashMap(16);
+		private final ClassValue<Map<String, IGetAndSet>> map = new ClassValue<>()
+		{
+			@Override
+			protected Map<String, IGetAndSet> computeValue(Class<?> type)
+			{
+				return Generics.newConcurrentHashMap(16);
+			}
+		};
+
+		/**
+		 * Compiled expressions by root class.
+		 */
+		private final ClassValue<Map<String, CompiledExpression>> compiled = new ClassValue<>()
+		{
+			@Override
+			protected Map<String, CompiledExpression> computeValue(Class<?> type)
+			{
+				return Generics.newConcurrentHashMap(16);
+			}
+		};
 		
 		/**
 		 * Special token to put into the cache representing no located {@link IGetAndSet}. 
@@ -1229,15 +1406,15 @@ public final class PropertyResolver
 
 		@Override
 		public IGetAndSet get(Class<?> clz, String exp) {
-			String key = clz.getName() + "#" + exp;
+			Map<String, IGetAndSet> located4Class = map.get(clz);
 			
-			IGetAndSet located = map.get(key);
+			IGetAndSet located = located4Class.get(exp);
 			if (located == null) {
 				located = locator.get(clz, exp);
 				if (located == null) {
 					located = NONE;
 				}
-				map.put(key, located);
+				located4Class.put(exp, located);
 			}
 			
 			if (located == NONE) {
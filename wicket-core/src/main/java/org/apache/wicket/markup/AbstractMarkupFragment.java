@@ -27,6 +27,20 @@ public abstract class AbstractMarkupFragment implements IMarkupFragment
 		return TagUtils.findTagMarkup(this, id, null, streamOffset);
 	}
 
+	/**
+	 * Get the consecutive {@link RawMarkup} elements starting at the given index, merged into one
+	 * char sequence.
+	 * 
+	 * @param index
+	 *            index of the first raw markup element
+	 * @return the merged raw markup or {@code null} if the element at the index is not followed by
+	 *         further raw markup
+	 */
+	public CharSequence getRawMarkupRun(final int index)
+	{
+		return null;
+	}
+
 	@Override
 	public String toString()
 	{
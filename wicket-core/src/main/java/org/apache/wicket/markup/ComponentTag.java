@@ -284,7 +284,8 @@ public class ComponentTag extends MarkupElement
 	 */
 	public final String getAttribute(String name)
 	{
-		return xmlTag.getAttributes().getString(name);
+		CharSequence value = xmlTag.getAttribute(name);
+		return value == null ? null : value.toString();
 	}
 
 	/**
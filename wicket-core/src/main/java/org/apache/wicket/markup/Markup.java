@@ -48,6 +48,9 @@ public class Markup extends AbstractMarkupFragment
 	/** The associated markup file */
 	private final MarkupResourceStream markupResourceStream;
 
+	/** Merged consecutive raw markup by the index of its first element, may be null */
+	private CharSequence[] rawMarkupRuns;
+
 	/**
 	 * Take the markup string, parse it and return the Markup (list of MarkupElements).
 	 * <p>
@@ -145,6 +148,7 @@ public class Markup extends AbstractMarkupFragment
 		}
 
 		markupElements.set(index, elem);
+		rawMarkupRuns = null;
 	}
 
 	/**
@@ -171,6 +175,7 @@ public class Markup extends AbstractMarkupFragment
 	final public void addMarkupElement(final MarkupElement markupElement)
 	{
 		markupElements.add(markupElement);
+		rawMarkupRuns = null;
 	}
 
 	/**
@@ -182,6 +187,7 @@ public class Markup extends AbstractMarkupFragment
 	final public void addMarkupElement(final int pos, final MarkupElement markupElement)
 	{
 		markupElements.add(pos, markupElement);
+		rawMarkupRuns = null;
 	}
 
 	/**
@@ -199,6 +205,59 @@ public class Markup extends AbstractMarkupFragment
 		}
 
 		markupElements = Collections.unmodifiableList(markupElements);
+
+		mergeRawMarkupRuns();
+	}
+
+	/**
+	 * Merge all consecutive raw markup elements, so they can be rendered at once.
+	 * 
+	 * @see #getRawMarkupRun(int)
+	 */
+	final void mergeRawMarkupRuns()
+	{
+		CharSequence[] runs = null;
+
+		final int size = markupElements.size();
+		int index = 0;
+		while (index < size)
+		{
+			int end = index;
+			while ((end < size) && (markupElements.get(end) instanceof RawMarkup))
+			{
+				end++;
+			}
+
+			if (end - index > 1)
+			{
+				if (runs == null)
+				{
+					runs = new CharSequence[size];
+				}
+
+				final AppendingStringBuffer buf = new AppendingStringBuffer();
+				for (int i = index; i < end; i++)
+				{
+					buf.append(markupElements.get(i).toCharSequence());
+				}
+				runs[index] = buf.toString();
+			}
+
+			index = Math.max(end, index + 1);
+		}
+
+		rawMarkupRuns = runs;
+	}
+
+	@Override
+	public final CharSequence getRawMarkupRun(final int index)
+	{
+		final CharSequence[] runs = rawMarkupRuns;
+		if ((runs == null) || (index < 0) || (index >= runs.length))
+		{
+			return null;
+		}
+		return runs[index];
 	}
 
 	@Override
@@ -144,6 +144,17 @@ public class MarkupFragment extends AbstractMarkupFragment
 		return markup.get(startIndex + index);
 	}
 
+	@Override
+	public CharSequence getRawMarkupRun(final int index)
+	{
+		// a fragment ends with a tag, so runs never exceed it
+		if (markup instanceof AbstractMarkupFragment)
+		{
+			return ((AbstractMarkupFragment)markup).getRawMarkupRun(startIndex + index);
+		}
+		return null;
+	}
+
 	@Override
 	public final IMarkupFragment find(final String id)
 	{
@@ -381,6 +381,36 @@ public class MarkupStream
 		}
 	}
 
+	/**
+	 * Get the raw markup at the current position, merged with all directly following raw markup.
+	 * 
+	 * @return the merged raw markup or {@code null} if the current element is not followed by
+	 *         further raw markup
+	 * @see #skipRawMarkupRun()
+	 */
+	public CharSequence getRawMarkupRun()
+	{
+		if (markup instanceof AbstractMarkupFragment)
+		{
+			return ((AbstractMarkupFragment)markup).getRawMarkupRun(currentIndex);
+		}
+		return null;
+	}
+
+	/**
+	 * Skips all consecutive {@link RawMarkup} elements at the current position.
+	 */
+	public void skipRawMarkupRun()
+	{
+		while (current instanceof RawMarkup)
+		{
+			if (next() == null)
+			{
+				break;
+			}
+		}
+	}
+
 	/**
 	 * Skips any raw markup at the current position
 	 */
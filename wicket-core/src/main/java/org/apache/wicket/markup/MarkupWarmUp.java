@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.IApplicationListener;
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.Page;
+import org.apache.wicket.Session;
+import org.apache.wicket.ThreadContext;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.mock.MockWebRequest;
+import org.apache.wicket.mock.MockWebResponse;
+import org.apache.wicket.protocol.http.mock.MockHttpServletRequest;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.util.lang.Args;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the markup of pages, panels and borders into the {@link MarkupCache} at application
+ * startup, so the first requests do not have to load and parse it.
+ * <p>
+ * For each class and each combination of configured locale and style an instance is created in a
+ * background thread, with a session of that locale and style. Pages are created with the
+ * application's page factory, all other containers need a constructor taking the component id and
+ * are added to a host page:
+ *
+ * <pre>
+ * getApplicationListeners().add(new MarkupWarmUp()
+ * 	.add(HomePage.class, SearchPanel.class)
+ * 	.setLocales(Locale.ENGLISH, Locale.GERMAN));
+ * </pre>
+ *
+ * Components which can not be created outside of a real request are skipped with a warning.
+ * <p>
+ * <strong>Note:</strong> the constructors of the listed classes are executed, with everything
+ * this entails: component instantiation listeners, authorization strategies, injection and any
+ * other side effect of the constructors, e.g. loading of models. Only list classes whose
+ * construction is free of unwanted side effects, or override
+ * {@link #newContainer(Application, Class)} to create them differently. Each container is
+ * detached afterwards, as is the request cycle it was created in. The session it is created with
+ * is never bound.
+ */
+public class MarkupWarmUp implements IApplicationListener
+{
+	private static final Logger log = LoggerFactory.getLogger(MarkupWarmUp.class);
+
+	private final List<Class<? extends MarkupContainer>> classes = new ArrayList<>();
+
+	private List<Locale> locales = Collections.singletonList(null);
+
+	private List<String> styles = Collections.singletonList(null);
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Add classes to warm up the markup for.
+	 *
+	 * @param classes
+	 *            pages, panels or borders
+	 * @return this
+	 */
+	@SafeVarargs
+	public final MarkupWarmUp add(final Class<? extends MarkupContainer>... classes)
+	{
+		this.classes.addAll(Arrays.asList(classes));
+		return this;
+	}
+
+	/**
+	 * Set the locales to warm up the markup for, the default is the locale of a new session only.
+	 *
+	 * @param locales
+	 *            locales
+	 * @return this
+	 */
+	public MarkupWarmUp setLocales(final Locale... locales)
+	{
+		Args.notEmpty(Arrays.asList(locales), "locales");
+
+		this.locales = Arrays.asList(locales);
+		return this;
+	}
+
+	/**
+	 * Set the styles to warm up the markup for, the default is no style only.
+	 *
+	 * @param styles
+	 *            styles, may contain {@code null} for no style
+	 * @return this
+	 */
+	public MarkupWarmUp setStyles(final String... styles)
+	{
+		Args.notEmpty(Arrays.asList(styles), "styles");
+
+		this.styles = Arrays.asList(styles);
+		return this;
+	}
+
+	/**
+	 * Set the count of threads to load markup with, the default is the count of processors.
+	 *
+	 * @param parallelism
+	 *            count of threads
+	 * @return this
+	 */
+	public MarkupWarmUp setParallelism(final int parallelism)
+	{
+		this.parallelism = Args.withinRange(1, Short.MAX_VALUE, parallelism, "parallelism");
+		return this;
+	}
+
+	@Override
+	public void onAfterInitialized(final Application application)
+	{
+		warmUp(application);
+	}
+
+	/**
+	 * Load the markup of all classes for all locales and styles.
+	 *
+	 * @param application
+	 *            the application
+	 * @return the time it took
+	 */
+	public Duration warmUp(final Application application)
+	{
+		Args.notNull(application, "application");
+
+		final long start = System.nanoTime();
+		final AtomicInteger failed = new AtomicInteger();
+
+		final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try
+		{
+			for (Class<? extends MarkupContainer> clazz : classes)
+			{
+				for (Locale locale : locales)
+				{
+					for (String style : styles)
+					{
+						tasks.add(pool.submit(() -> {
+							if (warmUp(application, clazz, locale, style) == false)
+							{
+								failed.incrementAndGet();
+							}
+						}));
+					}
+				}
+			}
+
+			for (ForkJoinTask<?> task : tasks)
+			{
+				task.join();
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		final Duration duration = Duration.ofNanos(System.nanoTime() - start);
+		log.info("Warmed up markup of {} classes in {} ms, {} of {} failed", classes.size(),
+			duration.toMillis(), failed.get(), tasks.size());
+		return duration;
+	}
+
+	/**
+	 * Load the markup of a single class.
+	 *
+	 * @return {@code false} if the markup could not be loaded
+	 */
+	private boolean warmUp(final Application application,
+		final Class<? extends MarkupContainer> clazz, final Locale locale, final String style)
+	{
+		final ThreadContext threadContext = ThreadContext.detach();
+		RequestCycle cycle = null;
+		MarkupContainer container = null;
+		try
+		{
+			ThreadContext.setApplication(application);
+
+			final MockHttpServletRequest httpRequest = new MockHttpServletRequest(application, null,
+				null);
+			final MockWebRequest request = new MockWebRequest(Url.parse(""))
+			{
+				@Override
+				public Object getContainerRequest()
+				{
+					// without a http session, so the session stays temporary
+					return httpRequest;
+				}
+			};
+			final MockWebResponse response = new MockWebResponse();
+			cycle = application.createRequestCycle(request, response);
+			ThreadContext.setRequestCycle(cycle);
+
+			final Session session = application.newSession(request, response);
+			if (locale != null)
+			{
+				session.setLocale(locale);
+			}
+			session.setStyle(style);
+			ThreadContext.setSession(session);
+
+			container = newContainer(application, clazz);
+			container.getAssociatedMarkup();
+			return true;
+		}
+		catch (Exception ex)
+		{
+			log.warn("Could not warm up markup of {} for locale {} and style {}", clazz.getName(),
+				locale, style, ex);
+			return false;
+		}
+		finally
+		{
+			try
+			{
+				detach(cycle, container);
+			}
+			finally
+			{
+				ThreadContext.restore(threadContext);
+			}
+		}
+	}
+
+	/**
+	 * Detach the container and the request cycle, so models and request cycle listeners are
+	 * cleaned up.
+	 */
+	private void detach(final RequestCycle cycle, final MarkupContainer container)
+	{
+		if (container != null)
+		{
+			try
+			{
+				container.getPage().detach();
+			}
+			catch (RuntimeException ex)
+			{
+				log.warn("Could not detach {}", container.getClass().getName(), ex);
+			}
+		}
+
+		if (cycle != null)
+		{
+			// the temporary session must not be flushed into the session store
+			ThreadContext.setSession(null);
+			try
+			{
+				cycle.detach();
+			}
+			catch (RuntimeException ex)
+			{
+				log.warn("Could not detach the request cycle", ex);
+			}
+		}
+	}
+
+	/**
+	 * Create a container to load the markup for. By default pages are created with the
+	 * application's page factory and all other containers with their constructor taking the
+	 * component id, override to create them differently.
+	 *
+	 * @param application
+	 *            the application
+	 * @param clazz
+	 *            class of container
+	 * @return container
+	 * @throws Exception
+	 *             if the container could not be created
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected MarkupContainer newContainer(final Application application,
+		final Class<? extends MarkupContainer> clazz) throws Exception
+	{
+		if (Page.class.isAssignableFrom(clazz))
+		{
+			return (MarkupContainer)application.getPageFactory().newPage((Class)clazz);
+		}
+
+		MarkupContainer container = clazz.getConstructor(String.class).newInstance("warmUp");
+		new HostPage().add(container);
+		return container;
+	}
+
+	/**
+	 * A page to host non-page containers.
+	 */
+	private static class HostPage extends WebPage
+	{
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -85,6 +85,7 @@ public class MergedMarkup extends Markup
 
 		// Merge derived and base markup
 		merge(markup, baseMarkup, extendIndex);
+		mergeRawMarkupRuns();
 
 		if (log.isDebugEnabled())
 		{
@@ -48,6 +48,7 @@ import org.apache.wicket.markup.html.form.validation.FormValidatorAdapter;
 import org.apache.wicket.markup.html.form.validation.IFormValidator;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
+import org.apache.wicket.protocol.http.servlet.IUploadSink;
 import org.apache.wicket.protocol.http.servlet.MultipartServletWebRequest;
 import org.apache.wicket.protocol.http.servlet.ServletWebRequest;
 import org.apache.wicket.request.IRequestParameters;
@@ -1508,6 +1509,26 @@ public class Form<T> extends WebMarkupContainer
 					getMaxSize(), getPage().getId());
 				multipartWebRequest.setFileMaxSize(getFileMaxSize());
 				multipartWebRequest.setFileCountMax(getFileCountMax());
+				visitChildren(FileUploadField.class, new IVisitor<FileUploadField, Void>()
+				{
+					@Override
+					public void component(FileUploadField field, IVisit<Void> visit)
+					{
+						// only fields which will be processed, see #markFormsSubmitted()
+						if (field.isVisibleInHierarchy() == false ||
+							field.isEnabledInHierarchy() == false ||
+							field.getForm().isSubmitted() == false)
+						{
+							return;
+						}
+
+						IUploadSink sink = field.getUploadSink();
+						if (sink != null)
+						{
+							multipartWebRequest.setUploadSink(field.getInputName(), sink);
+						}
+					}
+				});
 				multipartWebRequest.parseFileParts();
 
 				// TODO: Can't this be detected from header?
@@ -25,6 +25,7 @@ import org.apache.wicket.markup.ComponentTag;
 import org.apache.wicket.markup.html.form.FormComponent;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.protocol.http.IMultipartWebRequest;
+import org.apache.wicket.protocol.http.servlet.IUploadSink;
 import org.apache.wicket.request.Request;
 import org.apache.wicket.util.convert.ConversionException;
 import org.apache.wicket.util.string.Strings;
@@ -206,6 +207,19 @@ public class FileUploadField extends FormComponent<List<FileUpload>>
 		super.onDetach();
 	}
 
+	/**
+	 * Get a sink to stream the uploaded files into while the request is parsed, instead of
+	 * buffering them in memory or in temporary files. If a sink is returned, the files are not
+	 * available from {@link #getFileUploads()}, so this field should not be required.
+	 *
+	 * @return sink receiving the uploaded files, {@code null} by default
+	 * @see org.apache.wicket.markup.html.form.upload.resource.FolderUploadsFileManager#newUploadSink(String)
+	 */
+	public IUploadSink getUploadSink()
+	{
+		return null;
+	}
+
 	/**
 	 * The FileUploadField will close any input streams you have opened in its FileUpload by
 	 * default. If you wish to manage the stream yourself (e.g. you want to use it in another
@@ -16,16 +16,20 @@
  */
 package org.apache.wicket.markup.html.form.upload.resource;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.markup.html.form.upload.FileUpload;
+import org.apache.wicket.protocol.http.servlet.IUploadSink;
 import org.apache.wicket.util.file.File;
-import org.apache.wicket.util.io.IOUtils;
 import org.apache.wicket.util.lang.Args;
 
 /**
@@ -107,18 +111,49 @@ public class FolderUploadsFileManager implements IUploadsFileManager
         return target;
     }
 
-    @Override
-    public void save(FileUpload fileItem, String uploadFieldId)
+    /**
+     * Writes a file into the sub-folder of an upload field. The content goes into a temporary
+     * file in the same folder first, which replaces the target only when it is complete, so an
+     * aborted upload never truncates or overwrites an existing file.
+     *
+     * @throws SecurityException if the file would escape the base folder
+     */
+    private void write(InputStream in, String uploadFieldId, String clientFileName)
+            throws IOException
     {
+        Path target = resolveTargetFile(uploadFieldId, clientFileName).toPath();
+        Path parent = target.getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, ".upload-", ".tmp");
         try
         {
-            java.io.File target = resolveTargetFile(uploadFieldId, fileItem.getClientFileName());
-            Files.createDirectories(target.toPath().getParent());
-            try (InputStream in = fileItem.getInputStream();
-                 FileOutputStream out = new FileOutputStream(target))
+            try (ReadableByteChannel source = Channels.newChannel(in);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE))
             {
-                IOUtils.copy(in, out);
+                // a blocking source channel transfers nothing only at its end
+                long position = 0;
+                long transferred;
+                while ((transferred = out.transferFrom(source, position, Long.MAX_VALUE - position)) > 0)
+                {
+                    position += transferred;
+                }
             }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            // nothing left after a successful move
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void save(FileUpload fileItem, String uploadFieldId)
+    {
+        try (InputStream in = fileItem.getInputStream())
+        {
+            write(in, uploadFieldId, fileItem.getClientFileName());
         }
         catch (IOException e)
         {
@@ -126,6 +161,24 @@ public class FolderUploadsFileManager implements IUploadsFileManager
         }
     }
 
+    /**
+     * Creates a sink streaming the files of an upload field directly into its sub-folder while
+     * the request is parsed, so they are not buffered in temporary files first. The files can be
+     * retrieved with {@link #getFile(String, String)} afterwards.
+     *
+     * @param uploadFieldId
+     *            The unique ID of the upload field.
+     * @return the sink
+     * @see org.apache.wicket.markup.html.form.upload.FileUploadField#getUploadSink()
+     */
+    public IUploadSink newUploadSink(String uploadFieldId)
+    {
+        Args.notNull(uploadFieldId, "uploadFieldId");
+
+        return (fieldName, clientFileName, contentType, input) -> write(input, uploadFieldId,
+            clientFileName);
+    }
+
     @Override
     public File getFile(String uploadFieldId, String clientFileName)
     {
@@ -34,6 +34,7 @@ import org.apache.wicket.markup.head.internal.HeaderResponse;
 import org.apache.wicket.markup.html.TransparentWebMarkupContainer;
 import org.apache.wicket.markup.html.WebMarkupContainer;
 import org.apache.wicket.markup.renderStrategy.AbstractHeaderRenderStrategy;
+import org.apache.wicket.protocol.http.StreamingWebResponse;
 import org.apache.wicket.request.Response;
 import org.apache.wicket.response.StringResponse;
 
@@ -193,6 +194,12 @@ public class HtmlHeaderContainer extends TransparentWebMarkupContainer
 					webResponse.write("</head>");
 				}
 			}
+
+			// let the client start loading the page's resources
+			if (webResponse instanceof StreamingWebResponse)
+			{
+				((StreamingWebResponse)webResponse).flush();
+			}
 		}
 		finally
 		{
@@ -29,6 +29,17 @@ public interface IPageableItems extends IPageable
 	 */
 	long getItemCount();
 
+	/**
+	 * Whether {@link #getItemCount()} is exact. If not, the count is an estimate or only known up
+	 * to the next page, so navigation should not offer a last page.
+	 * 
+	 * @return {@code true} by default
+	 */
+	default boolean isItemCountExact()
+	{
+		return true;
+	}
+
 	/**
 	 * maximum number of visible items per page
 	 * 
@@ -26,7 +26,8 @@ import org.apache.wicket.markup.html.panel.Panel;
  * A Wicket panel component to draw and maintain a complete page navigator, meant to be easily added
  * to any PageableListView. A navigation which contains links to the first and last page, the
  * current page +- some increment and which supports paged navigation bars (@see
- * PageableListViewNavigationWithMargin).
+ * PageableListViewNavigationWithMargin). The link to the last page is hidden while the item count
+ * of an {@link IPageableItems} is not {@link IPageableItems#isItemCountExact() exact}.
  * 
  * @author Juergen Donnerstag
  */
@@ -98,7 +99,7 @@ public class PagingNavigator extends Panel
 		add(newPagingNavigationIncrementLink("next", pageable, 1).add(
 			new TitleAppender("PagingNavigator.next")));
 		add(newPagingNavigationLink("last", pageable, -1).add(
-			new TitleAppender("PagingNavigator.last")));
+			new TitleAppender("PagingNavigator.last"), new LastPageVisibility()));
 	}
 
 	/**
@@ -163,6 +164,22 @@ public class PagingNavigator extends Panel
 		return pagingNavigation;
 	}
 
+	/**
+	 * Hides the link to the last page if the item count is not exact, since the last page is not
+	 * known then.
+	 */
+	private final class LastPageVisibility extends Behavior
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void onConfigure(Component component)
+		{
+			component.setVisible(pageable instanceof IPageableItems == false ||
+				((IPageableItems)pageable).isItemCountExact());
+		}
+	}
+
 	/**
 	 * Appends title attribute to navigation links
 	 * 
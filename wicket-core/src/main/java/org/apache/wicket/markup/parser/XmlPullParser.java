@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.Locale;
 
 import org.apache.wicket.markup.parser.XmlTag.TagType;
@@ -31,7 +32,6 @@ import org.apache.wicket.util.io.XmlReader;
 import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.parse.metapattern.parsers.TagNameParser;
 import org.apache.wicket.util.parse.metapattern.parsers.VariableAssignmentParser;
-import org.apache.wicket.util.string.Strings;
 
 /**
  * A fairly shallow markup pull parser which parses a markup string of a given type of markup (for
@@ -644,6 +644,11 @@ public final class XmlPullParser implements IXmlPullParser
 	 */
 	private boolean parseTagText(final XmlTag tag, final String tagText) throws ParseException
 	{
+		if (scanTagText(tag, tagText))
+		{
+			return true;
+		}
+
 		// Get the length of the tagtext
 		final int tagTextLength = tagText.length();
 
@@ -655,10 +660,10 @@ public final class XmlPullParser implements IXmlPullParser
 			tag.name = tagnameParser.getName();
 			tag.namespace = tagnameParser.getNamespace();
 
-			// Are we at the end? Then there are no attributes, so we just
-			// return the tag
+			// Are we at the end (ignoring whitespace)? Then there are no attributes,
+			// so we just return the tag
 			int pos = tagnameParser.matcher().end(0);
-			if (pos == tagTextLength)
+			if (isWhitespace(tagText, pos))
 			{
 				return true;
 			}
@@ -668,29 +673,11 @@ public final class XmlPullParser implements IXmlPullParser
 			while (attributeParser.matcher().find(pos))
 			{
 				// Get key and value using attribute pattern
-				String value = attributeParser.getValue();
-
-				// In case like <html xmlns:wicket> will the value be null
-				if (value == null)
-				{
-					value = "";
-				}
+				final String value = XmlTag.attributeValue(attributeParser.getValue());
 
 				// Set new position to end of attribute
 				pos = attributeParser.matcher().end(0);
 
-				// Chop off double quotes or single quotes
-				if (value.startsWith("\"") || value.startsWith("\'"))
-				{
-					value = value.substring(1, value.length() - 1);
-				}
-
-				// Trim trailing whitespace
-				value = value.trim();
-
-				// Unescape
-				value = Strings.unescapeMarkup(value).toString();
-
 				// Get key
 				final String key = attributeParser.getKey();
 
@@ -714,4 +701,247 @@ public final class XmlPullParser implements IXmlPullParser
 
 		return false;
 	}
+
+	/**
+	 * Scans the text between tags without patterns, for tags with a plain name and plain
+	 * attributes. The offsets of the attributes are recorded only, the tag parses them when they
+	 * are needed.
+	 *
+	 * @param tag
+	 * @param tagText
+	 *            The text between tags
+	 * @return false if the text has to be parsed with patterns
+	 * @throws ParseException
+	 *             if an attribute is found twice
+	 */
+	private boolean scanTagText(final XmlTag tag, final String tagText) throws ParseException
+	{
+		final int length = tagText.length();
+
+		// (namespace:)?name
+		int nameStart = 0;
+		int pos = scanName(tagText, 0);
+		if (pos == -1)
+		{
+			return false;
+		}
+		String namespace = null;
+		if (pos < length && tagText.charAt(pos) == ':')
+		{
+			if (isVariableName(tagText, 0, pos) == false)
+			{
+				return false;
+			}
+			nameStart = pos + 1;
+			pos = scanName(tagText, nameStart);
+			if (pos == -1)
+			{
+				return false;
+			}
+			namespace = tagText.substring(0, nameStart - 1).toLowerCase(Locale.ROOT);
+		}
+		final int nameEnd = pos;
+
+		int[] offsets = new int[16];
+		int count = 0;
+		while (true)
+		{
+			int next = skipWhitespace(tagText, pos);
+			if (next == length)
+			{
+				break;
+			}
+			if (next == pos)
+			{
+				// no whitespace before attribute
+				return false;
+			}
+
+			final int keyStart = next;
+			final int keyEnd = scanAttributeName(tagText, keyStart);
+			if (keyEnd == -1)
+			{
+				return false;
+			}
+
+			int valueStart = -1;
+			int valueEnd = -1;
+			pos = keyEnd;
+			next = skipWhitespace(tagText, keyEnd);
+			if (next < length && tagText.charAt(next) == '=')
+			{
+				valueStart = skipWhitespace(tagText, next + 1);
+				if (valueStart == length)
+				{
+					return false;
+				}
+
+				final char quote = tagText.charAt(valueStart);
+				if (quote == '"' || quote == '\'')
+				{
+					valueEnd = tagText.indexOf(quote, valueStart + 1) + 1;
+					if (valueEnd == 0)
+					{
+						return false;
+					}
+				}
+				else
+				{
+					valueEnd = valueStart;
+					while (valueEnd < length && isValueChar(tagText.charAt(valueEnd)))
+					{
+						valueEnd++;
+					}
+					if (valueEnd == valueStart)
+					{
+						return false;
+					}
+				}
+				pos = valueEnd;
+			}
+
+			for (int i = 0; i < count; i += 4)
+			{
+				if (offsets[i + 1] - offsets[i] == keyEnd - keyStart &&
+					tagText.regionMatches(offsets[i], tagText, keyStart, keyEnd - keyStart))
+				{
+					throw new ParseException("Same attribute found twice: " +
+						tagText.substring(keyStart, keyEnd) + getLineAndColumnText(),
+						input.getPosition());
+				}
+			}
+
+			if (count == offsets.length)
+			{
+				offsets = Arrays.copyOf(offsets, count * 2);
+			}
+			offsets[count++] = keyStart;
+			offsets[count++] = keyEnd;
+			offsets[count++] = valueStart;
+			offsets[count++] = valueEnd;
+		}
+
+		tag.name = tagText.substring(nameStart, nameEnd);
+		tag.namespace = namespace;
+		if (count > 0)
+		{
+			tag.setAttributeOffsets(tagText, Arrays.copyOf(offsets, count));
+		}
+		return true;
+	}
+
+	/**
+	 * Scans a name starting with a letter or underscore, followed by letters, digits, underscores,
+	 * dots or hyphens.
+	 *
+	 * @return the end of the name or -1 if there is none
+	 */
+	private static int scanName(final String text, int pos)
+	{
+		if (pos == text.length() || isNameStartChar(text.charAt(pos)) == false)
+		{
+			return -1;
+		}
+		pos++;
+		while (pos < text.length() && isNameChar(text.charAt(pos)))
+		{
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * Scans an attribute name with up to two namespaces, like "name", "namespace:name" or
+	 * "namespace:name:subname".
+	 *
+	 * @return the end of the name or -1 if there is none
+	 */
+	private static int scanAttributeName(final String text, final int start)
+	{
+		if (start < text.length() && text.charAt(start) == '@')
+		{
+			// VueJS like "@click"
+			int pos = start + 1;
+			while (pos < text.length() && isNameChar(text.charAt(pos)))
+			{
+				pos++;
+			}
+			return (pos < text.length() && text.charAt(pos) == ':') ? -1 : pos;
+		}
+
+		int segmentStart = start;
+		for (int segment = 0; segment < 3; segment++)
+		{
+			final int pos = scanName(text, segmentStart);
+			if (pos == -1)
+			{
+				return -1;
+			}
+			if (pos == text.length() || text.charAt(pos) != ':')
+			{
+				return pos;
+			}
+			if (segment == 2 || isVariableName(text, segmentStart, pos) == false)
+			{
+				return -1;
+			}
+			segmentStart = pos + 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return true, if the name between start and end is a variable name, i.e. has no dots
+	 */
+	private static boolean isVariableName(final String text, final int start, final int end)
+	{
+		final int dot = text.indexOf('.', start);
+		return dot == -1 || dot >= end;
+	}
+
+	private static boolean isNameStartChar(final char c)
+	{
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+	}
+
+	private static boolean isNameChar(final char c)
+	{
+		return isNameStartChar(c) || (c >= '0' && c <= '9') || c == '.' || c == '-';
+	}
+
+	private static boolean isValueChar(final char c)
+	{
+		return isNameChar(c);
+	}
+
+	private static boolean isSpace(final char c)
+	{
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000b';
+	}
+
+	private static int skipWhitespace(final String text, int pos)
+	{
+		while (pos < text.length() && isSpace(text.charAt(pos)))
+		{
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * @param text
+	 * @param pos
+	 * @return true, if there are only whitespace characters from the given position
+	 */
+	private static boolean isWhitespace(final String text, final int pos)
+	{
+		for (int i = pos; i < text.length(); i++)
+		{
+			if (Character.isWhitespace(text.charAt(i)) == false)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
 }
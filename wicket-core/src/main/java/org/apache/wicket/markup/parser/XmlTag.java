@@ -21,6 +21,7 @@ import java.util.Map;
 import org.apache.wicket.util.lang.Objects;
 import org.apache.wicket.util.string.AppendingStringBuffer;
 import org.apache.wicket.util.string.StringValue;
+import org.apache.wicket.util.string.Strings;
 import org.apache.wicket.util.value.AttributeMap;
 import org.apache.wicket.util.value.IValueMap;
 
@@ -28,6 +29,10 @@ import org.apache.wicket.util.value.IValueMap;
 /**
  * A subclass of MarkupElement which represents a tag including namespace and its optional
  * attributes. XmlTags are returned by the XML parser.
+ * <p>
+ * The parser may record the offsets of the attributes in the tag's text only, the attribute map is
+ * created when first needed. {@link #getAttribute(String)} looks up single attributes without
+ * creating it.
  * 
  * @author Jonathan Locke
  */
@@ -52,6 +57,15 @@ public class XmlTag
 	/** Attribute map. */
 	private AttributeMap attributes;
 
+	/** Text to parse the attributes from, if the attribute map is not created yet. */
+	private String attributeText;
+
+	/**
+	 * Start and end of key and value of each attribute in {@link #attributeText}, the value's
+	 * offsets are -1 if the attribute has no value.
+	 */
+	private int[] attributeOffsets;
+
 	/** Name of tag, such as "img" or "input". */
 	String name;
 
@@ -134,7 +148,19 @@ public class XmlTag
 	{
 		if (attributes == null)
 		{
-			if ((copyOf == this) || (copyOf == null) || (copyOf.attributes == null))
+			if (attributeOffsets != null)
+			{
+				attributes = new AttributeMap();
+				for (int i = 0; i < attributeOffsets.length; i += 4)
+				{
+					attributes.put(
+						attributeText.substring(attributeOffsets[i], attributeOffsets[i + 1]),
+						attributeValue(i));
+				}
+				attributeText = null;
+				attributeOffsets = null;
+			}
+			else if ((copyOf == this) || (copyOf == null) || (copyOf.attributes == null))
 			{
 				attributes = new AttributeMap();
 			}
@@ -151,9 +177,68 @@ public class XmlTag
 	 */
 	public boolean hasAttributes()
 	{
+		if (attributeOffsets != null)
+		{
+			return true;
+		}
 		return attributes != null && attributes.size() > 0;
 	}
 
+	/**
+	 * Set the attributes to parse when needed.
+	 * 
+	 * @param text
+	 *            text of the tag
+	 * @param offsets
+	 *            start and end of key and value of each attribute, -1 for a missing value
+	 */
+	void setAttributeOffsets(final String text, final int[] offsets)
+	{
+		attributes = null;
+		attributeText = text;
+		attributeOffsets = offsets;
+	}
+
+	/**
+	 * @param index
+	 *            index of attribute in {@link #attributeOffsets}
+	 * @return the value of the attribute
+	 */
+	private String attributeValue(final int index)
+	{
+		int start = attributeOffsets[index + 2];
+		return attributeValue(start == -1 ? null : attributeText.substring(start,
+			attributeOffsets[index + 3]));
+	}
+
+	/**
+	 * Converts the value of an attribute as found in markup.
+	 * 
+	 * @param value
+	 *            the value, may be quoted or {@code null}
+	 * @return the unquoted, trimmed and unescaped value
+	 */
+	static String attributeValue(String value)
+	{
+		// In case like <html xmlns:wicket> will the value be null
+		if (value == null)
+		{
+			return "";
+		}
+
+		// Chop off double quotes or single quotes
+		if (value.startsWith("\"") || value.startsWith("\'"))
+		{
+			value = value.substring(1, value.length() - 1);
+		}
+
+		// Trim trailing whitespace
+		value = value.trim();
+
+		// Unescape
+		return Strings.unescapeMarkup(value).toString();
+	}
+
 	/**
 	 * Get the column number.
 	 * 
@@ -233,6 +318,19 @@ public class XmlTag
 	 */
 	public CharSequence getAttribute(final String key)
 	{
+		if (attributeOffsets != null)
+		{
+			// look up the attribute without creating the attribute map
+			for (int i = 0; i < attributeOffsets.length; i += 4)
+			{
+				if (attributeOffsets[i + 1] - attributeOffsets[i] == key.length() &&
+					attributeText.startsWith(key, attributeOffsets[i]))
+				{
+					return attributeValue(i);
+				}
+			}
+			return null;
+		}
 		return getAttributes().getCharSequence(key);
 	}
 
@@ -296,6 +394,11 @@ public class XmlTag
 		if (isMutable)
 		{
 			isMutable = false;
+			if (attributeOffsets != null)
+			{
+				// immutable tags are shared, so don't create the attribute map lazily
+				attributes();
+			}
 			if (attributes != null)
 			{
 				attributes.makeImmutable();
@@ -344,6 +447,11 @@ public class XmlTag
 		{
 			dest.attributes = new AttributeMap(attributes);
 		}
+		else
+		{
+			dest.attributeText = attributeText;
+			dest.attributeOffsets = attributeOffsets;
+		}
 	}
 
 	/**
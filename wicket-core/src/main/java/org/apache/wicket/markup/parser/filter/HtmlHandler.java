@@ -181,7 +181,7 @@ public final class HtmlHandler extends AbstractMarkupFilter
 	{
 		// check if it is a wicket:id component
 		String wicketIdAttr = getWicketNamespace() + ":" + "id";
-		boolean hasWicketId = tag.getAttributes().get(wicketIdAttr) != null;
+		boolean hasWicketId = tag.getAttribute(wicketIdAttr) != null;
 
 		if (hasWicketId)
 		{
@@ -189,7 +189,7 @@ public final class InlineEnclosureHandler extends AbstractMarkupFilter
 	 */
 	private String getAttribute(final ComponentTag tag, MarkupStream markupStream)
 	{
-		return tag.getAttributes().getString(getInlineEnclosureAttributeName(markupStream));
+		return tag.getAttribute(getInlineEnclosureAttributeName(markupStream));
 	}
 
 	@Override
@@ -139,7 +139,7 @@ public final class RelativePathPrefixHandler extends AbstractMarkupFilter
 
 		// Don't touch any wicket:id component and any auto components
 		if ((tag instanceof WicketTag) || (tag.isAutolinkEnabled() == true)
-			|| (tag.getAttributes().get(wicketIdAttr) != null))
+			|| (tag.getAttribute(wicketIdAttr) != null))
 		{
 			return tag;
 		}
@@ -148,7 +148,7 @@ public final class RelativePathPrefixHandler extends AbstractMarkupFilter
 		// behavior that prepends the relative path.
 		for (String attrName : attributeNames)
 		{
-			String attrValue = tag.getAttributes().getString(attrName);
+			String attrValue = tag.getAttribute(attrName);
 			if ((attrValue != null) && (attrValue.startsWith("/") == false)
 				&& (!attrValue.contains(":")) && !(attrValue.startsWith("#")))
 			{
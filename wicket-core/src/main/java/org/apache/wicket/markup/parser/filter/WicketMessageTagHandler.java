@@ -80,8 +80,7 @@ public final class WicketMessageTagHandler extends AbstractMarkupFilter
 			return tag;
 		}
 
-		final String wicketMessageAttribute = tag.getAttributes().getString(
-			getWicketMessageAttrName());
+		final String wicketMessageAttribute = tag.getAttribute(getWicketMessageAttrName());
 
 		if (Strings.isEmpty(wicketMessageAttribute) == false)
 		{
@@ -111,7 +111,7 @@ public final class WicketTagIdentifier extends AbstractMarkupFilter
 		final String namespace = getWicketNamespace();
 
 		// If the form <tag wicket:id = "value"> is used
-		final String wicketIdValue = tag.getAttributes().getString(namespace + ":id");
+		final String wicketIdValue = tag.getAttribute(namespace + ":id");
 
 		// Identify tags with Wicket namespace
 		if (namespace.equalsIgnoreCase(tag.getNamespace()))
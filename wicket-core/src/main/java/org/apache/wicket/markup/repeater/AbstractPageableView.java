@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+import org.apache.wicket.MarkupContainer;
 import org.apache.wicket.markup.html.navigation.paging.IPageableItems;
 import org.apache.wicket.model.IModel;
 
@@ -66,6 +67,12 @@ public abstract class AbstractPageableView<T> extends RefreshingView<T> implemen
 	 */
 	private transient Long cachedItemCount;
 
+	/**
+	 * Whether the cached item count was computed while the parent was rendering, e.g. by the
+	 * navigation toolbar of a table. It is still valid when this view renders.
+	 */
+	private transient boolean cachedWhileRendering;
+
 	/**
 	 * Constructor
 	 * 
@@ -109,7 +116,10 @@ public abstract class AbstractPageableView<T> extends RefreshingView<T> implemen
 	@Override
 	protected void onBeforeRender()
 	{
-		clearCachedItemCount();
+		if (cachedWhileRendering == false)
+		{
+			clearCachedItemCount();
+		}
 		super.onBeforeRender();
 	}
 
@@ -131,6 +141,7 @@ public abstract class AbstractPageableView<T> extends RefreshingView<T> implemen
 	private void clearCachedItemCount()
 	{
 		cachedItemCount = null;
+		cachedWhileRendering = false;
 	}
 
 	// /////////////////////////////////////////////////////////////////////////
@@ -179,6 +190,16 @@ public abstract class AbstractPageableView<T> extends RefreshingView<T> implemen
 	 */
 	protected abstract long internalGetItemCount();
 
+	/**
+	 * Whether the total item count is exact.
+	 * 
+	 * @return {@code true} by default
+	 */
+	protected boolean internalIsItemCountExact()
+	{
+		return true;
+	}
+
 	/**
 	 * Get the row count.
 	 * 
@@ -207,7 +228,10 @@ public abstract class AbstractPageableView<T> extends RefreshingView<T> implemen
 	@Override
 	public final long getItemCount()
 	{
-		if (cachedItemCount != null)
+		boolean rendering = isParentRendering();
+
+		// a count cached before rendering, e.g. while processing a listener, might be stale now
+		if (cachedItemCount != null && (cachedWhileRendering || rendering == false))
 		{
 			return cachedItemCount;
 		}
@@ -215,9 +239,39 @@ public abstract class AbstractPageableView<T> extends RefreshingView<T> implemen
 		long count = internalGetItemCount();
 
 		cachedItemCount = count;
+		cachedWhileRendering = rendering;
 		return count;
 	}
 
+	/**
+	 * @see #internalIsItemCountExact()
+	 */
+	@Override
+	public final boolean isItemCountExact()
+	{
+		// the exactness is known with the count
+		getItemCount();
+
+		return internalIsItemCountExact();
+	}
+
+	private boolean isParentRendering()
+	{
+		MarkupContainer parent = getParent();
+		return parent != null && parent.isRendering();
+	}
+
+	/**
+	 * Gets the offset of the first item of the current page, without correcting the current page
+	 * if it is beyond the page count.
+	 * 
+	 * @return offset of the first item of the requested page
+	 */
+	protected final long getRequestedItemOffset()
+	{
+		return currentPage == 0 ? 0 : currentPage * getItemsPerPage();
+	}
+
 	/**
 	 * @see org.apache.wicket.markup.html.navigation.paging.IPageable#getCurrentPage()
 	 */
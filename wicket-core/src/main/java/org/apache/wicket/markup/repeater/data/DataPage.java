@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import java.util.List;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A page of data returned by an {@link IPagedDataProvider}: the items of the page and the count of
+ * all items.
+ * 
+ * @param <T>
+ */
+public final class DataPage<T>
+{
+	private final List<? extends T> items;
+
+	private final long size;
+
+	private final boolean exact;
+
+	private DataPage(final List<? extends T> items, final long size, final boolean exact)
+	{
+		this.items = Args.notNull(items, "items");
+		this.size = size;
+		this.exact = exact;
+	}
+
+	/**
+	 * A page with the exact count of all items.
+	 * 
+	 * @param items
+	 *            items of the page
+	 * @param size
+	 *            count of all items
+	 * @return page
+	 */
+	public static <T> DataPage<T> of(final List<? extends T> items, final long size)
+	{
+		return new DataPage<>(items, size, true);
+	}
+
+	/**
+	 * A page with an estimated count of all items, e.g. from the statistics of the database.
+	 * 
+	 * @param items
+	 *            items of the page
+	 * @param first
+	 *            first row of the page
+	 * @param estimatedSize
+	 *            estimated count of all items
+	 * @return page
+	 */
+	public static <T> DataPage<T> estimated(final List<? extends T> items, final long first,
+		final long estimatedSize)
+	{
+		return new DataPage<>(items, Math.max(estimatedSize, first + items.size()), false);
+	}
+
+	/**
+	 * A page which only knows whether there are more items after it, e.g. because one more item
+	 * than requested was loaded. Navigation offers the pages up to the next one only. Without more
+	 * items the count is exact.
+	 * 
+	 * @param items
+	 *            items of the page
+	 * @param first
+	 *            first row of the page
+	 * @param hasMore
+	 *            whether there are more items after this page
+	 * @return page
+	 */
+	public static <T> DataPage<T> hasMore(final List<? extends T> items, final long first,
+		final boolean hasMore)
+	{
+		return new DataPage<>(items, first + items.size() + (hasMore ? 1 : 0), hasMore == false);
+	}
+
+	/**
+	 * @return items of the page
+	 */
+	public List<? extends T> getItems()
+	{
+		return items;
+	}
+
+	/**
+	 * @return the count of all items, might be an estimate
+	 */
+	public long getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * @return whether {@link #getSize()} is exact
+	 */
+	public boolean isExact()
+	{
+		return exact;
+	}
+}
@@ -31,7 +31,11 @@ import org.apache.wicket.util.lang.Args;
  * Data views aim to make it very simple to populate your repeating view from a database by
  * utilizing {@link IDataProvider} to act as an interface between the database and the dataview.
  * 
+ * If the data provider is an {@link IPagedDataProvider}, the items of the current page are loaded
+ * together with the item count in a single call.
+ * 
  * @see IDataProvider
+ * @see IPagedDataProvider
  * @see DataView
  * @see IPageable
  * @see RefreshingView
@@ -46,6 +50,13 @@ public abstract class DataViewBase<T> extends AbstractPageableView<T>
 	private static final long serialVersionUID = 1L;
 	private final IDataProvider<T> dataProvider;
 
+	/**
+	 * Page loaded together with the item count from an {@link IPagedDataProvider}.
+	 */
+	private transient DataPage<T> cachedPage;
+
+	private transient long cachedPageOffset;
+
 	/**
 	 * @param id
 	 *            component id
@@ -71,7 +82,23 @@ public abstract class DataViewBase<T> extends AbstractPageableView<T>
 	@Override
 	protected final Iterator<IModel<T>> getItemModels(long offset, long count)
 	{
-		return new ModelIterator<T>(internalGetDataProvider(), offset, count);
+		IDataProvider<T> dataProvider = internalGetDataProvider();
+		if (count <= 0)
+		{
+			return new ModelIterator<T>(dataProvider, null, count);
+		}
+
+		if (dataProvider instanceof IPagedDataProvider)
+		{
+			DataPage<T> page = cachedPage;
+			if (page == null || cachedPageOffset != offset)
+			{
+				page = ((IPagedDataProvider<T>)dataProvider).page(offset, count);
+			}
+			return new ModelIterator<T>(dataProvider, page.getItems().iterator(), count);
+		}
+
+		return new ModelIterator<T>(dataProvider, dataProvider.iterator(offset, count), count);
 	}
 
 	/**
@@ -94,17 +121,16 @@ public abstract class DataViewBase<T> extends AbstractPageableView<T>
 		 * 
 		 * @param dataProvider
 		 *            data provider
-		 * @param offset
-		 *            index of first item
+		 * @param items
+		 *            items to convert, may be {@code null}
 		 * @param count
 		 *            max number of items to return
 		 */
-		public ModelIterator(IDataProvider<T> dataProvider, long offset, long count)
+		public ModelIterator(IDataProvider<T> dataProvider, Iterator<? extends T> items, long count)
 		{
 			this.dataProvider = dataProvider;
+			this.items = items;
 			max = count;
-
-			items = count > 0 ? dataProvider.iterator(offset, count) : null;
 		}
 
 		/**
@@ -139,7 +165,22 @@ public abstract class DataViewBase<T> extends AbstractPageableView<T>
 	@Override
 	protected final long internalGetItemCount()
 	{
-		return internalGetDataProvider().size();
+		IDataProvider<T> dataProvider = internalGetDataProvider();
+		if (dataProvider instanceof IPagedDataProvider)
+		{
+			// load the page too, it is most probably rendered next
+			long offset = getRequestedItemOffset();
+			cachedPage = ((IPagedDataProvider<T>)dataProvider).page(offset, getItemsPerPage());
+			cachedPageOffset = offset;
+			return cachedPage.getSize();
+		}
+		return dataProvider.size();
+	}
+
+	@Override
+	protected final boolean internalIsItemCountExact()
+	{
+		return cachedPage == null || cachedPage.isExact();
 	}
 
 	/**
@@ -148,6 +189,7 @@ public abstract class DataViewBase<T> extends AbstractPageableView<T>
 	@Override
 	protected void onDetach()
 	{
+		cachedPage = null;
 		dataProvider.detach();
 		super.onDetach();
 	}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+/**
+ * A data provider which returns the items of a page together with the count of all items, so a
+ * pageable view needs a single query per render instead of one for {@link #size()} and one for
+ * {@link #iterator(long, long)}.
+ * <p>
+ * Instead of the exact count a page may carry an estimate, or just whether there are more items
+ * after it, see {@link DataPage}.
+ * 
+ * Example:
+ * 
+ * <pre>
+ * class UsersProvider implements IPagedDataProvider&lt;User&gt;
+ * {
+ * 	public DataPage&lt;User&gt; page(long first, long count)
+ * 	{
+ * 		// e.g. select *, count(*) over () from users limit :count offset :first
+ * 		UserPage page = getUserDao().page(first, count);
+ * 		return DataPage.of(page.getUsers(), page.getTotal());
+ * 	}
+ * 
+ * 	...
+ * }
+ * </pre>
+ * 
+ * {@link #size()} and {@link #iterator(long, long)} are still used by components not aware of
+ * pages, e.g. exports.
+ * 
+ * @see DataViewBase
+ * @see KeysetDataProvider
+ * 
+ * @param <T>
+ */
+public interface IPagedDataProvider<T> extends IDataProvider<T>
+{
+	/**
+	 * Gets a page of the data.
+	 * 
+	 * @param first
+	 *            first row of data
+	 * @param count
+	 *            maximum number of elements to retrieve, might be larger than the count of
+	 *            remaining items
+	 * 
+	 * @return the items and the count of all items
+	 */
+	DataPage<T> page(long first, long count);
+}
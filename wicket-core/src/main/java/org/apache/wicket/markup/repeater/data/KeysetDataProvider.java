@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup.repeater.data;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.util.collections.MostRecentlyUsedMap;
+
+/**
+ * A data provider using keyset pagination: instead of skipping {@code first} rows with an offset,
+ * which gets slower the deeper the page is, the next page is loaded with the rows following the key
+ * of the last item of the previous page:
+ * 
+ * <pre>
+ * class UsersProvider extends KeysetDataProvider&lt;User, Long&gt;
+ * {
+ * 	protected List&lt;User&gt; loadAfter(Long after, long count)
+ * 	{
+ * 		// select * from users where id &gt; :after order by id limit :count
+ * 		return getUserDao().findAfter(after, count);
+ * 	}
+ * 
+ * 	protected List&lt;User&gt; loadFrom(long first, long count)
+ * 	{
+ * 		// select * from users order by id limit :count offset :first
+ * 		return getUserDao().find(first, count);
+ * 	}
+ * 
+ * 	protected Long getKey(User user)
+ * 	{
+ * 		return user.getId();
+ * 	}
+ * 
+ * 	...
+ * }
+ * </pre>
+ * 
+ * The keys of the most recently visited pages are remembered, so paging forward and back uses the
+ * keyset. Jumping to a page not visited yet falls back to {@link #loadFrom(long, long)}. The
+ * number of keys is limited, since they are serialized with the page.
+ * <p>
+ * One more item than requested is loaded to find out whether there are more items, the pages
+ * returned do not know the count of all items (see {@link DataPage#hasMore(List, long, boolean)}).
+ * If the order or the filter of the items changes, {@link #clearKeys()} has to be called.
+ * 
+ * @param <T>
+ *            type of items
+ * @param <K>
+ *            type of the key items are ordered by
+ */
+public abstract class KeysetDataProvider<T, K extends Serializable> implements IPagedDataProvider<T>
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Default maximum number of remembered keys.
+	 */
+	public static final int DEFAULT_MAX_KEYS = 20;
+
+	/**
+	 * The key of the item before an offset, by offset.
+	 */
+	private final Map<Long, K> keys;
+
+	/**
+	 * Construct remembering up to {@value #DEFAULT_MAX_KEYS} keys.
+	 */
+	public KeysetDataProvider()
+	{
+		this(DEFAULT_MAX_KEYS);
+	}
+
+	/**
+	 * Construct.
+	 * 
+	 * @param maxKeys
+	 *            maximum number of remembered keys, the least recently used are forgotten first
+	 */
+	public KeysetDataProvider(final int maxKeys)
+	{
+		keys = new MostRecentlyUsedMap<>(maxKeys);
+	}
+
+	@Override
+	public DataPage<T> page(final long first, final long count)
+	{
+		// load one more item to find out whether there are more
+		final long limit = count == Long.MAX_VALUE ? count : count + 1;
+
+		List<? extends T> items;
+		if (first == 0)
+		{
+			items = loadAfter(null, limit);
+		}
+		else
+		{
+			K key = keys.get(first);
+			if (key == null)
+			{
+				items = loadFrom(first, limit);
+			}
+			else
+			{
+				items = loadAfter(key, limit);
+			}
+		}
+
+		final boolean hasMore = items.size() > count;
+		if (hasMore)
+		{
+			items = items.subList(0, (int)count);
+		}
+
+		if (items.isEmpty() == false)
+		{
+			keys.put(first + items.size(), getKey(items.get(items.size() - 1)));
+		}
+
+		return DataPage.hasMore(items, first, hasMore);
+	}
+
+	@Override
+	public Iterator<? extends T> iterator(final long first, final long count)
+	{
+		return page(first, count).getItems().iterator();
+	}
+
+	/**
+	 * Forget the keys of all pages, e.g. because the order or the filter of the items changed.
+	 */
+	public void clearKeys()
+	{
+		keys.clear();
+	}
+
+	/**
+	 * Load the items following a key.
+	 * 
+	 * @param after
+	 *            key of the item before the first item to load, {@code null} for the first page
+	 * @param count
+	 *            maximum number of items to load
+	 * @return items
+	 */
+	protected abstract List<? extends T> loadAfter(K after, long count);
+
+	/**
+	 * Load items by offset, used if the key of the item before is not known.
+	 * 
+	 * @param first
+	 *            offset of the first item to load
+	 * @param count
+	 *            maximum number of items to load
+	 * @return items
+	 */
+	protected abstract List<? extends T> loadFrom(long first, long count);
+
+	/**
+	 * Get the key of an item.
+	 * 
+	 * @param item
+	 *            item
+	 * @return key the items are ordered by
+	 */
+	protected abstract K getKey(T item);
+}
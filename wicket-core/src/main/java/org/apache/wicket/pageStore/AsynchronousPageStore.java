@@ -24,6 +24,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 import org.apache.wicket.MetaDataKey;
@@ -37,12 +38,19 @@ import org.slf4j.LoggerFactory;
 /**
  * Facade for {@link IPageStore} moving {@link #addPage(IPageContext, IManageablePage)} to a worker thread.
  * <p>
- * Creates an {@link PendingAdd} for {@link #addPage(IPageContext, IManageablePage)} and puts ito a {@link #queue}.
- * Later {@link PageAddingRunnable} reads in blocking manner from {@link #queue} and performs the add.
+ * Creates an {@link PendingAdd} for {@link #addPage(IPageContext, IManageablePage)} and puts ito one of the {@link #queues}.
+ * Later {@link PageAddingRunnable} reads in blocking manner from its queue and performs the add.
  * <p>
- * It starts only one instance of {@link PageAddingRunnable} because all we need is to make the page
+ * By default it starts only one instance of {@link PageAddingRunnable} because all we need is to make the page
  * storing asynchronous. We don't want to write concurrently in the wrapped {@link IPageStore},
  * though it may happen in the extreme case when the queue is full. These cases should be avoided.
+ * <p>
+ * Optionally several workers can be started, each one with its own queue. Adds are sharded by session id,
+ * so all pages of a single session are still stored in order by the same worker. Workers may run on
+ * platform or virtual threads.
+ * <p>
+ * A page added again while its previous add is still waiting in the queue is coalesced into the pending
+ * add, i.e. the wrapped {@link IPageStore} writes the page only once.
  * 
  * @author Matej Knopp
  * @author manuelbarzi
@@ -64,14 +72,19 @@ public class AsynchronousPageStore extends DelegatingPageStore
 	private static final long POLL_WAIT = 1000L;
 
 	/**
-	 * The page saving thread.
+	 * The name of the page saving thread(s).
+	 */
+	private static final String THREAD_NAME = "Wicket-AsyncPageStore-PageSavingThread";
+
+	/**
+	 * The page saving threads, one per queue.
 	 */
-	private final Thread pageSavingThread;
+	private final Thread[] pageSavingThreads;
 
 	/**
-	 * The queue where the entries which have to be saved are temporary stored
+	 * The queues where the entries which have to be saved are temporary stored, sharded by session id.
 	 */
-	private final BlockingQueue<PendingAdd> queue;
+	private final BlockingQueue<PendingAdd>[] queues;
 
 	/**
 	 * A map 'sessionId:::pageId' -> {@link PendingAdd}. Used for fast retrieval of {@link PendingAdd}s which
@@ -80,7 +93,17 @@ public class AsynchronousPageStore extends DelegatingPageStore
 	private final ConcurrentMap<String, PendingAdd> queueMap;
 
 	/**
-	 * Construct.
+	 * Count of adds coalesced into a still pending add of the same page.
+	 */
+	private final LongAdder coalescedAddCount = new LongAdder();
+
+	/**
+	 * Count of adds performed synchronously because the queue was full.
+	 */
+	private final LongAdder synchronousAddCount = new LongAdder();
+
+	/**
+	 * Construct with a single worker running on a platform thread.
 	 * 
 	 * @param delegate
 	 *            the wrapped {@link IPageStore} that actually saved the page
@@ -88,16 +111,92 @@ public class AsynchronousPageStore extends DelegatingPageStore
 	 *            the capacity of the queue that delays the saving
 	 */
 	public AsynchronousPageStore(final IPageStore delegate, final int capacity)
+	{
+		this(delegate, capacity, 1, false);
+	}
+
+	/**
+	 * Construct.
+	 * 
+	 * @param delegate
+	 *            the wrapped {@link IPageStore} that actually saved the page
+	 * @param capacity
+	 *            the capacity of each worker's queue that delays the saving
+	 * @param workers
+	 *            the number of workers saving pages, each one with its own queue
+	 * @param virtualThreads
+	 *            whether the workers should run on virtual threads
+	 */
+	@SuppressWarnings("unchecked")
+	public AsynchronousPageStore(final IPageStore delegate, final int capacity, final int workers,
+		final boolean virtualThreads)
 	{
 		super(delegate);
-		
-		queue = new LinkedBlockingQueue<>(capacity);
+
+		Args.withinRange(1, Integer.MAX_VALUE, capacity, "capacity");
+		Args.withinRange(1, Integer.MAX_VALUE, workers, "workers");
+
 		queueMap = new ConcurrentHashMap<>();
+		queues = new BlockingQueue[workers];
+		pageSavingThreads = new Thread[workers];
+
+		Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+		for (int i = 0; i < workers; i++)
+		{
+			queues[i] = new LinkedBlockingQueue<>(capacity);
 
-		PageAddingRunnable savingRunnable = new PageAddingRunnable(delegate, queue, queueMap);
-		pageSavingThread = new Thread(savingRunnable, "Wicket-AsyncPageStore-PageSavingThread");
-		pageSavingThread.setDaemon(true);
-		pageSavingThread.start();
+			PageAddingRunnable savingRunnable = new PageAddingRunnable(delegate, queues[i], queueMap);
+			String name = workers == 1 ? THREAD_NAME : THREAD_NAME + "-" + i;
+			pageSavingThreads[i] = builder.name(name).start(savingRunnable);
+		}
+	}
+
+	/**
+	 * Get the queue responsible for the given session.
+	 * 
+	 * @param sessionId
+	 *            id of session
+	 * @return queue
+	 */
+	private BlockingQueue<PendingAdd> getQueue(final String sessionId)
+	{
+		return queues[Math.floorMod(sessionId.hashCode(), queues.length)];
+	}
+
+	/**
+	 * Get the number of adds currently waiting in the queues.
+	 * 
+	 * @return number of pending adds
+	 */
+	public int getQueueSize()
+	{
+		int size = 0;
+		for (BlockingQueue<PendingAdd> queue : queues)
+		{
+			size += queue.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Get the number of adds which were coalesced into a still pending add of the same page, thus
+	 * saving a write in the wrapped {@link IPageStore}.
+	 * 
+	 * @return number of coalesced adds
+	 */
+	public long getCoalescedAddCount()
+	{
+		return coalescedAddCount.sum();
+	}
+
+	/**
+	 * Get the number of adds which had to be performed synchronously, because the queue was full.
+	 * 
+	 * @return number of synchronous adds
+	 */
+	public long getSynchronousAddCount()
+	{
+		return synchronousAddCount.sum();
 	}
 
 	/**
@@ -121,7 +220,10 @@ public class AsynchronousPageStore extends DelegatingPageStore
 	{
 		private final IPageContext context;
 		
-		private final IManageablePage page;
+		/**
+		 * The page to add, may be replaced by a coalesced add.
+		 */
+		private volatile IManageablePage page;
 
 		private final String sessionId;
 
@@ -158,6 +260,39 @@ public class AsynchronousPageStore extends DelegatingPageStore
 			return AsynchronousPageStore.getKey(sessionId, page.getPageId());
 		}
 
+		/**
+		 * Coalesce a later add of the same page into this one.
+		 * 
+		 * @param add
+		 *            the later add
+		 * @return {@code false} if this add is already performed and can no longer be changed
+		 */
+		private synchronized boolean coalesce(PendingAdd add)
+		{
+			if (asynchronous)
+			{
+				return false;
+			}
+
+			page = add.page;
+			attributeCache.putAll(add.attributeCache);
+			dataCache.putAll(add.dataCache);
+
+			return true;
+		}
+
+		/**
+		 * Switch to asynchronous mode, after that no further add can be coalesced into this one.
+		 * 
+		 * @return the page to add
+		 */
+		private synchronized IManageablePage take()
+		{
+			asynchronous = true;
+
+			return page;
+		}
+
 		@Override
 		public String toString()
 		{
@@ -288,8 +423,7 @@ public class AsynchronousPageStore extends DelegatingPageStore
 					try
 					{
 						log.debug("Saving asynchronously: {}...", add);
-						add.asynchronous = true;
-						delegate.addPage(add, add.page);
+						delegate.addPage(add, add.take());
 					}
 					catch (Exception x)
 					{
@@ -297,7 +431,7 @@ public class AsynchronousPageStore extends DelegatingPageStore
 					}
 					finally
 					{
-						map.remove(add.getKey());
+						map.remove(add.getKey(), add);
 					}
 				}
 			}
@@ -307,9 +441,12 @@ public class AsynchronousPageStore extends DelegatingPageStore
 	@Override
 	public void destroy()
 	{
-		if (pageSavingThread.isAlive())
+		for (Thread pageSavingThread : pageSavingThreads)
 		{
 			pageSavingThread.interrupt();
+		}
+		for (Thread pageSavingThread : pageSavingThreads)
+		{
 			try
 			{
 				pageSavingThread.join();
@@ -356,7 +493,8 @@ public class AsynchronousPageStore extends DelegatingPageStore
 		PendingAdd entry = queueMap.remove(key);
 		if (entry != null)
 		{
-			queue.remove(entry);
+			entry.take();
+			getQueue(sessionId).remove(entry);
 		}
 
 		getDelegate().removePage(context, page);
@@ -369,10 +507,19 @@ public class AsynchronousPageStore extends DelegatingPageStore
 		if (getDelegate().canBeAsynchronous(add))
 		{
 			String key = add.getKey();
+
+			PendingAdd pending = queueMap.get(key);
+			if (pending != null && pending.coalesce(add))
+			{
+				log.debug("Coalesced with pending add page with id '{}'", page.getPageId());
+				coalescedAddCount.increment();
+				return;
+			}
+
 			queueMap.put(key, add);
 			try
 			{
-				if (queue.offer(add, OFFER_WAIT, TimeUnit.MILLISECONDS))
+				if (getQueue(add.sessionId).offer(add, OFFER_WAIT, TimeUnit.MILLISECONDS))
 				{
 					log.debug("Offered for storing asynchronously page with id '{}'", page.getPageId());
 					return;
@@ -380,14 +527,17 @@ public class AsynchronousPageStore extends DelegatingPageStore
 				else
 				{
 					log.debug("Storing synchronously page with id '{}'", page.getPageId());
-					queueMap.remove(key);
+					synchronousAddCount.increment();
 				}
 			}
 			catch (InterruptedException e)
 			{
 				log.error(e.getMessage(), e);
-				queueMap.remove(key);
 			}
+
+			// a later add might have been coalesced while waiting, so store its page
+			page = add.take();
+			queueMap.remove(key, add);
 		}
 		else
 		{
@@ -405,15 +555,19 @@ public class AsynchronousPageStore extends DelegatingPageStore
 			return;
 		}
 
-		queue.removeIf(add -> {
+		getQueue(sessionId).removeIf(add -> {
 			if (add.sessionId.equals(sessionId)) {
-				queueMap.remove(add.getKey());
+				add.take();
+				queueMap.remove(add.getKey(), add);
 				return true;
 			}
 			
 			return false;
 		});
 		
+		// adds currently performed by a worker
+		queueMap.values().removeIf(add -> add.sessionId.equals(sessionId));
+		
 		getDelegate().removeAllPages(context);
 	}
 }
@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.util.Arrays;
+
+/**
+ * Binary delta between two byte arrays.
+ * <p>
+ * The base is divided into blocks, which are looked up in the target with a rolling hash. Each
+ * match is extended in both directions as far as possible and encoded as a copy from the base,
+ * everything else is encoded literally. The result is a sequence of variable length encoded
+ * integers:
+ *
+ * <pre>
+ * delta   := targetLength op*
+ * op      := COPY offset length | LITERAL length byte*
+ * </pre>
+ *
+ * @see DeltaPageStore
+ */
+class BinaryDelta
+{
+	private static final int BLOCK_SIZE = 16;
+
+	private static final int PRIME = 31;
+
+	/**
+	 * {@link #PRIME} to the power of {@code BLOCK_SIZE - 1}, needed to roll the hash.
+	 */
+	private static final int PRIME_POWER;
+
+	static
+	{
+		int power = 1;
+		for (int i = 1; i < BLOCK_SIZE; i++)
+		{
+			power *= PRIME;
+		}
+		PRIME_POWER = power;
+	}
+
+	private static final int LITERAL = 0;
+
+	private static final int COPY = 1;
+
+	private BinaryDelta()
+	{
+	}
+
+	/**
+	 * Create a delta.
+	 *
+	 * @param base
+	 *            the base to create the delta against
+	 * @param target
+	 *            the target
+	 * @return delta to create the target from the base
+	 */
+	public static byte[] create(byte[] base, byte[] target)
+	{
+		Output output = new Output(target.length / 8 + 16);
+		output.writeInt(target.length);
+
+		int[] table = index(base);
+		int mask = table.length - 1;
+
+		int literalStart = 0;
+		int position = 0;
+		if (target.length >= BLOCK_SIZE && base.length >= BLOCK_SIZE)
+		{
+			int hash = hash(target, 0);
+			while (true)
+			{
+				int candidate = table[mix(hash) & mask] - 1;
+				if (candidate >= 0 && matches(base, candidate, target, position))
+				{
+					int baseStart = candidate;
+					int targetStart = position;
+					while (baseStart > 0 && targetStart > literalStart &&
+						base[baseStart - 1] == target[targetStart - 1])
+					{
+						baseStart--;
+						targetStart--;
+					}
+
+					int baseEnd = candidate + BLOCK_SIZE;
+					int targetEnd = position + BLOCK_SIZE;
+					while (baseEnd < base.length && targetEnd < target.length &&
+						base[baseEnd] == target[targetEnd])
+					{
+						baseEnd++;
+						targetEnd++;
+					}
+
+					output.writeLiteral(target, literalStart, targetStart);
+					output.writeCopy(baseStart, targetEnd - targetStart);
+
+					position = targetEnd;
+					literalStart = targetEnd;
+					if (position + BLOCK_SIZE > target.length)
+					{
+						break;
+					}
+					hash = hash(target, position);
+				}
+				else
+				{
+					if (position + BLOCK_SIZE >= target.length)
+					{
+						break;
+					}
+					hash = (hash - target[position] * PRIME_POWER) * PRIME +
+						target[position + BLOCK_SIZE];
+					position++;
+				}
+			}
+		}
+		output.writeLiteral(target, literalStart, target.length);
+
+		return output.toByteArray();
+	}
+
+	/**
+	 * Apply a delta.
+	 *
+	 * @param base
+	 *            the base the delta was created against
+	 * @param delta
+	 *            the delta
+	 * @return the target
+	 * @throws IllegalArgumentException
+	 *             if the delta is malformed or does not fit the base
+	 */
+	public static byte[] apply(byte[] base, byte[] delta)
+	{
+		Input input = new Input(delta);
+
+		byte[] target = new byte[input.readInt()];
+		int position = 0;
+		while (input.hasMore())
+		{
+			int op = input.readInt();
+			if (op == COPY)
+			{
+				int offset = input.readInt();
+				int length = input.readInt();
+				if (offset > base.length - length || position > target.length - length)
+				{
+					throw new IllegalArgumentException("copy exceeds bounds");
+				}
+				System.arraycopy(base, offset, target, position, length);
+				position += length;
+			}
+			else if (op == LITERAL)
+			{
+				int length = input.readInt();
+				if (position > target.length - length)
+				{
+					throw new IllegalArgumentException("literal exceeds bounds");
+				}
+				input.read(target, position, length);
+				position += length;
+			}
+			else
+			{
+				throw new IllegalArgumentException("unknown op " + op);
+			}
+		}
+		if (position != target.length)
+		{
+			throw new IllegalArgumentException("incomplete delta");
+		}
+
+		return target;
+	}
+
+	/**
+	 * Index all blocks of the base by their hash.
+	 *
+	 * @return table of block offsets plus one, indexed by mixed hash
+	 */
+	private static int[] index(byte[] base)
+	{
+		int blocks = base.length / BLOCK_SIZE;
+
+		int size = Integer.highestOneBit(Math.max(blocks, 1) * 2 - 1) << 1;
+		int[] table = new int[size];
+		int mask = size - 1;
+
+		// iterate backwards so earlier blocks win on equal hashes
+		for (int block = blocks - 1; block >= 0; block--)
+		{
+			int offset = block * BLOCK_SIZE;
+			table[mix(hash(base, offset)) & mask] = offset + 1;
+		}
+
+		return table;
+	}
+
+	private static int hash(byte[] data, int offset)
+	{
+		int hash = 0;
+		for (int i = 0; i < BLOCK_SIZE; i++)
+		{
+			hash = hash * PRIME + data[offset + i];
+		}
+		return hash;
+	}
+
+	private static int mix(int hash)
+	{
+		hash *= 0x9E3779B1;
+		return hash ^ (hash >>> 16);
+	}
+
+	private static boolean matches(byte[] base, int baseOffset, byte[] target, int targetOffset)
+	{
+		return Arrays.equals(base, baseOffset, baseOffset + BLOCK_SIZE, target, targetOffset,
+			targetOffset + BLOCK_SIZE);
+	}
+
+	private static class Output
+	{
+		private byte[] bytes;
+
+		private int count;
+
+		Output(int capacity)
+		{
+			bytes = new byte[capacity];
+		}
+
+		void writeCopy(int offset, int length)
+		{
+			writeInt(COPY);
+			writeInt(offset);
+			writeInt(length);
+		}
+
+		void writeLiteral(byte[] data, int from, int to)
+		{
+			if (from < to)
+			{
+				writeInt(LITERAL);
+				writeInt(to - from);
+				ensure(to - from);
+				System.arraycopy(data, from, bytes, count, to - from);
+				count += to - from;
+			}
+		}
+
+		void writeInt(int value)
+		{
+			ensure(5);
+			while ((value & ~0x7F) != 0)
+			{
+				bytes[count++] = (byte)((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[count++] = (byte)value;
+		}
+
+		private void ensure(int length)
+		{
+			if (count + length > bytes.length)
+			{
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + length));
+			}
+		}
+
+		byte[] toByteArray()
+		{
+			return Arrays.copyOf(bytes, count);
+		}
+	}
+
+	private static class Input
+	{
+		private final byte[] bytes;
+
+		private int position;
+
+		Input(byte[] bytes)
+		{
+			this.bytes = bytes;
+		}
+
+		boolean hasMore()
+		{
+			return position < bytes.length;
+		}
+
+		int readInt()
+		{
+			int value = 0;
+			for (int shift = 0; shift < 32; shift += 7)
+			{
+				if (position >= bytes.length)
+				{
+					throw new IllegalArgumentException("truncated delta");
+				}
+				byte b = bytes[position++];
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+				{
+					if (value < 0)
+					{
+						throw new IllegalArgumentException("negative value");
+					}
+					return value;
+				}
+			}
+			throw new IllegalArgumentException("malformed value");
+		}
+
+		void read(byte[] target, int offset, int length)
+		{
+			if (position > bytes.length - length)
+			{
+				throw new IllegalArgumentException("truncated delta");
+			}
+			System.arraycopy(bytes, position, target, offset, length);
+			position += length;
+		}
+	}
+}
@@ -0,0 +1,417 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.page.IManageablePage;
+import org.apache.wicket.util.collections.MostRecentlyUsedMap;
+import org.apache.wicket.util.lang.Args;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A store that keeps full snapshots of pages only periodically and stores binary deltas against
+ * the latest snapshot otherwise.
+ * <p>
+ * Each Ajax request on a stateful page stores a new serialized copy of the page, although often
+ * only a few bytes have changed. This store keeps a snapshot of a serialized page for each session
+ * and delegates a delta against this snapshot for all following pages of the session. A new
+ * snapshot is taken after a configurable count of deltas or when a delta turns out too large, e.g.
+ * when the user navigated to a different page.
+ * <p>
+ * All pages passing through this store are restricted to be {@link SerializedPage}s. You can
+ * achieve this with
+ * <ul>
+ * <li>a {@link SerializingPageStore} delegating to this store and</li>
+ * <li>delegating to a store that does not deserialize its pages, e.g. a {@link DiskPageStore}.</li>
+ * </ul>
+ * Snapshots are delegated as additional pages with negative ids. Note that a page can no longer be
+ * restored when the delegate has evicted the snapshot it is based on (e.g. when its maximum size
+ * per session is exceeded), thus the delegate's limits should take these additional snapshots into
+ * account.
+ * <p>
+ * The latest snapshots are kept in memory for a bounded count of sessions, to save the delegate
+ * the read of the snapshot on each added page.
+ */
+public class DeltaPageStore extends DelegatingPageStore
+{
+	private static final Logger log = LoggerFactory.getLogger(DeltaPageStore.class);
+
+	/**
+	 * Default count of deltas until a new snapshot is taken.
+	 */
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 20;
+
+	/**
+	 * Default count of sessions to keep the latest snapshot in memory for.
+	 */
+	public static final int DEFAULT_CACHED_SNAPSHOTS = 100;
+
+	private static final MetaDataKey<SessionData> KEY = new MetaDataKey<>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Marker of a page stored as delta against a snapshot.
+	 */
+	private static final byte DELTA = 1;
+
+	/**
+	 * Length of the header of a delta: marker, snapshot id and checksum of snapshot.
+	 */
+	private static final int DELTA_HEADER = 1 + Integer.BYTES + Long.BYTES;
+
+	private final int snapshotInterval;
+
+	/**
+	 * Latest snapshots by session id, {@code null} if not cached.
+	 */
+	private final Map<String, Snapshot> snapshots;
+
+	private final LongAdder fullBytes = new LongAdder();
+
+	private final LongAdder storedBytes = new LongAdder();
+
+	/**
+	 * Create a store with {@value #DEFAULT_SNAPSHOT_INTERVAL} deltas between snapshots and
+	 * caching snapshots of {@value #DEFAULT_CACHED_SNAPSHOTS} sessions.
+	 *
+	 * @param delegate
+	 *            store to delegate to
+	 */
+	public DeltaPageStore(IPageStore delegate)
+	{
+		this(delegate, DEFAULT_SNAPSHOT_INTERVAL, DEFAULT_CACHED_SNAPSHOTS);
+	}
+
+	/**
+	 * Create a store.
+	 *
+	 * @param delegate
+	 *            store to delegate to
+	 * @param snapshotInterval
+	 *            count of deltas until a new snapshot is taken
+	 * @param cachedSnapshots
+	 *            count of sessions to keep the latest snapshot in memory for, {@code 0} to read
+	 *            snapshots from the delegate always
+	 */
+	public DeltaPageStore(IPageStore delegate, int snapshotInterval, int cachedSnapshots)
+	{
+		super(delegate);
+
+		this.snapshotInterval = Args.withinRange(1, Integer.MAX_VALUE, snapshotInterval,
+			"snapshotInterval");
+		Args.withinRange(0, Integer.MAX_VALUE, cachedSnapshots, "cachedSnapshots");
+
+		if (cachedSnapshots == 0)
+		{
+			snapshots = null;
+		}
+		else
+		{
+			snapshots = Collections.synchronizedMap(new MostRecentlyUsedMap<>(cachedSnapshots));
+		}
+	}
+
+	/**
+	 * Pages are always serialized, so versioning is supported.
+	 */
+	@Override
+	public boolean supportsVersioning()
+	{
+		return true;
+	}
+
+	/**
+	 * Supports asynchronous add if the delegate supports it.
+	 */
+	@Override
+	public boolean canBeAsynchronous(IPageContext context)
+	{
+		// session data must be added here *before* any asynchronous calls
+		// when session is no longer available
+		getSessionData(context);
+
+		return getDelegate().canBeAsynchronous(context);
+	}
+
+	private SessionData getSessionData(IPageContext context)
+	{
+		return context.getSessionData(KEY, SessionData::new);
+	}
+
+	/**
+	 * Get the total size of all pages added to this store.
+	 *
+	 * @return size in bytes
+	 */
+	public long getFullBytes()
+	{
+		return fullBytes.sum();
+	}
+
+	/**
+	 * Get the total size of all pages and snapshots delegated by this store.
+	 *
+	 * @return size in bytes
+	 */
+	public long getStoredBytes()
+	{
+		return storedBytes.sum();
+	}
+
+	@Override
+	public IManageablePage getPage(IPageContext context, int id)
+	{
+		IManageablePage page = getDelegate().getPage(context, id);
+
+		if (page != null)
+		{
+			if (page instanceof SerializedPage == false)
+			{
+				throw new WicketRuntimeException("DeltaPageStore expects serialized pages");
+			}
+			SerializedPage serializedPage = (SerializedPage)page;
+
+			byte[] data = restore(context, serializedPage.getData());
+			if (data == null)
+			{
+				return null;
+			}
+
+			page = new SerializedPage(page.getPageId(), serializedPage.getPageType(), data);
+		}
+
+		return page;
+	}
+
+	@Override
+	public void addPage(IPageContext context, IManageablePage page)
+	{
+		if (page instanceof SerializedPage == false)
+		{
+			throw new WicketRuntimeException("DeltaPageStore works with serialized pages only");
+		}
+		SerializedPage serializedPage = (SerializedPage)page;
+
+		byte[] data = serializedPage.getData();
+		fullBytes.add(data.length);
+
+		SessionData sessionData = getSessionData(context);
+		byte[] stored;
+		synchronized (sessionData)
+		{
+			stored = null;
+
+			if (sessionData.deltas < snapshotInterval)
+			{
+				Snapshot snapshot = getSnapshot(context, sessionData.snapshotId);
+				if (snapshot != null)
+				{
+					stored = delta(snapshot, data);
+					if (stored.length > data.length / 2)
+					{
+						// not worth it, e.g. a different page
+						stored = null;
+					}
+				}
+			}
+
+			if (stored == null)
+			{
+				Snapshot snapshot = new Snapshot(sessionData.nextSnapshotId(), data);
+				getDelegate().addPage(context, new SerializedPage(snapshot.id,
+					serializedPage.getPageType(), data));
+				storedBytes.add(data.length);
+
+				if (snapshots != null)
+				{
+					snapshots.put(context.getSessionId(true), snapshot);
+				}
+
+				stored = delta(snapshot, data);
+			}
+			else
+			{
+				sessionData.deltas++;
+			}
+		}
+
+		storedBytes.add(stored.length);
+		getDelegate().addPage(context,
+			new SerializedPage(page.getPageId(), serializedPage.getPageType(), stored));
+	}
+
+	@Override
+	public void removeAllPages(IPageContext context)
+	{
+		String sessionId = context.getSessionId(false);
+		if (sessionId != null && snapshots != null)
+		{
+			snapshots.remove(sessionId);
+		}
+
+		getDelegate().removeAllPages(context);
+	}
+
+	/**
+	 * Restore the data of a page.
+	 *
+	 * @return data or {@code null} if not restorable
+	 */
+	private byte[] restore(IPageContext context, byte[] stored)
+	{
+		if (stored.length >= DELTA_HEADER && stored[0] == DELTA)
+		{
+			ByteBuffer header = ByteBuffer.wrap(stored, 1, DELTA_HEADER - 1);
+			int snapshotId = header.getInt();
+			long checksum = header.getLong();
+
+			Snapshot snapshot = getSnapshot(context, snapshotId);
+			if (snapshot == null)
+			{
+				log.debug("snapshot {} no longer available", snapshotId);
+				return null;
+			}
+			if (snapshot.checksum != checksum)
+			{
+				log.debug("snapshot {} does not match", snapshotId);
+				return null;
+			}
+
+			byte[] delta = new byte[stored.length - DELTA_HEADER];
+			System.arraycopy(stored, DELTA_HEADER, delta, 0, delta.length);
+			try
+			{
+				return BinaryDelta.apply(snapshot.data, delta);
+			}
+			catch (IllegalArgumentException ex)
+			{
+				log.debug("cannot apply delta", ex);
+				return null;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Create a delta.
+	 */
+	private byte[] delta(Snapshot snapshot, byte[] data)
+	{
+		byte[] delta = BinaryDelta.create(snapshot.data, data);
+
+		ByteBuffer buffer = ByteBuffer.allocate(DELTA_HEADER + delta.length);
+		buffer.put(DELTA);
+		buffer.putInt(snapshot.id);
+		buffer.putLong(snapshot.checksum);
+		buffer.put(delta);
+
+		return buffer.array();
+	}
+
+	/**
+	 * Get a snapshot, from memory if possible, from the delegate otherwise.
+	 *
+	 * @return snapshot or {@code null}
+	 */
+	private Snapshot getSnapshot(IPageContext context, int snapshotId)
+	{
+		if (snapshotId == 0)
+		{
+			return null;
+		}
+
+		String sessionId = context.getSessionId(false);
+		if (sessionId != null && snapshots != null)
+		{
+			Snapshot snapshot = snapshots.get(sessionId);
+			if (snapshot != null && snapshot.id == snapshotId)
+			{
+				return snapshot;
+			}
+		}
+
+		IManageablePage page = getDelegate().getPage(context, snapshotId);
+		if (page instanceof SerializedPage)
+		{
+			return new Snapshot(snapshotId, ((SerializedPage)page).getData());
+		}
+		return null;
+	}
+
+	/**
+	 * A snapshot of a page's data.
+	 */
+	private static class Snapshot
+	{
+		private final int id;
+
+		private final byte[] data;
+
+		private final long checksum;
+
+		Snapshot(int id, byte[] data)
+		{
+			this.id = id;
+			this.data = data;
+
+			CRC32 crc = new CRC32();
+			crc.update(data);
+			this.checksum = crc.getValue();
+		}
+	}
+
+	/**
+	 * Data of a session.
+	 */
+	private static class SessionData implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Id of latest snapshot, {@code 0} if none.
+		 */
+		private int snapshotId;
+
+		/**
+		 * Count of deltas since the latest snapshot.
+		 */
+		private int deltas;
+
+		/**
+		 * Snapshots are stored with negative ids, so they do not collide with any page.
+		 */
+		int nextSnapshotId()
+		{
+			snapshotId = snapshotId == Integer.MIN_VALUE ? -1 : snapshotId - 1;
+			deltas = 0;
+
+			return snapshotId;
+		}
+	}
+}
@@ -52,6 +52,8 @@ public class InSessionPageStore implements IPageStore
 
 	private final Supplier<SessionData> dataCreator;
 
+	private String attributeName;
+
 	/**
 	 * Keep {@code maxPages} persistent in each session.
 	 * <p>
@@ -103,6 +105,35 @@ public class InSessionPageStore implements IPageStore
 		this.dataCreator = dataCreator;
 	}
 
+	/**
+	 * Keep the pages in a separate attribute of the session instead of the {@link Session}'s
+	 * metadata. Adding a page then writes this attribute only and does not mark the
+	 * {@link Session} dirty, so with
+	 * {@link org.apache.wicket.session.HttpSessionStore#setChangeTracking(boolean) change tracking}
+	 * a replicating container ships the pages without the rest of the session.
+	 * 
+	 * @param attributeName
+	 *            name of the session attribute, {@code null} to keep the pages in the metadata of
+	 *            the {@link Session}
+	 * @return this
+	 * @see #getKey()
+	 */
+	public InSessionPageStore setAttributeName(String attributeName)
+	{
+		this.attributeName = attributeName;
+		return this;
+	}
+
+	/**
+	 * @return name of the session attribute keeping the pages, {@code null} if they are kept in
+	 *         the metadata of the {@link Session}
+	 * @see #setAttributeName(String)
+	 */
+	public String getAttributeName()
+	{
+		return attributeName;
+	}
+
 	@Override
 	public IManageablePage getPage(IPageContext context, int id)
 	{
@@ -149,9 +180,19 @@ public class InSessionPageStore implements IPageStore
 
 	private SessionData getSessionData(IPageContext context, boolean create)
 	{
-		SessionData data = context.getSessionData(getKey(), create ? () -> {
-			return dataCreator.get();
-		} : null);
+		SessionData data;
+		if (attributeName == null)
+		{
+			data = context.getSessionData(getKey(), create ? () -> {
+				return dataCreator.get();
+			} : null);
+		}
+		else
+		{
+			data = context.getSessionAttribute(attributeName, create ? () -> {
+				return dataCreator.get();
+			} : null);
+		}
 
 		if (data != null && serializer != null)
 		{
@@ -163,7 +204,8 @@ public class InSessionPageStore implements IPageStore
 	}
 
 	/**
-	 * Session data is stored under a {@link MetaDataKey}.
+	 * Session data is stored under a {@link MetaDataKey}, unless it is kept in a
+	 * {@link #setAttributeName(String) separate attribute}.
 	 * <p>
 	 * In the unlikely case that an application utilizes more than one instance of this store,
 	 * this method has to be overridden to provide a separate key for each instance.
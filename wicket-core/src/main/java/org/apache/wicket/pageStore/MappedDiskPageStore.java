@@ -0,0 +1,692 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.page.IManageablePage;
+import org.apache.wicket.pageStore.disk.NestedFolders;
+import org.apache.wicket.pageStore.disk.PageWindowManager;
+import org.apache.wicket.pageStore.disk.PageWindowManager.FileWindow;
+import org.apache.wicket.util.file.Files;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A storage of pages on disk, accessing the files through memory mapping.
+ * <p>
+ * All pages passed into this store are restricted to be {@link SerializedPage}s.
+ * <p>
+ * Implementation note: Like {@link DiskPageStore} this store writes the pages of each session into
+ * a single file managed by a {@link PageWindowManager}, appending new pages while overwriting the
+ * oldest pages. But instead of opening a {@link FileChannel} for each read and write, the file is
+ * mapped into memory once. The channel is closed right after mapping and opened again only to grow
+ * or remap the file. Access to a session's file is guarded by a read/write lock, so
+ * concurrent reads do not have to wait for each other. Reads look up the mapping and the page's
+ * window in the file without any further locking.
+ * <p>
+ * Java offers no way to release a mapping explicitly, a mapped file is unmapped when its buffer is
+ * garbage collected only. Until then the file cannot be deleted on some platforms, e.g. Windows, so
+ * the data file of an unbound session might remain on disk until the JVM exits.
+ * <p>
+ * {@link #getPageData(String, int)} offers zero-copy access to a page's data, e.g. for
+ * deserialization directly from the mapped file.
+ *
+ * @see DiskPageStore
+ */
+public class MappedDiskPageStore extends AbstractPersistentPageStore implements IPersistentPageStore
+{
+	private static final Logger log = LoggerFactory.getLogger(MappedDiskPageStore.class);
+
+	/**
+	 * Name of the file where the page index is stored.
+	 */
+	private static final String INDEX_FILE_NAME = "MappedDiskPageStoreIndex";
+
+	/**
+	 * Minimal size of a mapping.
+	 */
+	private static final int MIN_MAPPED_SIZE = 64 * 1024;
+
+	private final Bytes maxSizePerSession;
+
+	private final NestedFolders folders;
+
+	private final ConcurrentMap<String, MappedData> mappedDatas;
+
+	/**
+	 * Create a store that supports {@link SerializedPage}s only.
+	 *
+	 * @param applicationName
+	 *            name of application
+	 * @param fileStoreFolder
+	 *            folder to store to
+	 * @param maxSizePerSession
+	 *            maximum size per session
+	 *
+	 * @see SerializingPageStore
+	 */
+	public MappedDiskPageStore(String applicationName, File fileStoreFolder, Bytes maxSizePerSession)
+	{
+		super(applicationName);
+
+		this.folders = new NestedFolders(new File(fileStoreFolder, applicationName + "-mappedstore"));
+		this.maxSizePerSession = Args.notNull(maxSizePerSession, "maxSizePerSession");
+
+		this.mappedDatas = new ConcurrentHashMap<>();
+
+		try
+		{
+			if (folders.getBase().exists() || folders.getBase().mkdirs())
+			{
+				loadIndex();
+			}
+			else
+			{
+				log.warn("Cannot create file store folder for some reason.");
+			}
+		}
+		catch (SecurityException e)
+		{
+			throw new WicketRuntimeException(
+				"SecurityException occurred while creating MappedDiskPageStore. Consider using a non-disk based IPageStore implementation. "
+					+ "See org.apache.wicket.Application.setPageManagerProvider(IPageManagerProvider)",
+				e);
+		}
+	}
+
+	/**
+	 * Pages are already serialized.
+	 */
+	@Override
+	public boolean supportsVersioning()
+	{
+		return true;
+	}
+
+	@Override
+	public void destroy()
+	{
+		log.debug("Destroying...");
+		saveIndex();
+
+		for (MappedData mappedData : mappedDatas.values())
+		{
+			mappedData.close();
+		}
+
+		super.destroy();
+		log.debug("Destroyed.");
+	}
+
+	@Override
+	protected IManageablePage getPersistedPage(String sessionIdentifier, int id)
+	{
+		MappedData mappedData = getMappedData(sessionIdentifier, false);
+		if (mappedData != null)
+		{
+			byte[] data = mappedData.loadPage(id);
+			if (data != null)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("Returning page with id '{}' in session with id '{}'", id, sessionIdentifier);
+				}
+
+				return new SerializedPage(id, "unknown", data);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Get the data of a page without copying it from the mapped file.
+	 * <p>
+	 * The returned buffer is read-only and valid until the next page is added for the same session
+	 * only, since the page's window in the file might get reused.
+	 *
+	 * @param sessionIdentifier
+	 *            identifier of session
+	 * @param id
+	 *            page id
+	 * @return data of page or {@code null} if not found
+	 */
+	public ByteBuffer getPageData(String sessionIdentifier, int id)
+	{
+		MappedData mappedData = getMappedData(sessionIdentifier, false);
+		if (mappedData != null)
+		{
+			return mappedData.slicePage(id);
+		}
+
+		return null;
+	}
+
+	@Override
+	protected void removePersistedPage(String sessionIdentifier, IManageablePage page)
+	{
+		MappedData mappedData = getMappedData(sessionIdentifier, false);
+		if (mappedData != null)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Removing page with id '{}' in session with id '{}'", page.getPageId(), sessionIdentifier);
+			}
+
+			mappedData.removeData(page.getPageId());
+		}
+	}
+
+	@Override
+	protected void removeAllPersistedPages(String sessionIdentifier)
+	{
+		MappedData mappedData = mappedDatas.remove(sessionIdentifier);
+		if (mappedData != null)
+		{
+			mappedData.unbind();
+		}
+	}
+
+	@Override
+	protected void addPersistedPage(String sessionIdentifier, IManageablePage page)
+	{
+		if (page instanceof SerializedPage == false)
+		{
+			throw new WicketRuntimeException("MappedDiskPageStore works with serialized pages only");
+		}
+		SerializedPage serializedPage = (SerializedPage) page;
+
+		MappedData mappedData = getMappedData(sessionIdentifier, true);
+
+		log.debug("Storing data for page with id '{}' in session with id '{}'", serializedPage.getPageId(), sessionIdentifier);
+
+		mappedData.savePage(serializedPage.getPageId(), serializedPage.getPageType(), serializedPage.getData());
+	}
+
+	/**
+	 * Get the mapped data for the given session identifier.
+	 *
+	 * @param sessionIdentifier
+	 *            identifier of session
+	 * @param create
+	 *            should data be created if not there already
+	 * @return matching data
+	 */
+	protected MappedData getMappedData(String sessionIdentifier, boolean create)
+	{
+		if (!create)
+		{
+			return mappedDatas.get(sessionIdentifier);
+		}
+
+		return mappedDatas.computeIfAbsent(sessionIdentifier, key -> new MappedData(this, key));
+	}
+
+	/**
+	 * Load the index
+	 */
+	@SuppressWarnings("unchecked")
+	private void loadIndex()
+	{
+		File storeFolder = folders.getBase();
+
+		File index = new File(storeFolder, INDEX_FILE_NAME);
+		if (index.exists() && index.length() > 0)
+		{
+			try (InputStream stream = new FileInputStream(index))
+			{
+				ObjectInputStream ois = new ObjectInputStream(stream);
+
+				mappedDatas.clear();
+
+				for (MappedData mappedData : (List<MappedData>)ois.readObject())
+				{
+					mappedData.pageStore = this;
+					mappedDatas.put(mappedData.sessionIdentifier, mappedData);
+				}
+			}
+			catch (Exception e)
+			{
+				log.error("Couldn't load MappedDiskPageStore index from file " + index + ".", e);
+			}
+		}
+		Files.remove(index);
+	}
+
+	private void saveIndex()
+	{
+		File storeFolder = folders.getBase();
+		if (storeFolder.exists())
+		{
+			File index = new File(storeFolder, INDEX_FILE_NAME);
+			Files.remove(index);
+			try (OutputStream stream = new FileOutputStream(index))
+			{
+				ObjectOutputStream oos = new ObjectOutputStream(stream);
+
+				ArrayList<MappedData> list = new ArrayList<>(mappedDatas.size());
+				for (MappedData mappedData : mappedDatas.values())
+				{
+					if (mappedData.sessionIdentifier != null)
+					{
+						list.add(mappedData);
+					}
+				}
+				oos.writeObject(list);
+			}
+			catch (Exception e)
+			{
+				log.error("Couldn't write MappedDiskPageStore index to file " + index + ".", e);
+			}
+		}
+	}
+
+	@Override
+	public Set<String> getSessionIdentifiers()
+	{
+		return Collections.unmodifiableSet(mappedDatas.keySet());
+	}
+
+	@Override
+	public List<IPersistedPage> getPersistedPages(String sessionIdentifier)
+	{
+		List<IPersistedPage> pages = new ArrayList<>();
+
+		MappedData mappedData = getMappedData(sessionIdentifier, false);
+		if (mappedData != null)
+		{
+			pages.addAll(mappedData.getManager().getFileWindows());
+		}
+		return pages;
+	}
+
+	@Override
+	public Bytes getTotalSize()
+	{
+		long size = 0;
+
+		for (MappedData mappedData : mappedDatas.values())
+		{
+			size = size + mappedData.size();
+		}
+
+		return Bytes.bytes(size);
+	}
+
+	/**
+	 * Data held in a mapped file.
+	 */
+	protected static class MappedData implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private transient MappedDiskPageStore pageStore;
+
+		private transient ReadWriteLock lock;
+
+		private transient volatile MappedByteBuffer buffer;
+
+		/**
+		 * Snapshot of the windows in the file by page id, replaced on each write so reads do not
+		 * have to synchronize on the manager.
+		 */
+		private transient volatile Map<Integer, FileWindow> windows;
+
+		private volatile String sessionIdentifier;
+
+		private final PageWindowManager manager;
+
+		protected MappedData(MappedDiskPageStore pageStore, String sessionIdentifier)
+		{
+			this.pageStore = pageStore;
+
+			this.sessionIdentifier = sessionIdentifier;
+
+			manager = new PageWindowManager(pageStore.maxSizePerSession.bytes());
+			lock = new ReentrantReadWriteLock();
+			windows = Collections.emptyMap();
+		}
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+		{
+			in.defaultReadObject();
+
+			lock = new ReentrantReadWriteLock();
+			updateWindows();
+		}
+
+		/**
+		 * Take a snapshot of the windows after the manager was modified.
+		 */
+		private void updateWindows()
+		{
+			Map<Integer, FileWindow> windows = new HashMap<>();
+			for (FileWindow window : manager.getFileWindows())
+			{
+				windows.put(window.getPageId(), window);
+			}
+			this.windows = windows;
+		}
+
+		public long size()
+		{
+			return manager.getTotalSize();
+		}
+
+		public PageWindowManager getManager()
+		{
+			return manager;
+		}
+
+		private ReadWriteLock getLock()
+		{
+			return lock;
+		}
+
+		/**
+		 * @return session id
+		 */
+		public String getKey()
+		{
+			return sessionIdentifier;
+		}
+
+		/**
+		 * Saves the serialized page to the mapped file.
+		 *
+		 * @param pageId
+		 * @param pageType
+		 * @param data
+		 */
+		public void savePage(int pageId, String pageType, byte[] data)
+		{
+			// only save page that has some data
+			if (data == null)
+			{
+				return;
+			}
+
+			ReadWriteLock lock = getLock();
+			lock.writeLock().lock();
+			try
+			{
+				if (sessionIdentifier == null)
+				{
+					return;
+				}
+
+				// allocate window for page, possibly replacing the windows of other pages
+				FileWindow window = manager.createPageWindow(pageId, pageType, data.length);
+				updateWindows();
+
+				ByteBuffer buffer = map(window.getFilePartOffset() + window.getFilePartSize(), true);
+				if (buffer != null)
+				{
+					buffer.put(window.getFilePartOffset(), data);
+				}
+				else
+				{
+					log.warn("Cannot save page with id '{}' because the data file cannot be mapped.",
+						pageId);
+				}
+			}
+			finally
+			{
+				lock.writeLock().unlock();
+			}
+		}
+
+		/**
+		 * Removes the page from the file.
+		 *
+		 * @param pageId
+		 */
+		public void removeData(int pageId)
+		{
+			ReadWriteLock lock = getLock();
+			lock.writeLock().lock();
+			try
+			{
+				if (sessionIdentifier == null)
+				{
+					return;
+				}
+
+				manager.removePage(pageId);
+				updateWindows();
+			}
+			finally
+			{
+				lock.writeLock().unlock();
+			}
+		}
+
+		/**
+		 * Loads the specified page data.
+		 *
+		 * @param id
+		 * @return page data or null if the page is no longer in the file
+		 */
+		public byte[] loadPage(int id)
+		{
+			ReadWriteLock lock = getLock();
+			lock.readLock().lock();
+			try
+			{
+				ByteBuffer slice = slicePage(id);
+				if (slice == null)
+				{
+					return null;
+				}
+
+				byte[] data = new byte[slice.remaining()];
+				slice.get(data);
+				return data;
+			}
+			finally
+			{
+				lock.readLock().unlock();
+			}
+		}
+
+		/**
+		 * Get a read-only slice of the mapped file for the specified page.
+		 *
+		 * @param id
+		 * @return page data or null if the page is no longer in the file
+		 */
+		public ByteBuffer slicePage(int id)
+		{
+			ReadWriteLock lock = getLock();
+			lock.readLock().lock();
+			try
+			{
+				if (sessionIdentifier == null)
+				{
+					return null;
+				}
+
+				FileWindow window = windows.get(id);
+				if (window == null)
+				{
+					return null;
+				}
+
+				int end = window.getFilePartOffset() + window.getFilePartSize();
+				ByteBuffer buffer = map(end, false);
+				if (buffer == null || buffer.capacity() < end)
+				{
+					return null;
+				}
+
+				return buffer.slice(window.getFilePartOffset(), window.getFilePartSize())
+					.asReadOnlyBuffer();
+			}
+			finally
+			{
+				lock.readLock().unlock();
+			}
+		}
+
+		/**
+		 * Get the mapping of the file, covering at least the given size if possible.
+		 * <p>
+		 * An existing mapping is returned without locking, readers might race on (re)mapping an
+		 * existing file only.
+		 *
+		 * @param size
+		 *            minimal size of the mapping
+		 * @param create
+		 *            whether the file should be created and extended if needed
+		 * @return buffer or {@code null} if the file cannot be mapped
+		 */
+		private MappedByteBuffer map(int size, boolean create)
+		{
+			MappedByteBuffer current = buffer;
+			if (current != null && current.capacity() >= size)
+			{
+				return current;
+			}
+
+			return remap(size, create);
+		}
+
+		private synchronized MappedByteBuffer remap(int size, boolean create)
+		{
+			if (buffer != null && buffer.capacity() >= size)
+			{
+				return buffer;
+			}
+
+			File file = new File(getFileName());
+			if (create == false && file.exists() == false)
+			{
+				return null;
+			}
+
+			// the mapping stays valid without the channel, so don't keep a file descriptor per session
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE))
+			{
+				long capacity;
+				if (create)
+				{
+					// grow in steps, but don't exceed the maximum size unless needed
+					long max = Math.max(pageStore.maxSizePerSession.bytes(), size);
+					long grown = buffer == null ? MIN_MAPPED_SIZE : buffer.capacity() * 2L;
+					capacity = Math.min(Math.max(grown, size), max);
+				}
+				else
+				{
+					capacity = Math.min(channel.size(), Integer.MAX_VALUE);
+				}
+
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+			}
+			catch (IOException e)
+			{
+				log.error("Error mapping file " + getFileName(), e);
+			}
+
+			return buffer;
+		}
+
+		private String getFileName()
+		{
+			return pageStore.getSessionFileName(sessionIdentifier);
+		}
+
+		/**
+		 * Release the mapping, the file is unmapped as soon as the buffer is garbage collected.
+		 */
+		private void close()
+		{
+			buffer = null;
+		}
+
+		/**
+		 * Deletes all files for this session.
+		 */
+		public void unbind()
+		{
+			ReadWriteLock lock = getLock();
+			lock.writeLock().lock();
+			try
+			{
+				close();
+
+				if (sessionIdentifier != null)
+				{
+					File file = new File(pageStore.folders.get(sessionIdentifier, false), "data");
+
+					pageStore.folders.remove(sessionIdentifier);
+					if (file.exists())
+					{
+						// still mapped, see class comment
+						log.debug("Cannot delete mapped file {}, deleting it on exit", file);
+						file.deleteOnExit();
+					}
+
+					sessionIdentifier = null;
+				}
+			}
+			finally
+			{
+				lock.writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Returns the file name for specified session. If the session folder (folder that contains the
+	 * file) does not exist, the folder will be created.
+	 *
+	 * @param sessionIdentifier
+	 * @return file name for pagemap
+	 */
+	private String getSessionFileName(String sessionIdentifier)
+	{
+		File sessionFolder = folders.get(sessionIdentifier, true);
+		return new File(sessionFolder, "data").getAbsolutePath();
+	}
+}
@@ -0,0 +1,575 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.page.IManageablePage;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A storage of pages in off-heap memory, limited by a single budget for all sessions.
+ * <p>
+ * Contrary to {@link InMemoryPageStore} the pages are not kept on the heap, thus they do not
+ * burden the garbage collector. The memory is allocated lazily in direct {@link ByteBuffer}s
+ * (arenas) and divided into blocks of equal size, each page occupies as many blocks as needed to
+ * hold its data.
+ * <p>
+ * When the budget is exhausted, pages of any session are evicted with an approximation of
+ * <em>least recently used</em>: All pages are visited in the order they were added, a page that
+ * was read since the last visit gets a second chance and is visited again later, otherwise it is
+ * evicted.
+ * <p>
+ * All pages added to this store <em>must</em> be {@code SerializedPage}s. You can achieve this by
+ * letting a {@link SerializingPageStore} delegate to this store.
+ */
+public class OffHeapPageStore extends AbstractPersistentPageStore implements IPersistentPageStore
+{
+	private static final Logger log = LoggerFactory.getLogger(OffHeapPageStore.class);
+
+	/**
+	 * Default size of blocks.
+	 */
+	public static final Bytes DEFAULT_BLOCK_SIZE = Bytes.kilobytes(4);
+
+	/**
+	 * Size of arenas to allocate.
+	 */
+	private static final int ARENA_SIZE = 4 * 1024 * 1024;
+
+	private final ConcurrentMap<String, Map<Integer, Entry>> sessions = new ConcurrentHashMap<>();
+
+	/**
+	 * All entries in order of their addition, for eviction.
+	 */
+	private final Queue<Entry> clock = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Count of removed entries still in the {@link #clock}.
+	 */
+	private final AtomicInteger removedInClock = new AtomicInteger();
+
+	private final AtomicLong size = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	private final Blocks blocks;
+
+	/**
+	 * Keep pages up to {@code maxBytes} for all sessions, with blocks of
+	 * {@link #DEFAULT_BLOCK_SIZE}.
+	 *
+	 * @param applicationName
+	 *            {@link Application#getName()}
+	 * @param maxBytes
+	 *            maximum bytes to keep for all sessions
+	 */
+	public OffHeapPageStore(String applicationName, Bytes maxBytes)
+	{
+		this(applicationName, maxBytes, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Keep pages up to {@code maxBytes} for all sessions.
+	 *
+	 * @param applicationName
+	 *            {@link Application#getName()}
+	 * @param maxBytes
+	 *            maximum bytes to keep for all sessions
+	 * @param blockSize
+	 *            size of blocks the memory is divided in
+	 */
+	public OffHeapPageStore(String applicationName, Bytes maxBytes, Bytes blockSize)
+	{
+		super(applicationName);
+
+		Args.notNull(maxBytes, "maxBytes");
+		Args.notNull(blockSize, "blockSize");
+		Args.withinRange(Bytes.bytes(16), Bytes.bytes(ARENA_SIZE), blockSize, "blockSize");
+		Args.withinRange(blockSize, Bytes.bytes((long)Integer.MAX_VALUE * blockSize.bytes()),
+			maxBytes, "maxBytes");
+
+		blocks = new Blocks((int)blockSize.bytes(), (int)(maxBytes.bytes() / blockSize.bytes()));
+	}
+
+	/**
+	 * Pages are always serialized, so versioning is supported.
+	 */
+	@Override
+	public boolean supportsVersioning()
+	{
+		return true;
+	}
+
+	@Override
+	public void destroy()
+	{
+		sessions.clear();
+		clock.clear();
+		blocks.clear();
+
+		super.destroy();
+	}
+
+	@Override
+	protected IManageablePage getPersistedPage(String sessionIdentifier, int id)
+	{
+		Map<Integer, Entry> entries = sessions.get(sessionIdentifier);
+		if (entries != null)
+		{
+			Entry entry = entries.get(id);
+			if (entry != null)
+			{
+				byte[] data = entry.read();
+				if (data != null)
+				{
+					return new SerializedPage(id, entry.pageType, data);
+				}
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	protected void removePersistedPage(String sessionIdentifier, IManageablePage page)
+	{
+		Map<Integer, Entry> entries = sessions.get(sessionIdentifier);
+		if (entries != null)
+		{
+			Entry entry = entries.remove(page.getPageId());
+			if (entry != null)
+			{
+				remove(entry);
+			}
+		}
+	}
+
+	@Override
+	protected void removeAllPersistedPages(String sessionIdentifier)
+	{
+		Map<Integer, Entry> entries = sessions.remove(sessionIdentifier);
+		if (entries != null)
+		{
+			for (Entry entry : entries.values())
+			{
+				remove(entry);
+			}
+		}
+	}
+
+	@Override
+	protected void addPersistedPage(String sessionIdentifier, IManageablePage page)
+	{
+		if (page instanceof SerializedPage == false)
+		{
+			throw new WicketRuntimeException("OffHeapPageStore works with serialized pages only");
+		}
+		SerializedPage serializedPage = (SerializedPage)page;
+
+		byte[] data = serializedPage.getData();
+
+		// free the previous version first, so its blocks can be reused
+		removePersistedPage(sessionIdentifier, page);
+
+		int[] allocated = allocate(data.length);
+		if (allocated == null)
+		{
+			log.warn("page {} of session {} with {} bytes exceeds the maximum size", page.getPageId(),
+				sessionIdentifier, data.length);
+			return;
+		}
+
+		Entry entry = new Entry(sessionIdentifier, page.getPageId(),
+			serializedPage.getPageType(), allocated, data);
+		size.addAndGet(data.length);
+
+		Entry[] replaced = new Entry[1];
+		sessions.compute(sessionIdentifier, (key, entries) -> {
+			if (entries == null)
+			{
+				entries = new ConcurrentHashMap<>();
+			}
+			replaced[0] = entries.put(entry.pageId, entry);
+			return entries;
+		});
+		clock.offer(entry);
+
+		if (replaced[0] != null)
+		{
+			// added concurrently
+			remove(replaced[0]);
+		}
+	}
+
+	/**
+	 * Allocate blocks, evicting pages as needed.
+	 *
+	 * @return allocated blocks or {@code null} if not possible
+	 */
+	private int[] allocate(int length)
+	{
+		int count = (length + blocks.blockSize - 1) / blocks.blockSize;
+		if (count > blocks.maxBlocks)
+		{
+			return null;
+		}
+
+		while (true)
+		{
+			int[] allocated = blocks.allocate(count);
+			if (allocated != null)
+			{
+				return allocated;
+			}
+
+			if (evict() == false)
+			{
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Evict the least recently used entry.
+	 *
+	 * @return whether an entry was evicted
+	 */
+	private boolean evict()
+	{
+		Entry entry;
+		while ((entry = clock.poll()) != null)
+		{
+			if (entry.isRemoved())
+			{
+				removedInClock.decrementAndGet();
+			}
+			else if (entry.referenced)
+			{
+				// second chance
+				entry.referenced = false;
+				clock.offer(entry);
+			}
+			else
+			{
+				Map<Integer, Entry> entries = sessions.get(entry.sessionIdentifier);
+				if (entries != null)
+				{
+					entries.remove(entry.pageId, entry);
+				}
+				sessions.computeIfPresent(entry.sessionIdentifier,
+					(key, existing) -> existing.isEmpty() ? null : existing);
+
+				if (entry.free())
+				{
+					size.addAndGet(-entry.length);
+					evictions.incrementAndGet();
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Remove an entry which is no longer mapped.
+	 */
+	private void remove(Entry entry)
+	{
+		if (entry.free())
+		{
+			size.addAndGet(-entry.length);
+
+			// removed entries are skipped on eviction, but purge them when they pile up
+			if (removedInClock.incrementAndGet() > blocks.maxBlocks / 2)
+			{
+				removedInClock.set(0);
+				clock.removeIf(Entry::isRemoved);
+			}
+		}
+	}
+
+	/**
+	 * Get the count of evicted pages.
+	 *
+	 * @return count of pages
+	 */
+	public long getEvictionCount()
+	{
+		return evictions.get();
+	}
+
+	/**
+	 * Get the size of memory allocated off the heap.
+	 *
+	 * @return size of allocated memory
+	 */
+	public Bytes getAllocatedSize()
+	{
+		return Bytes.bytes(blocks.getAllocatedSize());
+	}
+
+	@Override
+	public Set<String> getSessionIdentifiers()
+	{
+		return sessions.keySet();
+	}
+
+	@Override
+	public List<IPersistedPage> getPersistedPages(String sessionIdentifier)
+	{
+		List<IPersistedPage> pages = new ArrayList<>();
+
+		Map<Integer, Entry> entries = sessions.get(sessionIdentifier);
+		if (entries != null)
+		{
+			for (Entry entry : entries.values())
+			{
+				pages.add(new PersistedPage(entry.pageId, entry.pageType, entry.length));
+			}
+		}
+
+		return pages;
+	}
+
+	@Override
+	public Bytes getTotalSize()
+	{
+		return Bytes.bytes(size.get());
+	}
+
+	/**
+	 * A page kept in blocks.
+	 */
+	private class Entry
+	{
+		private final String sessionIdentifier;
+
+		private final int pageId;
+
+		private final String pageType;
+
+		private final int length;
+
+		/**
+		 * Blocks, {@code null} when removed.
+		 */
+		private int[] indices;
+
+		/**
+		 * Whether this entry was read since the last visit of the clock.
+		 */
+		private volatile boolean referenced;
+
+		private Entry(String sessionIdentifier, int pageId, String pageType, int[] indices,
+			byte[] data)
+		{
+			this.sessionIdentifier = sessionIdentifier;
+			this.pageId = pageId;
+			this.pageType = pageType;
+			this.length = data.length;
+			this.indices = indices;
+
+			blocks.write(indices, data);
+		}
+
+		private synchronized boolean isRemoved()
+		{
+			return indices == null;
+		}
+
+		/**
+		 * Read the data.
+		 *
+		 * @return data or {@code null} if removed
+		 */
+		private synchronized byte[] read()
+		{
+			if (indices == null)
+			{
+				return null;
+			}
+
+			referenced = true;
+
+			byte[] data = new byte[length];
+			blocks.read(indices, data);
+			return data;
+		}
+
+		/**
+		 * Free the blocks of this entry.
+		 *
+		 * @return {@code false} if already freed
+		 */
+		private synchronized boolean free()
+		{
+			if (indices == null)
+			{
+				return false;
+			}
+
+			blocks.free(indices);
+			indices = null;
+			return true;
+		}
+	}
+
+	/**
+	 * Blocks in arenas.
+	 */
+	private static class Blocks
+	{
+		private final int blockSize;
+
+		private final int maxBlocks;
+
+		private final int blocksPerArena;
+
+		private ByteBuffer[] arenas;
+
+		/**
+		 * Count of blocks ever allocated.
+		 */
+		private int used;
+
+		/**
+		 * Stack of freed blocks.
+		 */
+		private final int[] free;
+
+		private int freeCount;
+
+		private Blocks(int blockSize, int maxBlocks)
+		{
+			this.blockSize = blockSize;
+			this.maxBlocks = maxBlocks;
+
+			blocksPerArena = ARENA_SIZE / blockSize;
+			arenas = new ByteBuffer[(maxBlocks + blocksPerArena - 1) / blocksPerArena];
+
+			free = new int[maxBlocks];
+		}
+
+		/**
+		 * Allocate blocks.
+		 *
+		 * @return indices or {@code null} if not enough blocks are available
+		 */
+		private synchronized int[] allocate(int count)
+		{
+			if (freeCount + (maxBlocks - used) < count)
+			{
+				return null;
+			}
+
+			int[] indices = new int[count];
+			for (int i = 0; i < count; i++)
+			{
+				if (freeCount > 0)
+				{
+					indices[i] = free[--freeCount];
+				}
+				else
+				{
+					int index = used++;
+
+					int arena = index / blocksPerArena;
+					if (arenas[arena] == null)
+					{
+						int blocksInArena = Math.min(blocksPerArena, maxBlocks - arena * blocksPerArena);
+						arenas[arena] = ByteBuffer.allocateDirect(blocksInArena * blockSize);
+					}
+
+					indices[i] = index;
+				}
+			}
+			return indices;
+		}
+
+		private synchronized void free(int[] indices)
+		{
+			for (int index : indices)
+			{
+				free[freeCount++] = index;
+			}
+		}
+
+		private synchronized long getAllocatedSize()
+		{
+			long size = 0;
+			for (ByteBuffer arena : arenas)
+			{
+				if (arena != null)
+				{
+					size += arena.capacity();
+				}
+			}
+			return size;
+		}
+
+		private synchronized void clear()
+		{
+			arenas = new ByteBuffer[arenas.length];
+			used = 0;
+			freeCount = 0;
+		}
+
+		private ByteBuffer arena(int index)
+		{
+			synchronized (this)
+			{
+				return arenas[index / blocksPerArena];
+			}
+		}
+
+		private void write(int[] indices, byte[] data)
+		{
+			for (int i = 0; i < indices.length; i++)
+			{
+				int offset = i * blockSize;
+				arena(indices[i]).put((indices[i] % blocksPerArena) * blockSize, data, offset,
+					Math.min(blockSize, data.length - offset));
+			}
+		}
+
+		private void read(int[] indices, byte[] data)
+		{
+			for (int i = 0; i < indices.length; i++)
+			{
+				int offset = i * blockSize;
+				arena(indices[i]).get((indices[i] % blocksPerArena) * blockSize, data, offset,
+					Math.min(blockSize, data.length - offset));
+			}
+		}
+	}
+}
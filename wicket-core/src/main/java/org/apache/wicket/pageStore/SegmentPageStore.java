@@ -0,0 +1,859 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.page.IManageablePage;
+import org.apache.wicket.util.file.Files;
+import org.apache.wicket.util.io.IOUtils;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A log-structured storage of pages in a few segment files shared by all sessions.
+ * <p>
+ * All pages passed into this store are restricted to be {@link SerializedPage}s.
+ * <p>
+ * While {@link FilePageStore} uses a file per page and {@link DiskPageStore} a file per session,
+ * this implementation appends the pages of all sessions to a single active segment file. When the
+ * active segment reaches its maximum size, a new segment is started. An in-memory index locates
+ * each page by segment, offset and length.
+ * <p>
+ * Pages are expired when a session exceeds its maximum size, but their data is not removed from
+ * the segments immediately. Instead a background thread periodically compacts segments with a
+ * high ratio of expired data, by moving the remaining live pages into the active segment and
+ * deleting the segment afterwards.
+ * <p>
+ * The index is written to disk on {@link #destroy()}, so pages survive a restart of the
+ * application.
+ */
+public class SegmentPageStore extends AbstractPersistentPageStore implements IPersistentPageStore
+{
+	private static final Logger log = LoggerFactory.getLogger(SegmentPageStore.class);
+
+	/**
+	 * Name of the file where the page index is stored.
+	 */
+	private static final String INDEX_FILE_NAME = "SegmentPageStoreIndex";
+
+	private static final String SEGMENT_PREFIX = "segment-";
+
+	private static final String SEGMENT_SUFFIX = ".data";
+
+	/**
+	 * Default maximum size of a segment.
+	 */
+	public static final Bytes DEFAULT_SEGMENT_SIZE = Bytes.megabytes(16);
+
+	/**
+	 * Default interval between compactions.
+	 */
+	public static final Duration DEFAULT_COMPACTION_INTERVAL = Duration.ofMinutes(1);
+
+	/**
+	 * Segments with a lower ratio of live data are compacted.
+	 */
+	private static final double COMPACTION_THRESHOLD = 0.5;
+
+	private final File folder;
+
+	private final Bytes maxSizePerSession;
+
+	private final long segmentSize;
+
+	private final ConcurrentMap<String, SessionPages> sessions = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+
+	/**
+	 * Reads hold the read lock, so segments are not deleted under their feet.
+	 */
+	private final ReadWriteLock segmentsLock = new ReentrantReadWriteLock();
+
+	/**
+	 * Guards {@link #activeSegment} and {@link #nextSegmentId}.
+	 */
+	private final Object appendLock = new Object();
+
+	private Segment activeSegment;
+
+	private int nextSegmentId;
+
+	private final Thread compactionThread;
+
+	/**
+	 * Create a store that supports {@link SerializedPage}s only, with default segment size and
+	 * compaction interval.
+	 *
+	 * @param applicationName
+	 *            name of application
+	 * @param fileStoreFolder
+	 *            folder to store to
+	 * @param maxSizePerSession
+	 *            maximum size per session
+	 *
+	 * @see SerializingPageStore
+	 */
+	public SegmentPageStore(String applicationName, File fileStoreFolder, Bytes maxSizePerSession)
+	{
+		this(applicationName, fileStoreFolder, maxSizePerSession, DEFAULT_SEGMENT_SIZE,
+			DEFAULT_COMPACTION_INTERVAL);
+	}
+
+	/**
+	 * Create a store that supports {@link SerializedPage}s only.
+	 *
+	 * @param applicationName
+	 *            name of application
+	 * @param fileStoreFolder
+	 *            folder to store to
+	 * @param maxSizePerSession
+	 *            maximum size per session
+	 * @param segmentSize
+	 *            maximum size of a segment file
+	 * @param compactionInterval
+	 *            interval between compactions, {@link Duration#ZERO} disables compaction in the
+	 *            background
+	 *
+	 * @see SerializingPageStore
+	 * @see #compact()
+	 */
+	public SegmentPageStore(String applicationName, File fileStoreFolder, Bytes maxSizePerSession,
+		Bytes segmentSize, Duration compactionInterval)
+	{
+		super(applicationName);
+
+		this.folder = new File(fileStoreFolder, applicationName + "-segmentstore");
+		this.maxSizePerSession = Args.notNull(maxSizePerSession, "maxSizePerSession");
+		this.segmentSize = Args.notNull(segmentSize, "segmentSize").bytes();
+		Args.notNull(compactionInterval, "compactionInterval");
+
+		try
+		{
+			if (folder.exists() || folder.mkdirs())
+			{
+				loadIndex();
+			}
+			else
+			{
+				log.warn("Cannot create segment store folder for some reason.");
+			}
+		}
+		catch (SecurityException e)
+		{
+			throw new WicketRuntimeException(
+				"SecurityException occurred while creating SegmentPageStore. Consider using a non-disk based IPageStore implementation. "
+					+ "See org.apache.wicket.Application.setPageManagerProvider(IPageManagerProvider)",
+				e);
+		}
+
+		if (compactionInterval.isZero())
+		{
+			compactionThread = null;
+		}
+		else
+		{
+			compactionThread = new Thread(new CompactionRunnable(compactionInterval.toMillis()),
+				"Wicket-SegmentPageStore-CompactionThread");
+			compactionThread.setDaemon(true);
+			compactionThread.start();
+		}
+	}
+
+	/**
+	 * Pages are already serialized.
+	 */
+	@Override
+	public boolean supportsVersioning()
+	{
+		return true;
+	}
+
+	@Override
+	public void destroy()
+	{
+		log.debug("Destroying...");
+
+		if (compactionThread != null && compactionThread.isAlive())
+		{
+			compactionThread.interrupt();
+			try
+			{
+				compactionThread.join();
+			}
+			catch (InterruptedException e)
+			{
+				log.error(e.getMessage(), e);
+			}
+		}
+
+		saveIndex();
+
+		for (Segment segment : segments.values())
+		{
+			segment.close();
+		}
+
+		super.destroy();
+		log.debug("Destroyed.");
+	}
+
+	@Override
+	protected IManageablePage getPersistedPage(String sessionIdentifier, int id)
+	{
+		SessionPages pages = sessions.get(sessionIdentifier);
+		if (pages == null)
+		{
+			return null;
+		}
+
+		segmentsLock.readLock().lock();
+		try
+		{
+			Location location = pages.get(id);
+			if (location == null)
+			{
+				return null;
+			}
+
+			Segment segment = segments.get(location.segmentId);
+			if (segment == null)
+			{
+				return null;
+			}
+
+			byte[] data = segment.read(location);
+
+			if (log.isDebugEnabled())
+			{
+				log.debug("Returning page with id '{}' in session with id '{}'", id, sessionIdentifier);
+			}
+
+			return new SerializedPage(id, "unknown", data);
+		}
+		catch (IOException ex)
+		{
+			log.warn("cannot read page data for session {} page {}", sessionIdentifier, id, ex);
+			return null;
+		}
+		finally
+		{
+			segmentsLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected void removePersistedPage(String sessionIdentifier, IManageablePage page)
+	{
+		SessionPages pages = sessions.get(sessionIdentifier);
+		if (pages != null)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Removing page with id '{}' in session with id '{}'", page.getPageId(), sessionIdentifier);
+			}
+
+			release(pages.remove(page.getPageId()));
+		}
+	}
+
+	@Override
+	protected void removeAllPersistedPages(String sessionIdentifier)
+	{
+		SessionPages pages = sessions.remove(sessionIdentifier);
+		if (pages != null)
+		{
+			for (Location location : pages.clear())
+			{
+				release(location);
+			}
+		}
+	}
+
+	@Override
+	protected void addPersistedPage(String sessionIdentifier, IManageablePage page)
+	{
+		if (page instanceof SerializedPage == false)
+		{
+			throw new WicketRuntimeException("SegmentPageStore works with serialized pages only");
+		}
+		SerializedPage serializedPage = (SerializedPage)page;
+
+		log.debug("Storing data for page with id '{}' in session with id '{}'", serializedPage.getPageId(), sessionIdentifier);
+
+		Location location;
+		try
+		{
+			location = append(serializedPage.getPageType(), serializedPage.getData());
+		}
+		catch (IOException ex)
+		{
+			log.warn("cannot store page data for session {} page {}", sessionIdentifier,
+				serializedPage.getPageId(), ex);
+			return;
+		}
+
+		SessionPages pages = sessions.computeIfAbsent(sessionIdentifier, key -> new SessionPages());
+		for (Location released : pages.add(serializedPage.getPageId(), location,
+			maxSizePerSession.bytes()))
+		{
+			release(released);
+		}
+	}
+
+	/**
+	 * Append data to the active segment.
+	 *
+	 * @param pageType
+	 *            type of page
+	 * @param data
+	 *            data to append
+	 * @return location of data
+	 * @throws IOException
+	 */
+	private Location append(String pageType, byte[] data) throws IOException
+	{
+		synchronized (appendLock)
+		{
+			if (activeSegment == null ||
+				(activeSegment.size > 0 && activeSegment.size + data.length > segmentSize))
+			{
+				activeSegment = new Segment(nextSegmentId++);
+				segments.put(activeSegment.id, activeSegment);
+			}
+
+			long offset = activeSegment.append(data);
+
+			return new Location(activeSegment.id, offset, data.length, pageType);
+		}
+	}
+
+	/**
+	 * Release the data at the given location.
+	 *
+	 * @param location
+	 *            may be {@code null}
+	 */
+	private void release(Location location)
+	{
+		if (location != null)
+		{
+			Segment segment = segments.get(location.segmentId);
+			if (segment != null)
+			{
+				segment.live.addAndGet(-location.length);
+			}
+		}
+	}
+
+	/**
+	 * Compact all segments with a high ratio of expired data, by moving the remaining live pages
+	 * into the active segment and deleting the compacted segments.
+	 * <p>
+	 * Called periodically in the background, unless disabled by a zero compaction interval.
+	 */
+	public synchronized void compact()
+	{
+		int activeId;
+		synchronized (appendLock)
+		{
+			activeId = activeSegment == null ? -1 : activeSegment.id;
+		}
+
+		for (Segment segment : segments.values())
+		{
+			if (segment.id == activeId || segment.live.get() > segment.size * COMPACTION_THRESHOLD)
+			{
+				continue;
+			}
+
+			log.debug("Compacting segment {} with {} of {} bytes live", segment.id, segment.live.get(), segment.size);
+
+			for (SessionPages pages : sessions.values())
+			{
+				for (Map.Entry<Integer, Location> entry : pages.locations(segment.id).entrySet())
+				{
+					Location location = entry.getValue();
+					try
+					{
+						Location moved = append(location.pageType, segment.read(location));
+						if (pages.replace(entry.getKey(), location, moved))
+						{
+							release(location);
+						}
+						else
+						{
+							release(moved);
+						}
+					}
+					catch (IOException ex)
+					{
+						log.warn("cannot move page data of segment {}", segment.id, ex);
+					}
+				}
+			}
+
+			segmentsLock.writeLock().lock();
+			try
+			{
+				segments.remove(segment.id);
+				segment.close();
+				if (segment.file.delete() == false)
+				{
+					log.warn("cannot delete segment {}", segment.file);
+				}
+			}
+			finally
+			{
+				segmentsLock.writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Load the index.
+	 */
+	@SuppressWarnings("unchecked")
+	private void loadIndex()
+	{
+		File index = new File(folder, INDEX_FILE_NAME);
+		if (index.exists() && index.length() > 0)
+		{
+			try (InputStream stream = new FileInputStream(index))
+			{
+				ObjectInputStream ois = new ObjectInputStream(stream);
+
+				sessions.putAll((Map<String, SessionPages>)ois.readObject());
+			}
+			catch (Exception e)
+			{
+				log.error("Couldn't load SegmentPageStore index from file " + index + ".", e);
+				sessions.clear();
+			}
+		}
+		Files.remove(index);
+
+		Map<Integer, Long> live = new HashMap<>();
+		for (SessionPages pages : sessions.values())
+		{
+			for (Location location : pages.locations())
+			{
+				live.merge(location.segmentId, (long)location.length, Long::sum);
+			}
+		}
+
+		File[] files = Files.list(folder);
+		for (File file : files)
+		{
+			String name = file.getName();
+			if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+			{
+				int id;
+				try
+				{
+					id = Integer.parseInt(
+						name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+				}
+				catch (NumberFormatException ex)
+				{
+					log.debug("unexpected file {}", file.getAbsolutePath());
+					continue;
+				}
+
+				Long liveSize = live.get(id);
+				if (liveSize == null)
+				{
+					Files.remove(file);
+				}
+				else
+				{
+					try
+					{
+						Segment segment = new Segment(id);
+						segment.live.set(liveSize);
+						segments.put(id, segment);
+					}
+					catch (IOException ex)
+					{
+						log.error("Couldn't open segment " + file + ".", ex);
+					}
+					nextSegmentId = Math.max(nextSegmentId, id + 1);
+				}
+			}
+		}
+
+		// drop pages whose segment is lost
+		for (SessionPages pages : sessions.values())
+		{
+			pages.retain(segments.keySet());
+		}
+	}
+
+	private void saveIndex()
+	{
+		if (folder.exists())
+		{
+			File index = new File(folder, INDEX_FILE_NAME);
+			Files.remove(index);
+			try (OutputStream stream = new FileOutputStream(index))
+			{
+				ObjectOutputStream oos = new ObjectOutputStream(stream);
+
+				oos.writeObject(new HashMap<>(sessions));
+			}
+			catch (Exception e)
+			{
+				log.error("Couldn't write SegmentPageStore index to file " + index + ".", e);
+			}
+		}
+	}
+
+	@Override
+	public Set<String> getSessionIdentifiers()
+	{
+		return Collections.unmodifiableSet(sessions.keySet());
+	}
+
+	@Override
+	public List<IPersistedPage> getPersistedPages(String sessionIdentifier)
+	{
+		List<IPersistedPage> persistedPages = new ArrayList<>();
+
+		SessionPages pages = sessions.get(sessionIdentifier);
+		if (pages != null)
+		{
+			for (Map.Entry<Integer, Location> entry : pages.entries())
+			{
+				Location location = entry.getValue();
+				persistedPages.add(new PersistedPage(entry.getKey(), location.pageType, location.length));
+			}
+		}
+
+		return persistedPages;
+	}
+
+	@Override
+	public Bytes getTotalSize()
+	{
+		long total = 0;
+
+		for (SessionPages pages : sessions.values())
+		{
+			total += pages.size();
+		}
+
+		return Bytes.bytes(total);
+	}
+
+	/**
+	 * Get the total size of all segment files, including expired data not yet compacted.
+	 *
+	 * @return size of segments
+	 */
+	public Bytes getSegmentsSize()
+	{
+		long total = 0;
+
+		for (Segment segment : segments.values())
+		{
+			total += segment.size;
+		}
+
+		return Bytes.bytes(total);
+	}
+
+	/**
+	 * The location of a page's data.
+	 */
+	private static class Location implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int segmentId;
+
+		private final long offset;
+
+		private final int length;
+
+		private final String pageType;
+
+		private Location(int segmentId, long offset, int length, String pageType)
+		{
+			this.segmentId = segmentId;
+			this.offset = offset;
+			this.length = length;
+			this.pageType = pageType;
+		}
+	}
+
+	/**
+	 * The pages of a single session, ordered from oldest to newest.
+	 */
+	private static class SessionPages implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final LinkedHashMap<Integer, Location> locations = new LinkedHashMap<>();
+
+		private long size;
+
+		public synchronized Location get(int pageId)
+		{
+			return locations.get(pageId);
+		}
+
+		/**
+		 * Add a page, expiring the oldest pages if the maximum size is exceeded.
+		 *
+		 * @return the locations which are no longer used
+		 */
+		public synchronized List<Location> add(int pageId, Location location, long maxSize)
+		{
+			List<Location> released = new ArrayList<>();
+
+			Location previous = locations.remove(pageId);
+			if (previous != null)
+			{
+				size -= previous.length;
+				released.add(previous);
+			}
+
+			locations.put(pageId, location);
+			size += location.length;
+
+			Iterator<Location> iterator = locations.values().iterator();
+			while (size > maxSize && locations.size() > 1)
+			{
+				Location oldest = iterator.next();
+				iterator.remove();
+				size -= oldest.length;
+				released.add(oldest);
+			}
+
+			return released;
+		}
+
+		public synchronized Location remove(int pageId)
+		{
+			Location location = locations.remove(pageId);
+			if (location != null)
+			{
+				size -= location.length;
+			}
+			return location;
+		}
+
+		/**
+		 * Replace the location of a page, keeping its position.
+		 *
+		 * @return whether the page was still at the old location
+		 */
+		public synchronized boolean replace(int pageId, Location oldLocation, Location newLocation)
+		{
+			return locations.replace(pageId, oldLocation, newLocation);
+		}
+
+		public synchronized List<Location> clear()
+		{
+			List<Location> cleared = new ArrayList<>(locations.values());
+			locations.clear();
+			size = 0;
+			return cleared;
+		}
+
+		public synchronized void retain(Set<Integer> segmentIds)
+		{
+			Iterator<Location> iterator = locations.values().iterator();
+			while (iterator.hasNext())
+			{
+				Location location = iterator.next();
+				if (segmentIds.contains(location.segmentId) == false)
+				{
+					iterator.remove();
+					size -= location.length;
+				}
+			}
+		}
+
+		public synchronized long size()
+		{
+			return size;
+		}
+
+		public synchronized List<Location> locations()
+		{
+			return new ArrayList<>(locations.values());
+		}
+
+		public synchronized Map<Integer, Location> locations(int segmentId)
+		{
+			Map<Integer, Location> result = new HashMap<>();
+			for (Map.Entry<Integer, Location> entry : locations.entrySet())
+			{
+				if (entry.getValue().segmentId == segmentId)
+				{
+					result.put(entry.getKey(), entry.getValue());
+				}
+			}
+			return result;
+		}
+
+		public synchronized List<Map.Entry<Integer, Location>> entries()
+		{
+			return new ArrayList<>(locations.entrySet());
+		}
+	}
+
+	/**
+	 * A segment file.
+	 */
+	private class Segment
+	{
+		private final int id;
+
+		private final File file;
+
+		private final FileChannel channel;
+
+		/**
+		 * Size of all data written into this segment, guarded by {@link #appendLock}.
+		 */
+		private long size;
+
+		/**
+		 * Size of data still referenced by the index.
+		 */
+		private final AtomicLong live = new AtomicLong();
+
+		private Segment(int id) throws IOException
+		{
+			this.id = id;
+			this.file = new File(folder, SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+			this.size = channel.size();
+		}
+
+		/**
+		 * Append data to the end of this segment.
+		 *
+		 * @return offset of the data
+		 */
+		private long append(byte[] data) throws IOException
+		{
+			long offset = size;
+
+			ByteBuffer buffer = ByteBuffer.wrap(data);
+			while (buffer.hasRemaining())
+			{
+				channel.write(buffer, offset + buffer.position());
+			}
+
+			size += data.length;
+			live.addAndGet(data.length);
+
+			return offset;
+		}
+
+		private byte[] read(Location location) throws IOException
+		{
+			ByteBuffer buffer = ByteBuffer.allocate(location.length);
+			while (buffer.hasRemaining())
+			{
+				if (channel.read(buffer, location.offset + buffer.position()) < 0)
+				{
+					throw new IOException("unexpected end of segment " + file);
+				}
+			}
+			return buffer.array();
+		}
+
+		private void close()
+		{
+			IOUtils.closeQuietly(channel);
+		}
+	}
+
+	/**
+	 * Compacts periodically.
+	 */
+	private class CompactionRunnable implements Runnable
+	{
+		private final long interval;
+
+		private CompactionRunnable(long interval)
+		{
+			this.interval = interval;
+		}
+
+		@Override
+		public void run()
+		{
+			while (!Thread.interrupted())
+			{
+				try
+				{
+					Thread.sleep(interval);
+				}
+				catch (InterruptedException e)
+				{
+					log.debug("CompactionRunnable:: Interrupted...");
+					Thread.currentThread().interrupt();
+					break;
+				}
+
+				try
+				{
+					compact();
+				}
+				catch (Exception x)
+				{
+					log.error("An error occurred while compacting", x);
+				}
+			}
+		}
+	}
+}
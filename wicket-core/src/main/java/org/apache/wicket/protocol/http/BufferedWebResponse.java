@@ -231,18 +231,21 @@ public class BufferedWebResponse extends WebResponse implements IMetaDataBufferi
 			charSequenceBuilder = builder;
 			actions.add(ActionType.DATA.action(res ->
 			{
-				AppendingStringBuffer responseBuffer = new AppendingStringBuffer(builder);
-
 				List<IResponseFilter> responseFilters = Application.get()
 						.getRequestCycleSettings()
 						.getResponseFilters();
 
-				if (responseFilters != null)
+				if (responseFilters == null || responseFilters.isEmpty())
 				{
-					for (IResponseFilter filter : responseFilters)
-					{
-						responseBuffer = filter.filter(responseBuffer);
-					}
+					// nothing to filter, spare a copy of the whole page
+					res.write(builder);
+					return;
+				}
+
+				AppendingStringBuffer responseBuffer = new AppendingStringBuffer(builder);
+				for (IResponseFilter filter : responseFilters)
+				{
+					responseBuffer = filter.filter(responseBuffer);
 				}
 				res.write(responseBuffer);
 			}));
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.http;
+
+import java.time.Instant;
+import jakarta.servlet.http.Cookie;
+import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Response for rendering a page that keeps everything in a buffer until it is flushed for the first
+ * time, all content and meta data written afterwards goes directly to the original response.
+ * <p>
+ * The header of a page flushes this response as soon as it is rendered, so the client can start
+ * loading the page's resources while the rest of the page is still rendering. Once flushed the
+ * response can no longer be reset, i.e. an exception or a scheduled request handler can not
+ * replace the page anymore.
+ * 
+ * @see org.apache.wicket.settings.RequestCycleSettings#setStreamingRender(boolean)
+ */
+public class StreamingWebResponse extends WebResponse implements IMetaDataBufferingWebResponse
+{
+	private final WebResponse originalResponse;
+
+	/**
+	 * Buffer until the first flush.
+	 */
+	private final BufferedWebResponse bufferedResponse;
+
+	private boolean buffering = true;
+
+	/**
+	 * Construct.
+	 * 
+	 * @param originalResponse
+	 *            the response to stream to
+	 */
+	public StreamingWebResponse(WebResponse originalResponse)
+	{
+		this.originalResponse = Args.notNull(originalResponse, "originalResponse");
+
+		bufferedResponse = new BufferedWebResponse(originalResponse);
+	}
+
+	/**
+	 * Write the buffered content and meta data to the original response, all further output is
+	 * written directly.
+	 */
+	public void startStreaming()
+	{
+		if (buffering)
+		{
+			bufferedResponse.writeTo(originalResponse);
+			buffering = false;
+		}
+	}
+
+	/**
+	 * @return {@code true} if content was already written to the original response
+	 */
+	public boolean isStreaming()
+	{
+		return buffering == false;
+	}
+
+	private WebResponse getResponse()
+	{
+		if (buffering)
+		{
+			return bufferedResponse;
+		}
+		else
+		{
+			return originalResponse;
+		}
+	}
+
+	@Override
+	public void addCookie(Cookie cookie)
+	{
+		getResponse().addCookie(cookie);
+	}
+
+	@Override
+	public void clearCookie(Cookie cookie)
+	{
+		getResponse().clearCookie(cookie);
+	}
+
+	/**
+	 * Sends everything written so far to the client.
+	 */
+	@Override
+	public void flush()
+	{
+		startStreaming();
+
+		originalResponse.flush();
+	}
+
+	@Override
+	public boolean isRedirect()
+	{
+		return getResponse().isRedirect();
+	}
+
+	@Override
+	public void sendError(int sc, String msg)
+	{
+		getResponse().sendError(sc, msg);
+	}
+
+	@Override
+	public void sendRedirect(String url)
+	{
+		getResponse().sendRedirect(url);
+	}
+
+	@Override
+	public void setContentLength(long length)
+	{
+		getResponse().setContentLength(length);
+	}
+
+	@Override
+	public void setContentType(String mimeType)
+	{
+		getResponse().setContentType(mimeType);
+	}
+
+	@Override
+	public void setDateHeader(String name, Instant date)
+	{
+		Args.notNull(date, "date");
+		getResponse().setDateHeader(name, date);
+	}
+
+	@Override
+	public boolean isHeaderSupported()
+	{
+		return originalResponse.isHeaderSupported();
+	}
+
+	@Override
+	public void setHeader(String name, String value)
+	{
+		getResponse().setHeader(name, value);
+	}
+
+	@Override
+	public void addHeader(String name, String value)
+	{
+		getResponse().addHeader(name, value);
+	}
+
+	@Override
+	public void setStatus(int sc)
+	{
+		getResponse().setStatus(sc);
+	}
+
+	@Override
+	public void disableCaching()
+	{
+		getResponse().disableCaching();
+	}
+
+	@Override
+	public String encodeURL(CharSequence url)
+	{
+		return originalResponse.encodeURL(url);
+	}
+
+	@Override
+	public String encodeRedirectURL(CharSequence url)
+	{
+		return originalResponse.encodeRedirectURL(url);
+	}
+
+	@Override
+	public void write(CharSequence sequence)
+	{
+		getResponse().write(sequence);
+	}
+
+	@Override
+	public void write(byte[] array)
+	{
+		getResponse().write(array);
+	}
+
+	@Override
+	public void write(byte[] array, int offset, int length)
+	{
+		getResponse().write(array, offset, length);
+	}
+
+	@Override
+	public void reset()
+	{
+		if (buffering)
+		{
+			bufferedResponse.reset();
+		}
+		else
+		{
+			throw new IllegalStateException("Response is already streaming!");
+		}
+	}
+
+	@Override
+	public void writeMetaData(WebResponse webResponse)
+	{
+		bufferedResponse.writeMetaData(webResponse);
+	}
+
+	@Override
+	public Object getContainerResponse()
+	{
+		return originalResponse.getContainerResponse();
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.http.servlet;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Receives the content of an uploaded file while the multipart request is parsed, so it does not
+ * have to be buffered in memory or in a temporary file first.
+ *
+ * @see MultipartServletWebRequest#setUploadSink(String, IUploadSink)
+ * @see org.apache.wicket.markup.html.form.upload.FileUploadField#getUploadSink()
+ */
+@FunctionalInterface
+public interface IUploadSink
+{
+	/**
+	 * Receive an uploaded file. Fields without a selected file are skipped. The input has to be
+	 * consumed before returning, it is closed afterwards.
+	 *
+	 * @param fieldName
+	 *            name of the form field
+	 * @param clientFileName
+	 *            file name as sent by the client
+	 * @param contentType
+	 *            content type as sent by the client, may be {@code null}
+	 * @param input
+	 *            content of the file
+	 * @throws IOException
+	 *             if the content can not be read or stored
+	 */
+	void receive(String fieldName, String clientFileName, String contentType, InputStream input)
+		throws IOException;
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.wicket.protocol.http.servlet;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -55,6 +56,11 @@ public abstract class MultipartServletWebRequest extends ServletWebRequest
 	 */
 	private long fileCountMax = -1L;
 
+	/**
+	 * Sinks receiving uploaded files by field name.
+	 */
+	private final Map<String, IUploadSink> uploadSinks = new HashMap<>();
+
 	/**
 	 * Construct.
 	 *
@@ -115,6 +121,18 @@ public abstract class MultipartServletWebRequest extends ServletWebRequest
 			{
 				return MultipartServletWebRequest.this.getPostParameters();
 			}
+
+			@Override
+			public void setUploadSink(String fieldName, IUploadSink sink)
+			{
+				MultipartServletWebRequest.this.setUploadSink(fieldName, sink);
+			}
+
+			@Override
+			public IUploadSink getUploadSink(String fieldName)
+			{
+				return MultipartServletWebRequest.this.getUploadSink(fieldName);
+			}
 		};
 	}
 
@@ -149,6 +167,48 @@ public abstract class MultipartServletWebRequest extends ServletWebRequest
 		this.fileCountMax = fileCountMax;
 	}
 
+	/**
+	 * Set a sink to receive the files uploaded with the given field while the request is parsed.
+	 * These files are streamed into the sink and are not available from {@link #getFile(String)}.
+	 * Has to be called before {@link #parseFileParts()}.
+	 *
+	 * @param fieldName
+	 *            name of the form field
+	 * @param sink
+	 *            sink receiving the files, {@code null} to remove it
+	 */
+	public void setUploadSink(String fieldName, IUploadSink sink)
+	{
+		Args.notNull(fieldName, "fieldName");
+
+		if (sink == null)
+		{
+			uploadSinks.remove(fieldName);
+		}
+		else
+		{
+			uploadSinks.put(fieldName, sink);
+		}
+	}
+
+	/**
+	 * @param fieldName
+	 *            name of the form field
+	 * @return sink receiving the files of the given field, or {@code null}
+	 */
+	public IUploadSink getUploadSink(String fieldName)
+	{
+		return uploadSinks.get(fieldName);
+	}
+
+	/**
+	 * @return whether any sink is set
+	 */
+	protected boolean hasUploadSinks()
+	{
+		return uploadSinks.isEmpty() == false;
+	}
+
 	protected int getDefaultMaximumPartHeaderSize()
 	{
 		return Application.get().getApplicationSettings().getDefaultMaximumPartHeaderSize();
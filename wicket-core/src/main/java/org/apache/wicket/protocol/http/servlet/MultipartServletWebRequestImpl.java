@@ -18,6 +18,7 @@ package org.apache.wicket.protocol.http.servlet;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,19 +32,24 @@ import jakarta.servlet.http.Part;
 import org.apache.commons.fileupload2.core.AbstractFileUpload;
 import org.apache.commons.fileupload2.core.FileItem;
 import org.apache.commons.fileupload2.core.FileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
 import org.apache.commons.fileupload2.core.FileUploadByteCountLimitException;
 import org.apache.commons.fileupload2.core.FileUploadException;
 import org.apache.commons.fileupload2.core.FileUploadFileCountLimitException;
 import org.apache.commons.fileupload2.core.FileUploadSizeException;
 import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.RequestContext;
 import org.apache.commons.fileupload2.jakarta.servlet5.JakartaServletFileUpload;
 import org.apache.commons.fileupload2.jakarta.servlet5.JakartaServletRequestContext;
 import org.apache.wicket.Application;
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.util.file.FileCleanerTrackerAdapter;
+import org.apache.wicket.util.io.IOUtils;
 import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.lang.Bytes;
 import org.apache.wicket.util.string.StringValue;
+import org.apache.wicket.util.string.Strings;
 import org.apache.wicket.util.value.ValueMap;
 
 /**
@@ -74,6 +80,9 @@ public class MultipartServletWebRequestImpl extends MultipartServletWebRequest
 	/** content length cache, used for upload notifications */
 	private int totalBytes;
 
+	/** count of files streamed into {@link IUploadSink}s */
+	private int streamedFiles;
+
 	/**
 	 * Constructor.
 	 *
@@ -177,7 +186,7 @@ public class MultipartServletWebRequestImpl extends MultipartServletWebRequest
 			onUploadStarted(totalBytes);
 			try
 			{
-				items = fileUpload.parseRequest(ctx);
+				items = parseRequest(fileUpload, ctx);
 			}
 			finally
 			{
@@ -188,8 +197,8 @@ public class MultipartServletWebRequestImpl extends MultipartServletWebRequest
 		{
 			// try to parse the file uploads by using Apache Commons FileUpload APIs
 			// because they are feature richer (e.g. progress updates, cleaner)
-			items = fileUpload.parseRequest(new JakartaServletRequestContext(request));
-			if (items.isEmpty())
+			items = parseRequest(fileUpload, new JakartaServletRequestContext(request));
+			if (items.isEmpty() && streamedFiles == 0)
 			{
 				// fallback to Servlet 3.0 APIs
 				items = readServlet3Parts(request);
@@ -224,6 +233,11 @@ public class MultipartServletWebRequestImpl extends MultipartServletWebRequest
 
 				addParameter(item.getFieldName(), value);
 			}
+			else if (getUploadSink(item.getFieldName()) != null)
+			{
+				// parts read with Servlet 3.0 APIs
+				streamToSink(item);
+			}
 			else
 			{
 				List<FileItem> fileItems = files.get(item.getFieldName());
@@ -238,6 +252,131 @@ public class MultipartServletWebRequestImpl extends MultipartServletWebRequest
 		}
 	}
 
+	/**
+	 * Parses the request, streaming files into the {@link IUploadSink}s if any.
+	 *
+	 * @param fileUpload
+	 *            the file upload
+	 * @param ctx
+	 *            context of the request
+	 * @return the items not streamed into a sink
+	 * @throws FileUploadException
+	 */
+	private List<FileItem> parseRequest(AbstractFileUpload fileUpload, RequestContext ctx)
+		throws FileUploadException
+	{
+		if (hasUploadSinks() == false)
+		{
+			return fileUpload.parseRequest(ctx);
+		}
+
+		final long fileCountMax = getFileCountMax();
+
+		List<FileItem> items = new ArrayList<>();
+		try
+		{
+			FileItemInputIterator iterator = fileUpload.getItemIterator(ctx);
+			int count = 0;
+			while (iterator.hasNext())
+			{
+				FileItemInput input = iterator.next();
+
+				// a negative fileCountMax means unlimited, as in AbstractFileUpload
+				count++;
+				if (fileCountMax >= 0 && count > fileCountMax)
+				{
+					throw new FileUploadFileCountLimitException(
+						String.format("Request '%s' failed: Maximum file count %,d exceeded.",
+							AbstractFileUpload.MULTIPART_FORM_DATA, fileCountMax),
+						fileCountMax, count);
+				}
+
+				IUploadSink sink = getUploadSink(input.getFieldName());
+				if (sink != null && input.isFormField() == false)
+				{
+					if (Strings.isEmpty(input.getName()) == false)
+					{
+						try (InputStream in = input.getInputStream())
+						{
+							sink.receive(input.getFieldName(), input.getName(),
+								input.getContentType(), in);
+						}
+						streamedFiles++;
+					}
+					continue;
+				}
+
+				FileItem item = fileItemFactory.fileItemBuilder()
+					.setFieldName(input.getFieldName())
+					.setContentType(input.getContentType())
+					.setFormField(input.isFormField())
+					.setFileName(input.getName())
+					.setFileItemHeaders(input.getHeaders())
+					.get();
+				items.add(item);
+				try (InputStream in = input.getInputStream();
+					OutputStream out = item.getOutputStream())
+				{
+					IOUtils.copy(in, out);
+				}
+			}
+			return items;
+		}
+		catch (FileUploadException e)
+		{
+			deleteItems(items);
+			throw e;
+		}
+		catch (IOException e)
+		{
+			deleteItems(items);
+			throw new FileUploadException("An error occurred while streaming the upload parts", e);
+		}
+	}
+
+	/**
+	 * Streams an already parsed file item into its sink.
+	 *
+	 * @param item
+	 *            the file item
+	 * @throws FileUploadException
+	 */
+	private void streamToSink(FileItem item) throws FileUploadException
+	{
+		try
+		{
+			if (Strings.isEmpty(item.getName()) == false)
+			{
+				try (InputStream in = item.getInputStream())
+				{
+					getUploadSink(item.getFieldName()).receive(item.getFieldName(), item.getName(),
+						item.getContentType(), in);
+				}
+				streamedFiles++;
+			}
+			item.delete();
+		}
+		catch (IOException e)
+		{
+			throw new FileUploadException("An error occurred while streaming the upload parts", e);
+		}
+	}
+
+	private static void deleteItems(List<FileItem> items)
+	{
+		for (FileItem item : items)
+		{
+			try
+			{
+				item.delete();
+			}
+			catch (IOException e)
+			{
+				// ignore, the item is cleaned up by the file cleaner eventually
+			}
+		}
+	}
+
 	/**
 	 * Reads the uploads' parts by using Servlet 3.0 APIs.
 	 *
@@ -458,7 +597,7 @@ public class MultipartServletWebRequestImpl extends MultipartServletWebRequest
 		if (info == null)
 		{
 			throw new IllegalStateException(
-				"could not find UploadInfo object in session which should have been set when uploaded started");
+				"could not find UploadInfo object which should have been set when uploaded started");
 		}
 		info.setBytesUploaded(bytesUploaded);
 
@@ -549,22 +688,38 @@ public class MultipartServletWebRequestImpl extends MultipartServletWebRequest
 	}
 
 	/**
-	 * Retrieves {@link UploadInfo} from session, null if not found.
+	 * @return the registry of the application or {@code null} if uploads are kept in the session
+	 */
+	private static UploadProgressRegistry getUploadProgressRegistry()
+	{
+		return Application.get().getApplicationSettings().getUploadProgressRegistry();
+	}
+
+	/**
+	 * Retrieves {@link UploadInfo} from the {@link UploadProgressRegistry} or the session, null if
+	 * not found.
 	 *
 	 * @param req
 	 *            http servlet request, not null
 	 * @param upload
 	 *            upload identifier
-	 * @return {@link UploadInfo} object from session, or null if not found
+	 * @return {@link UploadInfo} object, or null if not found
+	 * @see org.apache.wicket.settings.ApplicationSettings#getUploadProgressRegistry()
 	 */
 	public static UploadInfo getUploadInfo(final HttpServletRequest req, String upload)
 	{
 		Args.notNull(req, "req");
+
+		UploadProgressRegistry registry = getUploadProgressRegistry();
+		if (registry != null)
+		{
+			return registry.get(req.getSession().getId(), upload);
+		}
 		return (UploadInfo)req.getSession().getAttribute(getSessionKey(upload));
 	}
 
 	/**
-	 * Sets the {@link UploadInfo} object into session.
+	 * Sets the {@link UploadInfo} object into the {@link UploadProgressRegistry} or the session.
 	 *
 	 * @param req
 	 *            http servlet request, not null
@@ -579,11 +734,19 @@ public class MultipartServletWebRequestImpl extends MultipartServletWebRequest
 		Args.notNull(req, "req");
 		Args.notNull(upload, "upload");
 		Args.notNull(uploadInfo, "uploadInfo");
+
+		UploadProgressRegistry registry = getUploadProgressRegistry();
+		if (registry != null)
+		{
+			registry.set(req.getSession().getId(), upload, uploadInfo);
+			return;
+		}
 		req.getSession().setAttribute(getSessionKey(upload), uploadInfo);
 	}
 
 	/**
-	 * Clears the {@link UploadInfo} object from session if one exists.
+	 * Clears the {@link UploadInfo} object from the {@link UploadProgressRegistry} or the session if
+	 * one exists.
 	 *
 	 * @param req
 	 *            http servlet request, not null
@@ -594,6 +757,13 @@ public class MultipartServletWebRequestImpl extends MultipartServletWebRequest
 	{
 		Args.notNull(req, "req");
 		Args.notNull(upload, "upload");
+
+		UploadProgressRegistry registry = getUploadProgressRegistry();
+		if (registry != null)
+		{
+			registry.remove(req.getSession().getId(), upload);
+			return;
+		}
 		req.getSession().removeAttribute(getSessionKey(upload));
 	}
 
@@ -17,6 +17,7 @@
 package org.apache.wicket.protocol.http.servlet;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.time.Instant;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,6 +28,7 @@ import org.apache.wicket.request.UrlRenderer;
 import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.request.http.WebResponse;
 import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.string.AppendingStringBuffer;
 
 /**
  * WebResponse that wraps a {@link ServletWebResponse}.
@@ -35,6 +37,15 @@ import org.apache.wicket.util.lang.Args;
  */
 public class ServletWebResponse extends WebResponse
 {
+	/**
+	 * Size of the chunks in which large non-{@link String} char sequences are written, so they do
+	 * not have to be copied into a {@link String} first.
+	 */
+	private static final int CHUNK_SIZE = 8192;
+
+	/** Reusable chunk per thread */
+	private static final ThreadLocal<char[]> CHUNK = ThreadLocal.withInitial(() -> new char[CHUNK_SIZE]);
+
 	private final HttpServletResponse httpServletResponse;
 	private final ServletWebRequest webRequest;
 
@@ -111,7 +122,15 @@ public class ServletWebResponse extends WebResponse
 	{
 		try
 		{
-			httpServletResponse.getWriter().append(sequence);
+			Writer writer = httpServletResponse.getWriter();
+			if (sequence == null || sequence instanceof String || sequence.length() <= CHUNK_SIZE)
+			{
+				writer.append(sequence);
+			}
+			else
+			{
+				writeChunked(writer, sequence);
+			}
 		}
 		catch (IOException e)
 		{
@@ -119,6 +138,37 @@ public class ServletWebResponse extends WebResponse
 		}
 	}
 
+	/**
+	 * Writes the sequence chunk by chunk, {@link Writer#append(CharSequence)} would convert all of
+	 * it into a {@link String} first.
+	 */
+	private static void writeChunked(final Writer writer, final CharSequence sequence)
+		throws IOException
+	{
+		final char[] chunk = CHUNK.get();
+		final int length = sequence.length();
+		for (int start = 0; start < length; start += chunk.length)
+		{
+			final int end = Math.min(length, start + chunk.length);
+			if (sequence instanceof StringBuilder)
+			{
+				((StringBuilder)sequence).getChars(start, end, chunk, 0);
+			}
+			else if (sequence instanceof AppendingStringBuffer)
+			{
+				((AppendingStringBuffer)sequence).getChars(start, end, chunk, 0);
+			}
+			else
+			{
+				for (int i = start; i < end; i++)
+				{
+					chunk[i - start] = sequence.charAt(i);
+				}
+			}
+			writer.write(chunk, 0, end - start);
+		}
+	}
+
 	@Override
 	public void write(byte[] array)
 	{
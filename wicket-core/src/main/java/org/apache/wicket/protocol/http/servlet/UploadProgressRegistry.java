@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.http.servlet;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Application scoped registry of the {@link UploadInfo}s of running uploads, keyed by session id
+ * and upload identifier. Progress updates do not touch the http session, so they do not trigger
+ * session replication in clustered containers.
+ * <p>
+ * The registry is bounded: entries not updated within the expiry, e.g. of aborted uploads, are
+ * removed, and if there are more entries than allowed the least recently updated one is removed.
+ * <p>
+ * Note that in a cluster without sticky sessions the requests polling the progress have to be
+ * handled by the node receiving the upload.
+ *
+ * @see org.apache.wicket.settings.ApplicationSettings#setUploadProgressRegistry(UploadProgressRegistry)
+ */
+public class UploadProgressRegistry
+{
+	private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	private final int maxEntries;
+
+	private final long expiryNanos;
+
+	/**
+	 * Construct with at most 10000 entries expiring after 10 minutes without an update.
+	 */
+	public UploadProgressRegistry()
+	{
+		this(10000, Duration.ofMinutes(10));
+	}
+
+	/**
+	 * Construct.
+	 *
+	 * @param maxEntries
+	 *            maximum count of uploads to keep track of
+	 * @param expiry
+	 *            duration after the last update an upload is forgotten
+	 */
+	public UploadProgressRegistry(final int maxEntries, final Duration expiry)
+	{
+		this.maxEntries = Args.withinRange(1, Integer.MAX_VALUE, maxEntries, "maxEntries");
+		this.expiryNanos = Args.notNull(expiry, "expiry").toNanos();
+	}
+
+	/**
+	 * Get the information of an upload.
+	 *
+	 * @param sessionId
+	 *            id of the http session
+	 * @param upload
+	 *            upload identifier
+	 * @return information or {@code null} if there is no such upload
+	 */
+	public UploadInfo get(final String sessionId, final String upload)
+	{
+		Key key = new Key(sessionId, upload);
+
+		Entry entry = entries.get(key);
+		if (entry == null)
+		{
+			return null;
+		}
+		if (entry.isExpired(System.nanoTime()))
+		{
+			entries.remove(key, entry);
+			return null;
+		}
+		return entry.info;
+	}
+
+	/**
+	 * Set the information of an upload. Setting the same information again marks it as updated.
+	 *
+	 * @param sessionId
+	 *            id of the http session
+	 * @param upload
+	 *            upload identifier
+	 * @param info
+	 *            information
+	 */
+	public void set(final String sessionId, final String upload, final UploadInfo info)
+	{
+		Args.notNull(info, "info");
+
+		Key key = new Key(sessionId, upload);
+
+		Entry entry = entries.get(key);
+		if (entry != null && entry.info == info)
+		{
+			entry.updated = System.nanoTime();
+			return;
+		}
+
+		entries.put(key, new Entry(info));
+		if (entries.size() > maxEntries)
+		{
+			evict(key);
+		}
+	}
+
+	/**
+	 * Remove the information of an upload.
+	 *
+	 * @param sessionId
+	 *            id of the http session
+	 * @param upload
+	 *            upload identifier
+	 */
+	public void remove(final String sessionId, final String upload)
+	{
+		entries.remove(new Key(sessionId, upload));
+	}
+
+	/**
+	 * @return count of uploads tracked
+	 */
+	public int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * Remove expired entries and, if there are still too many, the least recently updated ones.
+	 *
+	 * @param keep
+	 *            key of the entry just set
+	 */
+	private void evict(final Key keep)
+	{
+		final long now = System.nanoTime();
+
+		Key oldest = null;
+		long oldestUpdated = 0;
+
+		Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+		while (iterator.hasNext())
+		{
+			Map.Entry<Key, Entry> entry = iterator.next();
+			if (entry.getValue().isExpired(now))
+			{
+				iterator.remove();
+			}
+			else if (entry.getKey().equals(keep) == false &&
+				(oldest == null || entry.getValue().updated - oldestUpdated < 0))
+			{
+				oldest = entry.getKey();
+				oldestUpdated = entry.getValue().updated;
+			}
+		}
+
+		if (entries.size() > maxEntries && oldest != null)
+		{
+			entries.remove(oldest);
+		}
+	}
+
+	/**
+	 * A tracked upload.
+	 */
+	private class Entry
+	{
+		private final UploadInfo info;
+
+		private volatile long updated = System.nanoTime();
+
+		private Entry(final UploadInfo info)
+		{
+			this.info = info;
+		}
+
+		private boolean isExpired(final long now)
+		{
+			return now - updated > expiryNanos;
+		}
+	}
+
+	/**
+	 * Key of an upload.
+	 */
+	private static final class Key
+	{
+		private final String sessionId;
+
+		private final String upload;
+
+		private Key(final String sessionId, final String upload)
+		{
+			this.sessionId = Args.notNull(sessionId, "sessionId");
+			this.upload = Args.notNull(upload, "upload");
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (obj instanceof Key == false)
+			{
+				return false;
+			}
+			Key other = (Key)obj;
+			return sessionId.equals(other.sessionId) && upload.equals(other.upload);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(sessionId, upload);
+		}
+	}
+}
@@ -16,6 +16,8 @@
  */
 package org.apache.wicket.request.handler.render;
 
+import java.util.List;
+
 import org.apache.wicket.Application;
 import org.apache.wicket.Session;
 import org.apache.wicket.core.request.handler.IPageProvider;
@@ -23,6 +25,7 @@ import org.apache.wicket.core.request.handler.RenderPageRequestHandler;
 import org.apache.wicket.core.request.handler.RenderPageRequestHandler.RedirectPolicy;
 import org.apache.wicket.request.component.IRequestablePage;
 import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.response.filter.IResponseFilter;
 import org.apache.wicket.settings.RequestCycleSettings;
 
 /**
@@ -96,6 +99,18 @@ public abstract class PageRenderer
 				RequestCycleSettings.RenderStrategy.REDIRECT_TO_BUFFER;
 	}
 
+	/**
+	 * @return {@code true} if pages should be streamed and no response filters are configured
+	 * @see RequestCycleSettings#setStreamingRender(boolean)
+	 */
+	protected boolean isStreamingRender()
+	{
+		RequestCycleSettings settings = Application.get().getRequestCycleSettings();
+		List<IResponseFilter> responseFilters = settings.getResponseFilters();
+		return settings.getStreamingRender() &&
+			(responseFilters == null || responseFilters.isEmpty());
+	}
+
 	/**
 	 * @return the current session id for stateful pages and <code>null</code> for stateless pages
 	 */
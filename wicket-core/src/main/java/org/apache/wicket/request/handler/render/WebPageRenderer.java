@@ -25,6 +25,7 @@ import org.apache.wicket.core.request.handler.RenderPageRequestHandler.RedirectP
 import org.apache.wicket.feedback.FeedbackCollector;
 import org.apache.wicket.feedback.FeedbackMessage;
 import org.apache.wicket.protocol.http.BufferedWebResponse;
+import org.apache.wicket.protocol.http.StreamingWebResponse;
 import org.apache.wicket.protocol.http.WebApplication;
 import org.apache.wicket.request.IRequestHandler;
 import org.apache.wicket.request.Request;
@@ -147,6 +148,61 @@ public class WebPageRenderer extends PageRenderer
 		}
 	}
 
+	/**
+	 * Renders page to a {@link StreamingWebResponse}, which sends the page to the client as soon as
+	 * its header is rendered. All URLs in page will be rendered relative to <code>targetUrl</code>
+	 * 
+	 * @param targetUrl
+	 * @param requestCycle
+	 * @see org.apache.wicket.settings.RequestCycleSettings#setStreamingRender(boolean)
+	 */
+	protected void streamPage(Url targetUrl, RequestCycle requestCycle)
+	{
+		// get the page before checking for a scheduled request handler because
+		// the page may call setResponsePage in its constructor
+		IRequestablePage requestablePage = getPage();
+
+		if (requestCycle.getRequestHandlerScheduledAfterCurrent() != null)
+		{
+			// no need to render
+			return;
+		}
+
+		final WebResponse originalResponse = (WebResponse)requestCycle.getResponse();
+
+		StreamingWebResponse response = new StreamingWebResponse(originalResponse);
+
+		Url originalBaseUrl = requestCycle.getUrlRenderer().setBaseUrl(targetUrl);
+
+		try
+		{
+			requestCycle.setResponse(response);
+			requestablePage.renderPage();
+
+			if (requestCycle.getRequestHandlerScheduledAfterCurrent() == null)
+			{
+				response.startStreaming();
+			}
+			else if (response.isStreaming())
+			{
+				logger.warn(
+					"A request handler was scheduled after page {} has already been streamed to the client",
+					requestablePage.getClass().getName());
+			}
+			else
+			{
+				// same as in renderPage(), just preserve the meta data headers
+				originalResponse.reset();
+				response.writeMetaData(originalResponse);
+			}
+		}
+		finally
+		{
+			requestCycle.setResponse(originalResponse);
+			requestCycle.getUrlRenderer().setBaseUrl(originalBaseUrl);
+		}
+	}
+
 	/**
 	 * 
 	 * @param url
@@ -192,6 +248,12 @@ public class WebPageRenderer extends PageRenderer
 
 		if (shouldRenderPageAndWriteResponse(requestCycle, currentUrl, targetUrl))
 		{
+			if (isStreamingRender())
+			{
+				streamPage(currentUrl, requestCycle);
+				return;
+			}
+
 			BufferedWebResponse response = renderPage(currentUrl, requestCycle);
 			if (response != null)
 			{
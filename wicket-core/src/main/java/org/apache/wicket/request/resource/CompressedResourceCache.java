@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.http.WebRequest;
+import org.apache.wicket.request.resource.AbstractResource.ResourceResponse;
+import org.apache.wicket.request.resource.IResource.Attributes;
+import org.apache.wicket.util.lang.Bytes;
+import org.apache.wicket.util.string.Strings;
+
+/**
+ * Keeps gzip compressed content of resources in memory, so static resources have to be compressed
+ * only once instead of on every request. The least recently used content is evicted when the
+ * total size of all compressed content exceeds the configured maximum.
+ * 
+ * @see org.apache.wicket.settings.ResourceSettings#setCompressedResourceCache(CompressedResourceCache)
+ */
+public class CompressedResourceCache
+{
+	/** The content coding supported by this cache */
+	public static final String GZIP = "gzip";
+
+	private final ResourceContentCache entries;
+
+	/**
+	 * Construct.
+	 * 
+	 * @param maxSize
+	 *            maximum total size of all compressed content
+	 */
+	public CompressedResourceCache(final Bytes maxSize)
+	{
+		entries = new ResourceContentCache(maxSize);
+	}
+
+	/**
+	 * Does the client accept gzip compressed content.
+	 * 
+	 * @param attributes
+	 *            request attributes
+	 * @return {@code true} if gzip is listed in the request's {@code Accept-Encoding} header
+	 */
+	public boolean accepts(final Attributes attributes)
+	{
+		Request request = attributes.getRequest();
+		if (request instanceof WebRequest == false)
+		{
+			return false;
+		}
+
+		String acceptEncoding = ((WebRequest)request).getHeader("Accept-Encoding");
+		if (Strings.isEmpty(acceptEncoding))
+		{
+			return false;
+		}
+
+		boolean any = false;
+		for (String coding : Strings.split(acceptEncoding, ','))
+		{
+			String[] parameters = Strings.split(coding, ';');
+			String name = parameters[0].trim();
+			if (GZIP.equalsIgnoreCase(name))
+			{
+				return isAcceptable(parameters);
+			}
+			else if ("*".equals(name))
+			{
+				any = isAcceptable(parameters);
+			}
+		}
+		return any;
+	}
+
+	/**
+	 * A coding is not acceptable if its quality is zero.
+	 */
+	private static boolean isAcceptable(final String[] parameters)
+	{
+		for (int i = 1; i < parameters.length; i++)
+		{
+			String parameter = parameters[i].trim();
+			if (parameter.startsWith("q="))
+			{
+				try
+				{
+					return Double.parseDouble(parameter.substring(2)) > 0;
+				}
+				catch (NumberFormatException ex)
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Is content of the given type worth compressing, by default text, JavaScript, JSON and XML.
+	 * 
+	 * @param contentType
+	 *            content type, may be {@code null}
+	 * @return {@code true} if content should be compressed
+	 */
+	public boolean isCompressible(final String contentType)
+	{
+		if (contentType == null)
+		{
+			return false;
+		}
+
+		String mimeType = Strings.beforeFirst(contentType, ';').trim().toLowerCase(Locale.ROOT);
+		if (mimeType.isEmpty())
+		{
+			mimeType = contentType.trim().toLowerCase(Locale.ROOT);
+		}
+
+		return mimeType.startsWith("text/") || mimeType.endsWith("/javascript") ||
+			mimeType.endsWith("/json") || mimeType.endsWith("+json") ||
+			mimeType.endsWith("/xml") || mimeType.endsWith("+xml");
+	}
+
+	/**
+	 * Compress the content of a resource response, if it is {@link #isCompressible(String)
+	 * compressible} and the client {@link #accepts(Attributes) accepts} gzip. Requests for a range
+	 * are answered with the original content.
+	 * 
+	 * @param attributes
+	 *            request attributes
+	 * @param resourceResponse
+	 *            response with content type and last modification set already, receives the
+	 *            headers for the content coding
+	 * @param key
+	 *            key of the resource, may be {@code null} if the resource can not be cached
+	 * @param content
+	 *            original content
+	 * @param precompressed
+	 *            supplier of precompressed content, may supply {@code null} if there is none
+	 * @return content to write
+	 */
+	public byte[] compress(final Attributes attributes, final ResourceResponse resourceResponse,
+		final Object key, final byte[] content, final Supplier<byte[]> precompressed)
+	{
+		if (isCompressible(resourceResponse.getContentType()) == false)
+		{
+			return content;
+		}
+
+		// the content depends on the accepted encodings
+		resourceResponse.getHeaders().addHeader("Vary", "Accept-Encoding");
+
+		RequestCycle requestCycle = RequestCycle.get();
+		if ((requestCycle != null &&
+			requestCycle.getMetaData(AbstractResource.CONTENT_RANGE_STARTBYTE) != null) ||
+			accepts(attributes) == false)
+		{
+			return content;
+		}
+
+		byte[] compressed = getCompressed(key, resourceResponse.getLastModified(), () -> {
+			byte[] bytes = precompressed.get();
+			return bytes != null ? bytes : gzip(content);
+		});
+		resourceResponse.getHeaders().addHeader("Content-Encoding", GZIP);
+		return compressed;
+	}
+
+	/**
+	 * Get compressed content, compressing it if not cached yet.
+	 * 
+	 * @param key
+	 *            key of the resource, may be {@code null} if the resource can not be cached
+	 * @param lastModified
+	 *            last modification of the resource, may be {@code null}
+	 * @param compressed
+	 *            supplier of compressed content
+	 * @return compressed content
+	 */
+	public byte[] getCompressed(final Object key, final Instant lastModified,
+		final Supplier<byte[]> compressed)
+	{
+		if (key == null)
+		{
+			return compressed.get();
+		}
+
+		byte[] content = entries.get(key, lastModified);
+		if (content == null)
+		{
+			// at worst the same content is compressed twice
+			content = compressed.get();
+			entries.put(key, lastModified, content);
+		}
+		return content;
+	}
+
+	/**
+	 * @return count of cached resources
+	 */
+	public int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * @return total size of all cached content
+	 */
+	public Bytes getCachedSize()
+	{
+		return entries.getCachedSize();
+	}
+
+	/**
+	 * Remove all cached content.
+	 */
+	public void clear()
+	{
+		entries.clear();
+	}
+
+	/**
+	 * Gzip the given content.
+	 * 
+	 * @param original
+	 *            content to compress
+	 * @return compressed content
+	 */
+	public static byte[] gzip(final byte[] original)
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream(original.length / 4 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(output))
+		{
+			gzip.write(original);
+		}
+		catch (IOException ex)
+		{
+			throw new WicketRuntimeException(ex);
+		}
+		return output.toByteArray();
+	}
+}
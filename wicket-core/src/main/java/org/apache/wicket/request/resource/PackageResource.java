@@ -48,9 +48,12 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 
@@ -82,6 +85,33 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Whether a class of resource overrides {@link #processResponse(Attributes, byte[])} or
+	 * {@link #compressResponse(Attributes, byte[])}, so its content cannot be taken from a
+	 * precompressed file.
+	 */
+	private static final ClassValue<Boolean> PROCESSES_RESPONSE = new ClassValue<>()
+	{
+		@Override
+		protected Boolean computeValue(Class<?> type)
+		{
+			for (Class<?> clazz = type; clazz != PackageResource.class; clazz = clazz.getSuperclass())
+			{
+				for (Method method : clazz.getDeclaredMethods())
+				{
+					if ((method.getName().equals("processResponse") ||
+						method.getName().equals("compressResponse")) &&
+						Arrays.equals(method.getParameterTypes(),
+							new Class<?>[] { Attributes.class, byte[].class }))
+					{
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	};
+
 	/**
 	 * Exception thrown when the creation of a package resource is not allowed.
 	 */
@@ -362,7 +392,8 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 				// send Content-Length header
 				if (readBuffered)
 				{
-					bytes = IOUtils.toByteArray(inputStream);
+					bytes = compressContent(attributes, resourceResponse, resourceStream,
+						IOUtils.toByteArray(inputStream));
 					resourceResponse.setContentLength(bytes.length);
 				}
 				else
@@ -413,6 +444,96 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 		return resourceResponse;
 	}
 
+	/**
+	 * Compresses the content for transport, if enabled and accepted by the client.
+	 * 
+	 * @see org.apache.wicket.settings.ResourceSettings#setCompressedResourceCache(CompressedResourceCache)
+	 */
+	private byte[] compressContent(final Attributes attributes,
+		final ResourceResponse resourceResponse, final IResourceStream resourceStream,
+		final byte[] content)
+	{
+		if (Application.exists() == false)
+		{
+			return content;
+		}
+
+		CompressedResourceCache cache = Application.get()
+			.getResourceSettings()
+			.getCompressedResourceCache();
+		if (cache == null)
+		{
+			return content;
+		}
+
+		return cache.compress(attributes, resourceResponse, getContentKey(resourceStream), content,
+			() -> readPrecompressed(resourceStream));
+	}
+
+	/**
+	 * Creates the key for cached content of this resource, the processing of the content depends
+	 * on the class of resource and its settings.
+	 * 
+	 * @return key or {@code null} if the content can not be cached, because a scope aware processor
+	 *         depends on the request, e.g. when rewriting relative URLs
+	 */
+	private List<?> getContentKey(final IResourceStream resourceStream)
+	{
+		if (getCompress() && getCompressor() instanceof IScopeAwareTextResourceProcessor)
+		{
+			return null;
+		}
+
+		return Arrays.asList(getClass(), getCompress(), getTextEncoding(),
+			new CacheKey(scopeName, absolutePath, resourceStream.getLocale(),
+				resourceStream.getStyle(), resourceStream.getVariation()));
+	}
+
+	/**
+	 * Reads the precompressed variant of the resource, e.g. "script.js.gz" for "script.js".
+	 * 
+	 * @return compressed content or {@code null} if there is none or the resource is processed by
+	 *         a compressor or a subclass
+	 */
+	private byte[] readPrecompressed(final IResourceStream resourceStream)
+	{
+		if ((getCompress() && getCompressor() != null) || PROCESSES_RESPONSE.get(getClass()))
+		{
+			// the content differs from the resource's file
+			return null;
+		}
+
+		String extension = Strings.afterLast(absolutePath, '.');
+		if (Strings.isEmpty(extension))
+		{
+			return null;
+		}
+
+		IResourceStream precompressed = Application.get()
+			.getResourceSettings()
+			.getResourceStreamLocator()
+			.locate(getScope(), Strings.beforeLast(absolutePath, '.'), resourceStream.getStyle(),
+				resourceStream.getVariation(), resourceStream.getLocale(), extension + ".gz", true);
+		if (precompressed == null)
+		{
+			return null;
+		}
+
+		try
+		{
+			return IOUtils.toByteArray(precompressed.getInputStream());
+		}
+		catch (IOException | ResourceStreamNotFoundException e)
+		{
+			log.debug("Unable to read precompressed resource {}", absolutePath, e);
+			return null;
+		}
+		finally
+		{
+			IOUtils.closeQuietly(precompressed);
+		}
+	}
+
 	/**
 	 * Gives a chance to modify the resource going to be written in the response
 	 * 
@@ -590,6 +711,20 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 		@Override
 		public InputStream getInputStream() throws ResourceStreamNotFoundException
 		{
+			final ProcessedResourceCache cache = getProcessedResourceCache();
+			final List<?> key = cache != null ? getContentKey(this) : null;
+			Instant lastModified = null;
+			if (key != null)
+			{
+				lastModified = lastModifiedTime();
+
+				byte[] processed = cache.get(key, lastModified);
+				if (processed != null)
+				{
+					return new ByteArrayInputStream(processed);
+				}
+			}
+
 			byte[] bytes = null;
 			InputStream inputStream = super.getInputStream();
 
@@ -623,6 +758,10 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 			if (bytes != null)
 			{
 				byte[] processedBytes = processResponse(attributes, bytes);
+				if (key != null)
+				{
+					cache.put(key, lastModified, processedBytes);
+				}
 				return new ByteArrayInputStream(processedBytes);
 			}
 			else
@@ -632,6 +771,21 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 		}
 	}
 
+	/**
+	 * @return the cache of processed content, {@code null} if there is none or the content is not
+	 *         read buffered
+	 * @see org.apache.wicket.settings.ResourceSettings#setProcessedResourceCache(ProcessedResourceCache)
+	 */
+	private ProcessedResourceCache getProcessedResourceCache()
+	{
+		if (readBuffered == false || Application.exists() == false)
+		{
+			return null;
+		}
+
+		return Application.get().getResourceSettings().getProcessedResourceCache();
+	}
+
 	/**
 	 * Checks whether access is granted for this resource.
 	 *
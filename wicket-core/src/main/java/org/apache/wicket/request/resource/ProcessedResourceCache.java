@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource;
+
+import java.time.Instant;
+
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+
+/**
+ * Keeps the processed (e.g. minified) content of package resources in memory, so a resource has to
+ * be read and processed only once instead of on every request. The content is shared by the
+ * {@link PackageResource} itself and all bundles containing it. An entry is used as long as the
+ * last modification of the resource does not change. The least recently used content is evicted
+ * when the total size of all content exceeds the configured maximum.
+ * <p>
+ * Processing is assumed to depend on the content of the resource only, resources whose
+ * {@link PackageResource#processResponse(IResource.Attributes, byte[]) processing} depends on the
+ * request should not be used with this cache. Resources processed by an
+ * {@link org.apache.wicket.resource.IScopeAwareTextResourceProcessor}, e.g. the
+ * {@link org.apache.wicket.resource.CssUrlReplacer} rewriting URLs relative to the request, are
+ * never cached.
+ * 
+ * @see org.apache.wicket.settings.ResourceSettings#setProcessedResourceCache(ProcessedResourceCache)
+ */
+public class ProcessedResourceCache
+{
+	private final ResourceContentCache entries;
+
+	/**
+	 * Construct.
+	 * 
+	 * @param maxSize
+	 *            maximum total size of all processed content
+	 */
+	public ProcessedResourceCache(final Bytes maxSize)
+	{
+		entries = new ResourceContentCache(maxSize);
+	}
+
+	/**
+	 * Get processed content.
+	 * 
+	 * @param key
+	 *            key of the resource
+	 * @param lastModified
+	 *            last modification of the resource, may be {@code null}
+	 * @return processed content or {@code null} if not cached
+	 */
+	public byte[] get(final Object key, final Instant lastModified)
+	{
+		return entries.get(Args.notNull(key, "key"), lastModified);
+	}
+
+	/**
+	 * Put processed content, evicting the least recently used content if the maximum size is
+	 * exceeded.
+	 * 
+	 * @param key
+	 *            key of the resource
+	 * @param lastModified
+	 *            last modification of the resource, may be {@code null}
+	 * @param content
+	 *            processed content, must not be modified afterwards
+	 */
+	public void put(final Object key, final Instant lastModified, final byte[] content)
+	{
+		entries.put(Args.notNull(key, "key"), lastModified, Args.notNull(content, "content"));
+	}
+
+	/**
+	 * @return count of cached resources
+	 */
+	public int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * @return total size of all cached content
+	 */
+	public Bytes getCachedSize()
+	{
+		return entries.getCachedSize();
+	}
+
+	/**
+	 * Remove all cached content.
+	 */
+	public void clear()
+	{
+		entries.clear();
+	}
+}
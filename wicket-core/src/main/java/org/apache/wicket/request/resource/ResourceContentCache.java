@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+
+/**
+ * Content of resources kept in memory up to a maximum total size.
+ * <p>
+ * Lookups do not block: entries are held in a concurrent map and remember their last access. When
+ * the maximum size is exceeded, a single thread evicts the least recently used entries while other
+ * threads continue to read and add content.
+ *
+ * @see CompressedResourceCache
+ * @see ProcessedResourceCache
+ */
+final class ResourceContentCache
+{
+	private final long maxSize;
+
+	private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	/** Total size of all content */
+	private final AtomicLong size = new AtomicLong();
+
+	/** Logical clock for the access order */
+	private final AtomicLong clock = new AtomicLong();
+
+	private final ReentrantLock evicting = new ReentrantLock();
+
+	/**
+	 * Construct.
+	 *
+	 * @param maxSize
+	 *            maximum total size of all content
+	 */
+	ResourceContentCache(final Bytes maxSize)
+	{
+		this.maxSize = Args.notNull(maxSize, "maxSize").bytes();
+	}
+
+	/**
+	 * Get content.
+	 *
+	 * @param key
+	 *            key of the resource
+	 * @param lastModified
+	 *            last modification of the resource, may be {@code null}
+	 * @return content or {@code null} if not cached
+	 */
+	byte[] get(final Object key, final Instant lastModified)
+	{
+		Entry entry = entries.get(new Key(key, lastModified));
+		if (entry == null)
+		{
+			return null;
+		}
+		entry.lastAccess = clock.incrementAndGet();
+		return entry.content;
+	}
+
+	/**
+	 * Put content, evicting the least recently used content if the maximum size is exceeded.
+	 *
+	 * @param key
+	 *            key of the resource
+	 * @param lastModified
+	 *            last modification of the resource, may be {@code null}
+	 * @param content
+	 *            content, must not be modified afterwards
+	 */
+	void put(final Object key, final Instant lastModified, final byte[] content)
+	{
+		if (content.length > maxSize)
+		{
+			return;
+		}
+
+		Entry old = entries.put(new Key(key, lastModified),
+			new Entry(content, clock.incrementAndGet()));
+		size.addAndGet(content.length - (old != null ? old.content.length : 0));
+
+		if (size.get() > maxSize)
+		{
+			evict();
+		}
+	}
+
+	/**
+	 * Evict the least recently used entries until the maximum size is no longer exceeded.
+	 */
+	private void evict()
+	{
+		if (evicting.tryLock() == false)
+		{
+			// another thread is evicting already
+			return;
+		}
+
+		try
+		{
+			// snapshot the access order, it changes while sorting
+			List<Candidate> candidates = new ArrayList<>(entries.size());
+			entries.forEach((key, entry) -> candidates.add(new Candidate(key, entry)));
+			candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+
+			for (Candidate candidate : candidates)
+			{
+				if (size.get() <= maxSize)
+				{
+					break;
+				}
+
+				if (entries.remove(candidate.key, candidate.entry))
+				{
+					size.addAndGet(-candidate.entry.content.length);
+				}
+			}
+		}
+		finally
+		{
+			evicting.unlock();
+		}
+	}
+
+	/**
+	 * @return count of cached resources
+	 */
+	int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * @return total size of all cached content
+	 */
+	Bytes getCachedSize()
+	{
+		return Bytes.bytes(size.get());
+	}
+
+	/**
+	 * Remove all cached content.
+	 */
+	void clear()
+	{
+		for (Key key : entries.keySet())
+		{
+			Entry entry = entries.remove(key);
+			if (entry != null)
+			{
+				size.addAndGet(-entry.content.length);
+			}
+		}
+	}
+
+	/**
+	 * Cached content.
+	 */
+	private static final class Entry
+	{
+		private final byte[] content;
+
+		private volatile long lastAccess;
+
+		private Entry(byte[] content, long lastAccess)
+		{
+			this.content = content;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+	/**
+	 * An entry considered for eviction.
+	 */
+	private static final class Candidate
+	{
+		private final Key key;
+
+		private final Entry entry;
+
+		private final long lastAccess;
+
+		private Candidate(Key key, Entry entry)
+		{
+			this.key = key;
+			this.entry = entry;
+			lastAccess = entry.lastAccess;
+		}
+	}
+
+	/**
+	 * A resource in a certain version.
+	 */
+	private static final class Key
+	{
+		private final Object key;
+
+		private final Instant lastModified;
+
+		private Key(Object key, Instant lastModified)
+		{
+			this.key = key;
+			this.lastModified = lastModified;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o)
+			{
+				return true;
+			}
+			if (o instanceof Key == false)
+			{
+				return false;
+			}
+			Key other = (Key)o;
+			return key.equals(other.key) && Objects.equals(lastModified, other.lastModified);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(key, lastModified);
+		}
+	}
+}
@@ -17,19 +17,24 @@
 package org.apache.wicket.request.resource.caching.version;
 
 import java.io.Serializable;
-import java.util.Collections;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 
 import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
-import org.apache.wicket.util.collections.MostRecentlyUsedMap;
 import org.apache.wicket.util.lang.Args;
 
 /**
  * Caches the results of a delegating {@link IResourceVersion} instance
  * in a member variable. The cache will be valid for the lifetime of 
- * this instance. It will expire the oldest entries if the maximum number 
- * of entries is exceeded.
+ * this instance. It will expire the least recently used entries if the
+ * maximum number of entries is exceeded. Lookups do not lock, so the cache
+ * does not become a point of contention under load.
  * 
  * @author Peter Ertl
  * 
@@ -52,16 +57,31 @@ public class CachingResourceVersion implements IResourceVersion
 	 */
 	private final IResourceVersion delegate;
 
+	/**
+	 * maximum number of cache entries
+	 */
+	private final int maxEntries;
+
 	/**
 	 * cache for resource versions
 	 */
-	private final Map<Serializable, String> cache;
+	private final ConcurrentMap<Serializable, Entry> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * logical clock for the access order of entries
+	 */
+	private final AtomicLong clock = new AtomicLong();
+
+	/**
+	 * held by the thread evicting entries
+	 */
+	private final ReentrantLock evicting = new ReentrantLock();
 
 	/**
 	 * create version cache
 	 * <p/>
 	 * the cache will accept up to {@value #DEFAULT_MAX_CACHE_ENTRIES} before 
-	 * evicting the oldest entries.
+	 * evicting the least recently used entries.
 	 * 
 	 * @param delegate
 	 *           delegating resource version provider
@@ -75,7 +95,7 @@ public class CachingResourceVersion implements IResourceVersion
 	 * create version cache
 	 * <p/>
 	 * the cache will accept a maximum number of entries specified
-	 * by <code>maxEntries</code> before evicting the oldest entries.
+	 * by <code>maxEntries</code> before evicting the least recently used entries.
 	 * 
 	 * @param delegate
 	 *          resource version provider
@@ -90,8 +110,7 @@ public class CachingResourceVersion implements IResourceVersion
 		}
 
 		this.delegate = Args.notNull(delegate, "delegate");
-		this.cache = Collections.synchronizedMap(
-			new MostRecentlyUsedMap<Serializable, String>(maxEntries));
+		this.maxEntries = maxEntries;
 	}
 
 	@Override
@@ -107,10 +126,11 @@ public class CachingResourceVersion implements IResourceVersion
 		}
 		
 		// lookup version in cache
-		String version = cache.get(key);
+		String version;
+		Entry entry = cache.get(key);
 
 		// if not found
-		if (version == null)
+		if (entry == null)
 		{
 			// get version from delegate
 			version = delegate.getVersion(resource);
@@ -121,7 +141,16 @@ public class CachingResourceVersion implements IResourceVersion
 				version = NULL_VALUE;
 			}
 			// update cache
-			cache.put(key, version);
+			cache.put(key, new Entry(version, clock.incrementAndGet()));
+			if (cache.size() > maxEntries)
+			{
+				evict();
+			}
+		}
+		else
+		{
+			entry.lastAccess = clock.incrementAndGet();
+			version = entry.version;
 		}
 
 		//noinspection StringEquality
@@ -135,6 +164,39 @@ public class CachingResourceVersion implements IResourceVersion
 		return version;
 	}
 
+	/**
+	 * expire the least recently used entries if the maximum number of entries is exceeded
+	 */
+	private void evict()
+	{
+		if (evicting.tryLock() == false)
+		{
+			// another thread is evicting already
+			return;
+		}
+
+		try
+		{
+			// snapshot the access order, it changes while sorting
+			List<Candidate> candidates = new ArrayList<>(cache.size());
+			cache.forEach((key, entry) -> candidates.add(new Candidate(key, entry)));
+			candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+
+			for (Candidate candidate : candidates)
+			{
+				if (cache.size() <= maxEntries)
+				{
+					break;
+				}
+				cache.remove(candidate.key, candidate.entry);
+			}
+		}
+		finally
+		{
+			evicting.unlock();
+		}
+	}
+
 	@Override
 	public Pattern getVersionPattern() {
 		return delegate.getVersionPattern();
@@ -161,4 +223,39 @@ public class CachingResourceVersion implements IResourceVersion
   public void invalidateAll() {
     cache.clear();
   }
+
+	/**
+	 * a cached version
+	 */
+	private static final class Entry
+	{
+		private final String version;
+
+		private volatile long lastAccess;
+
+		private Entry(String version, long lastAccess)
+		{
+			this.version = version;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+	/**
+	 * an entry considered for eviction
+	 */
+	private static final class Candidate
+	{
+		private final Serializable key;
+
+		private final Entry entry;
+
+		private final long lastAccess;
+
+		private Candidate(Serializable key, Entry entry)
+		{
+			this.key = key;
+			this.entry = entry;
+			lastAccess = entry.lastAccess;
+		}
+	}
 }
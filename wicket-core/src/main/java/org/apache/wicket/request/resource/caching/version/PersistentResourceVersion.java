@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource.caching.version;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
+import org.apache.wicket.util.io.IOUtils;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+import org.apache.wicket.util.resource.IFixedLocationResourceStream;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.ResourceStreamWrapper;
+import org.apache.wicket.util.string.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the results of a delegating {@link IResourceVersion} instance in a file, so they survive
+ * a restart of the application. A stored version is used as long as the last modification and the
+ * length of the resource do not change, e.g. the digests of {@link MessageDigestResourceVersion} do
+ * not have to be computed again after a restart. For resources located in a jar the last
+ * modification and the length of the jar are considered too, since reproducible builds give all
+ * entries of a jar the same fixed last modification in every release.
+ * <p>
+ * The versions are loaded from the file on construction and looked up without locking, new
+ * versions are appended to the file. Superseded versions are removed from the file when it is
+ * loaded. The cache keys of resources are stored by their
+ * {@link Object#toString() string representation}, thus resources without a stable string
+ * representation of their key should not be versioned with this class.
+ * <p>
+ * Wrap in a {@link CachingResourceVersion} to avoid locating the resource stream for each lookup:
+ * 
+ * <pre>
+ * new CachingResourceVersion(
+ * 	new PersistentResourceVersion(new MessageDigestResourceVersion(), new File(dir, "versions")))
+ * </pre>
+ */
+public class PersistentResourceVersion implements IResourceVersion
+{
+	private static final Logger log = LoggerFactory.getLogger(PersistentResourceVersion.class);
+
+	/**
+	 * separator of the values of an entry
+	 */
+	private static final char SEPARATOR = '\t';
+
+	/**
+	 * delegating resource version provider
+	 */
+	private final IResourceVersion delegate;
+
+	/**
+	 * file to store versions in
+	 */
+	private final File file;
+
+	/**
+	 * stored versions by string representation of cache key
+	 */
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Construct and load all versions stored in the given file.
+	 * 
+	 * @param delegate
+	 *            delegating resource version provider
+	 * @param file
+	 *            file to store versions in, created if it does not exist
+	 */
+	public PersistentResourceVersion(IResourceVersion delegate, File file)
+	{
+		this.delegate = Args.notNull(delegate, "delegate");
+		this.file = Args.notNull(file, "file");
+
+		load();
+	}
+
+	private void load()
+	{
+		if (file.exists() == false)
+		{
+			return;
+		}
+
+		int lines = 0;
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				lines++;
+
+				// stamp, version, key
+				int first = line.indexOf(SEPARATOR);
+				int second = line.indexOf(SEPARATOR, first + 1);
+				if (first == -1 || second == -1)
+				{
+					log.debug("Skipping invalid resource version '{}'", line);
+					continue;
+				}
+
+				String stamp = line.substring(0, first);
+				String version = line.substring(first + 1, second);
+				entries.put(line.substring(second + 1), new Entry(stamp, version));
+			}
+		}
+		catch (IOException ex)
+		{
+			log.warn("Unable to load resource versions from {}", file, ex);
+			return;
+		}
+
+		if (lines > entries.size())
+		{
+			compact();
+		}
+	}
+
+	/**
+	 * Rewrite the file with the loaded entries only, dropping superseded and invalid ones. The
+	 * new content replaces the file atomically, so a failure leaves the old file intact.
+	 */
+	private void compact()
+	{
+		Path target = file.toPath().toAbsolutePath();
+		Path temp = null;
+		try
+		{
+			temp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+			try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8))
+			{
+				for (Map.Entry<String, Entry> entry : entries.entrySet())
+				{
+					write(writer, entry.getKey(), entry.getValue());
+				}
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException ex)
+		{
+			log.warn("Unable to compact resource versions in {}", file, ex);
+		}
+		finally
+		{
+			if (temp != null)
+			{
+				try
+				{
+					Files.deleteIfExists(temp);
+				}
+				catch (IOException ex)
+				{
+					log.debug("Unable to delete {}", temp, ex);
+				}
+			}
+		}
+	}
+
+	@Override
+	public String getVersion(IStaticCacheableResource resource)
+	{
+		final Serializable cacheKey = resource.getCacheKey();
+		if (cacheKey == null)
+		{
+			return delegate.getVersion(resource);
+		}
+
+		final String stamp = getStamp(resource);
+		if (stamp == null)
+		{
+			return delegate.getVersion(resource);
+		}
+
+		final String key = cacheKey.toString();
+		Entry entry = entries.get(key);
+		if (entry != null && entry.stamp.equals(stamp))
+		{
+			return entry.version;
+		}
+
+		String version = delegate.getVersion(resource);
+		if (version != null && isStorable(key) && isStorable(version))
+		{
+			entry = new Entry(stamp, version);
+			entries.put(key, entry);
+			store(key, entry);
+		}
+		return version;
+	}
+
+	/**
+	 * Get the stamp identifying the current state of a resource, i.e. its last modification and
+	 * length, and the last modification and length of the jar it is located in.
+	 * 
+	 * @return stamp or {@code null} if the last modification of the resource is unknown
+	 */
+	private static String getStamp(IStaticCacheableResource resource)
+	{
+		IResourceStream stream = resource.getResourceStream();
+		if (stream == null)
+		{
+			return null;
+		}
+
+		try
+		{
+			Instant lastModified = stream.lastModifiedTime();
+			if (lastModified == null)
+			{
+				return null;
+			}
+
+			StringBuilder stamp = new StringBuilder();
+			stamp.append(lastModified.toEpochMilli());
+			Bytes length = stream.length();
+			stamp.append('/').append(length != null ? length.bytes() : -1);
+
+			File jar = getJar(stream);
+			if (jar != null)
+			{
+				stamp.append('/').append(jar.lastModified()).append('/').append(jar.length());
+			}
+			return stamp.toString();
+		}
+		finally
+		{
+			IOUtils.closeQuietly(stream);
+		}
+	}
+
+	/**
+	 * Get the jar file a resource stream is located in.
+	 * 
+	 * @return jar file or {@code null} if the stream is not located in a jar in the file system
+	 */
+	private static File getJar(IResourceStream stream)
+	{
+		while (stream instanceof ResourceStreamWrapper)
+		{
+			stream = ((ResourceStreamWrapper)stream).getDelegate();
+		}
+
+		if (stream instanceof IFixedLocationResourceStream == false)
+		{
+			return null;
+		}
+
+		String location = ((IFixedLocationResourceStream)stream).locationAsString();
+		if (location == null || location.startsWith("jar:file:") == false)
+		{
+			return null;
+		}
+
+		try
+		{
+			// the outermost jar, i.e. "jar:file:/app.jar!/entry"
+			return new File(new URI(Strings.beforeFirst(location.substring(4), '!')));
+		}
+		catch (URISyntaxException | IllegalArgumentException ex)
+		{
+			log.debug("Unable to locate jar of {}", location, ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Line breaks and separators would corrupt the file.
+	 */
+	private static boolean isStorable(String value)
+	{
+		return value.indexOf('\n') == -1 && value.indexOf('\r') == -1 &&
+			value.indexOf(SEPARATOR) == -1;
+	}
+
+	/**
+	 * Append an entry to the file, later entries for the same key replace earlier ones on loading.
+	 */
+	private synchronized void store(String key, Entry entry)
+	{
+		try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+			StandardOpenOption.CREATE, StandardOpenOption.APPEND))
+		{
+			write(writer, key, entry);
+		}
+		catch (IOException ex)
+		{
+			log.warn("Unable to store resource version in {}", file, ex);
+		}
+	}
+
+	private static void write(Writer writer, String key, Entry entry) throws IOException
+	{
+		writer.write(entry.stamp);
+		writer.write(SEPARATOR);
+		writer.write(entry.version);
+		writer.write(SEPARATOR);
+		writer.write(key);
+		writer.write('\n');
+	}
+
+	@Override
+	public Pattern getVersionPattern()
+	{
+		return delegate.getVersionPattern();
+	}
+
+	/**
+	 * A stored version.
+	 */
+	private static final class Entry
+	{
+		private final String stamp;
+
+		private final String version;
+
+		private Entry(String stamp, String version)
+		{
+			this.stamp = stamp;
+			this.version = version;
+		}
+	}
+}
@@ -30,6 +30,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.apache.wicket.Application;
 import org.apache.wicket.markup.head.IReferenceHeaderItem;
 import org.apache.wicket.request.resource.AbstractResource;
+import org.apache.wicket.request.resource.CompressedResourceCache;
 import org.apache.wicket.request.resource.IResource;
 import org.apache.wicket.request.resource.ResourceReference;
 import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
@@ -101,7 +102,8 @@ public class ConcatBundleResource extends AbstractResource implements IStaticCac
 					resourceResponse.setLastModified(lastModified);
 
 				// read resource data
-				final byte[] bytes = readAllResources(resources);
+				final byte[] bytes = compressContent(attributes, resourceResponse,
+					readAllResources(resources));
 
 				// send Content-Length header
 				resourceResponse.setContentLength(bytes.length);
@@ -131,6 +133,25 @@ public class ConcatBundleResource extends AbstractResource implements IStaticCac
 		return resourceResponse;
 	}
 
+	/**
+	 * Compresses the content for transport, if enabled and accepted by the client.
+	 * 
+	 * @see org.apache.wicket.settings.ResourceSettings#setCompressedResourceCache(CompressedResourceCache)
+	 */
+	private byte[] compressContent(final Attributes attributes,
+		final ResourceResponse resourceResponse, final byte[] content)
+	{
+		CompressedResourceCache cache = Application.get()
+			.getResourceSettings()
+			.getCompressedResourceCache();
+		if (cache == null)
+		{
+			return content;
+		}
+
+		return cache.compress(attributes, resourceResponse, getCacheKey(), content, () -> null);
+	}
+
 	private List<IResourceStream> collectResourceStreams()
 	{
 		List<IResourceStream> ret = new ArrayList<>(providedResources.size());
@@ -17,12 +17,17 @@
 package org.apache.wicket.session;
 
 import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,11 +36,14 @@ import jakarta.servlet.http.HttpSessionBindingEvent;
 import jakarta.servlet.http.HttpSessionBindingListener;
 
 import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
 import org.apache.wicket.Session;
+import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.markup.MarkupParser;
 import org.apache.wicket.protocol.http.IRequestLogger;
 import org.apache.wicket.protocol.http.WebApplication;
 import org.apache.wicket.request.Request;
+import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.request.http.WebRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +51,13 @@ import org.slf4j.LoggerFactory;
 /**
  * Implementation of {@link ISessionStore} that works with web applications and provides some
  * specific http servlet/ session related functionality.
+ * <p>
+ * With {@link #setChangeTracking(boolean) change tracking} an attribute is written to the http
+ * session only if it changed since it was written last, so a replicating container does not ship
+ * unchanged attributes to the other nodes of a cluster. The metadata of the {@link Session} is
+ * part of the session's attribute, so state changing on each request should be kept in separate
+ * attributes, e.g. the pages of an
+ * {@link org.apache.wicket.pageStore.InSessionPageStore#setAttributeName(String) InSessionPageStore}.
  * 
  * @author jcompagner
  * @author Eelco Hillenius
@@ -56,6 +71,51 @@ public class HttpSessionStore implements ISessionStore
 
 	private final Set<BindListener> bindListeners = new CopyOnWriteArraySet<>();
 
+	/** The statistics of the current request. */
+	private static final MetaDataKey<ReplicationStatistics> STATISTICS = new MetaDataKey<>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	private volatile boolean changeTracking = false;
+
+	/**
+	 * Set whether attributes are written to the http session only if they changed since they were
+	 * written last. Changes are detected by serializing each attribute with the application's
+	 * {@link org.apache.wicket.serialize.ISerializer}, so this trades processing on this node for
+	 * less replication traffic in a cluster. Off by default.
+	 * 
+	 * @param changeTracking
+	 *            whether to track changes
+	 * @return this
+	 */
+	public HttpSessionStore setChangeTracking(final boolean changeTracking)
+	{
+		this.changeTracking = changeTracking;
+		return this;
+	}
+
+	/**
+	 * @return whether attributes are written only if they changed
+	 * @see #setChangeTracking(boolean)
+	 */
+	public boolean isChangeTracking()
+	{
+		return changeTracking;
+	}
+
+	/**
+	 * Get the statistics of the attributes written during the current request.
+	 * 
+	 * @return statistics or {@code null} if changes are not tracked or nothing was written yet
+	 * @see #setChangeTracking(boolean)
+	 */
+	public ReplicationStatistics getReplicationStatistics()
+	{
+		RequestCycle requestCycle = RequestCycle.get();
+		return requestCycle == null ? null : requestCycle.getMetaData(STATISTICS);
+	}
+
 	/**
 	 * @param request The Wicket request
 	 * @return The http servlet request
@@ -309,6 +369,10 @@ public class HttpSessionStore implements ISessionStore
 						logger.objectRemoved(value);
 					}
 				}
+				if (changeTracking)
+				{
+					getDigests(httpSession).remove(attributeName);
+				}
 				httpSession.removeAttribute(attributeName);
 				return null;
 			});
@@ -326,6 +390,10 @@ public class HttpSessionStore implements ISessionStore
 			String attributeName = getSessionAttributePrefix(request) + name;
 			IRequestLogger logger = Application.get().getRequestLogger();
 			withSession(httpSession.getId(), () -> {
+				if (changeTracking && hasChanged(httpSession, attributeName, value) == false)
+				{
+					return null;
+				}
 				if (logger != null)
 				{
 					if (httpSession.getAttribute(attributeName) == null)
@@ -343,6 +411,86 @@ public class HttpSessionStore implements ISessionStore
 		}
 	}
 
+	/**
+	 * Checks whether an attribute has to be written, i.e. whether it is not yet in the http session
+	 * or changed since it was written last.
+	 */
+	private boolean hasChanged(final HttpSession httpSession, final String attributeName,
+		final Serializable value)
+	{
+		ReplicationStatistics statistics = null;
+		RequestCycle requestCycle = RequestCycle.get();
+		if (requestCycle != null)
+		{
+			statistics = requestCycle.getMetaData(STATISTICS);
+			if (statistics == null)
+			{
+				statistics = new ReplicationStatistics();
+				requestCycle.setMetaData(STATISTICS, statistics);
+			}
+		}
+
+		ConcurrentMap<String, byte[]> digests = getDigests(httpSession);
+
+		byte[] data = value == null ? null
+			: Application.get().getFrameworkSettings().getSerializer().serialize(value);
+		if (data == null)
+		{
+			// nothing to compare with next time
+			digests.remove(attributeName);
+			if (statistics != null)
+			{
+				statistics.written(0);
+			}
+			return true;
+		}
+
+		byte[] digest = digest(data);
+		byte[] previous = digests.put(attributeName, digest);
+		if (Arrays.equals(previous, digest) && httpSession.getAttribute(attributeName) == value)
+		{
+			if (statistics != null)
+			{
+				statistics.skipped();
+			}
+			return false;
+		}
+
+		if (statistics != null)
+		{
+			statistics.written(data.length);
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the digests of the attributes written to a http session.
+	 */
+	private ConcurrentMap<String, byte[]> getDigests(final HttpSession httpSession)
+	{
+		String name = "Wicket:AttributeDigests-" + Application.get().getName();
+
+		AttributeDigests digests = (AttributeDigests)httpSession.getAttribute(name);
+		if (digests == null)
+		{
+			digests = new AttributeDigests();
+			httpSession.setAttribute(name, digests);
+		}
+		return digests.digests;
+	}
+
+	private static byte[] digest(final byte[] data)
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256").digest(data);
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new WicketRuntimeException(e);
+		}
+	}
+
 	@Override
 	public final void registerUnboundListener(final UnboundListener listener)
 	{
@@ -464,6 +612,22 @@ public class HttpSessionStore implements ISessionStore
 		}
 	}
 
+	/**
+	 * The digests of the attributes written to a http session. They are valid on this node only, so
+	 * they are not replicated: after a fail-over all attributes are written once again.
+	 */
+	private static final class AttributeDigests implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private transient ConcurrentMap<String, byte[]> digests = new ConcurrentHashMap<>();
+
+		private Object readResolve()
+		{
+			return new AttributeDigests();
+		}
+	}
+
 	/**
 	 * @param sessionId The id of the HTTP session that might happen to be invalidated 
 	 *                  in the meantime
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.session;
+
+/**
+ * Counts the attributes a {@link HttpSessionStore} with change tracking wrote to the http session
+ * during a request, i.e. the attributes a replicating container has to ship to other nodes.
+ *
+ * @see HttpSessionStore#setChangeTracking(boolean)
+ * @see HttpSessionStore#getReplicationStatistics()
+ */
+public class ReplicationStatistics
+{
+	private int writtenAttributes;
+
+	private int skippedAttributes;
+
+	private long writtenBytes;
+
+	/**
+	 * @return count of attributes written to the http session
+	 */
+	public int getWrittenAttributes()
+	{
+		return writtenAttributes;
+	}
+
+	/**
+	 * @return count of attributes not written because they did not change
+	 */
+	public int getSkippedAttributes()
+	{
+		return skippedAttributes;
+	}
+
+	/**
+	 * @return serialized size of the attributes written to the http session
+	 */
+	public long getWrittenBytes()
+	{
+		return writtenBytes;
+	}
+
+	void written(final int bytes)
+	{
+		writtenAttributes++;
+		writtenBytes += bytes;
+	}
+
+	void skipped()
+	{
+		skippedAttributes++;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ReplicationStatistics [writtenAttributes=" + writtenAttributes +
+			", skippedAttributes=" + skippedAttributes + ", writtenBytes=" + writtenBytes + "]";
+	}
+}
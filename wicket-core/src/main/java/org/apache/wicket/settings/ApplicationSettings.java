@@ -25,6 +25,7 @@ import org.apache.wicket.application.DefaultClassResolver;
 import org.apache.wicket.application.IClassResolver;
 import org.apache.wicket.feedback.DefaultCleanupFeedbackMessageFilter;
 import org.apache.wicket.feedback.IFeedbackMessageFilter;
+import org.apache.wicket.protocol.http.servlet.UploadProgressRegistry;
 import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.lang.Bytes;
@@ -67,6 +68,8 @@ public class ApplicationSettings
 
 	private boolean uploadProgressUpdatesEnabled = false;
 
+	private UploadProgressRegistry uploadProgressRegistry = new UploadProgressRegistry();
+
 	private IFeedbackMessageFilter feedbackMessageCleanupFilter = new DefaultCleanupFeedbackMessageFilter();
 
 	/**
@@ -130,6 +133,16 @@ public class ApplicationSettings
 		return uploadProgressUpdatesEnabled;
 	}
 
+	/**
+	 * Gets the registry keeping track of the upload progress.
+	 *
+	 * @return registry or {@code null} if the progress is kept in the http session
+	 */
+	public UploadProgressRegistry getUploadProgressRegistry()
+	{
+		return uploadProgressRegistry;
+	}
+
 	/**
 	 * Sets the access denied page class. The class must be bookmarkable and must extend Page.
 	 *
@@ -228,6 +241,22 @@ public class ApplicationSettings
 		return this;
 	}
 
+	/**
+	 * Sets the registry keeping track of the upload progress. By default the progress is kept in an
+	 * application scoped {@link UploadProgressRegistry}, so updates do not write into the http
+	 * session. Set to {@code null} to keep the progress in the http session instead, e.g. in a
+	 * cluster without sticky sessions.
+	 *
+	 * @param uploadProgressRegistry
+	 *            registry or {@code null}
+	 * @return {@code this} object for chaining
+	 */
+	public ApplicationSettings setUploadProgressRegistry(UploadProgressRegistry uploadProgressRegistry)
+	{
+		this.uploadProgressRegistry = uploadProgressRegistry;
+		return this;
+	}
+
 	/**
 	 * Throws an IllegalArgumentException if the given class is not a subclass of Page.
 	 * 
@@ -154,6 +154,15 @@ public class RequestCycleSettings
 	 */
 	private RequestCycleSettings.RenderStrategy renderStrategy = RenderStrategy.REDIRECT_TO_BUFFER;
 
+	/** Whether pages rendered directly are streamed to the client */
+	private boolean streamingRender = false;
+
+	/** Whether Ajax responses are streamed to the client */
+	private boolean streamingAjaxResponse = false;
+
+	/** Whether the mapper of request handlers is remembered by the system mapper */
+	private boolean rememberHandlerMappers = false;
+
 	/** List of {@link IResponseFilter}s. */
 	private List<IResponseFilter> responseFilters;
 
@@ -364,6 +373,99 @@ public class RequestCycleSettings
 		return this;
 	}
 
+	/**
+	 * Gets whether pages rendered directly are streamed to the client.
+	 *
+	 * @return whether pages are streamed
+	 * @see #setStreamingRender(boolean)
+	 */
+	public boolean getStreamingRender()
+	{
+		return streamingRender;
+	}
+
+	/**
+	 * Sets whether pages rendered directly, e.g. with {@link RenderStrategy#ONE_PASS_RENDER}, are
+	 * streamed to the client. The page's header and all markup before it are sent as soon as the
+	 * header is rendered, so the client can load CSS and JavaScript while the rest of the page is
+	 * rendered. Pages are not streamed when response filters are configured.
+	 * <p>
+	 * <strong>WARNING: </strong> after the header was sent, an exception or a call to
+	 * {@link org.apache.wicket.Component#setResponsePage(org.apache.wicket.request.component.IRequestablePage)}
+	 * while rendering can not replace the partially rendered page anymore. Cookies and headers set
+	 * afterwards are ignored by the servlet container. Defaults to {@code false}.
+	 *
+	 * @param streamingRender
+	 *            whether pages are streamed
+	 * @return {@code this} object for chaining
+	 */
+	public RequestCycleSettings setStreamingRender(boolean streamingRender)
+	{
+		this.streamingRender = streamingRender;
+		return this;
+	}
+
+	/**
+	 * Gets whether Ajax responses are streamed to the client.
+	 *
+	 * @return whether Ajax responses are streamed
+	 * @see #setStreamingAjaxResponse(boolean)
+	 */
+	public boolean getStreamingAjaxResponse()
+	{
+		return streamingAjaxResponse;
+	}
+
+	/**
+	 * Sets whether Ajax responses are streamed to the client. Each updated component is written to
+	 * the response as soon as it is rendered, instead of buffering the whole Ajax response first.
+	 * This lowers the memory needed for large updates, e.g. of big tables. Ajax responses are not
+	 * streamed when response filters are configured.
+	 * <p>
+	 * <strong>WARNING: </strong> once the servlet container has sent the first part of the
+	 * response, an exception while rendering can not be handled with an error page or a redirect
+	 * anymore, the client receives a malformed Ajax response. Defaults to {@code false}.
+	 *
+	 * @param streamingAjaxResponse
+	 *            whether Ajax responses are streamed
+	 * @return {@code this} object for chaining
+	 */
+	public RequestCycleSettings setStreamingAjaxResponse(boolean streamingAjaxResponse)
+	{
+		this.streamingAjaxResponse = streamingAjaxResponse;
+		return this;
+	}
+
+	/**
+	 * Gets whether the system mapper remembers the mapper of request handlers.
+	 *
+	 * @return whether mappers are remembered
+	 * @see #setRememberHandlerMappers(boolean)
+	 */
+	public boolean getRememberHandlerMappers()
+	{
+		return rememberHandlerMappers;
+	}
+
+	/**
+	 * Sets whether the {@link org.apache.wicket.SystemMapper} remembers the mapper which mapped a
+	 * page or resource reference handler, so following handlers with equal page class or resource
+	 * reference and equal parameter <em>names</em> are mapped by this mapper directly.
+	 * <p>
+	 * <strong>WARNING: </strong> mappers with a higher priority are skipped for these handlers, so
+	 * enable this only if no mapper decides on the <em>values</em> of parameters, e.g. a custom
+	 * locale or tenant mapper, or a mount with placeholder constraints. Defaults to {@code false}.
+	 *
+	 * @param rememberHandlerMappers
+	 *            whether mappers are remembered
+	 * @return {@code this} object for chaining
+	 */
+	public RequestCycleSettings setRememberHandlerMappers(boolean rememberHandlerMappers)
+	{
+		this.rememberHandlerMappers = rememberHandlerMappers;
+		return this;
+	}
+
 	/**
 	 * In order to do proper form parameter decoding it is important that the response and the
 	 * following request have the same encoding. see
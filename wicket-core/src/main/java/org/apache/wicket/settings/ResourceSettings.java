@@ -36,8 +36,10 @@ import org.apache.wicket.markup.head.ResourceAggregator.RecordedHeaderItem;
 import org.apache.wicket.markup.html.IPackageResourceGuard;
 import org.apache.wicket.markup.html.SecurePackageResourceGuard;
 import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.request.resource.CompressedResourceCache;
 import org.apache.wicket.request.resource.IResourceUrlSanitizer;
 import org.apache.wicket.request.resource.PackageResourceUrlSanitizer;
+import org.apache.wicket.request.resource.ProcessedResourceCache;
 import org.apache.wicket.request.resource.caching.FilenameWithVersionResourceCachingStrategy;
 import org.apache.wicket.request.resource.caching.IResourceCachingStrategy;
 import org.apache.wicket.request.resource.caching.NoOpResourceCachingStrategy;
@@ -159,6 +161,12 @@ public class ResourceSettings implements IPropertiesFactoryContext
 	/** The Css compressor */
 	private ICssCompressor cssCompressor;
 
+	/** Cache of compressed resources, transport compression is disabled if null */
+	private CompressedResourceCache compressedResourceCache;
+
+	/** Cache of processed resources, processed on each request if null */
+	private ProcessedResourceCache processedResourceCache;
+
 	/** escape string for '..' within resource keys */
 	private String parentFolderPlaceholder = "::";
 
@@ -604,6 +612,65 @@ public class ResourceSettings implements IPropertiesFactoryContext
 		return old;
 	}
 
+	/**
+	 * Get the cache of compressed resources.
+	 *
+	 * @return the cache, {@code null} if compression of resources is disabled
+	 * @see #setCompressedResourceCache(CompressedResourceCache)
+	 */
+	public CompressedResourceCache getCompressedResourceCache()
+	{
+		return compressedResourceCache;
+	}
+
+	/**
+	 * Set the cache of compressed resources. If set,
+	 * {@link org.apache.wicket.request.resource.PackageResource PackageResource}s and
+	 * {@link org.apache.wicket.resource.bundles.ConcatBundleResource ConcatBundleResource}s with
+	 * textual content are sent gzip compressed to all clients accepting it. A precompressed
+	 * {@code .gz} file next to a package resource is used as is, unless the resource is processed
+	 * by a compressor. Disabled by default.
+	 *
+	 * @param compressedResourceCache
+	 *            the cache, {@code null} disables compression of resources
+	 * @return {@code this} object for chaining
+	 */
+	public ResourceSettings setCompressedResourceCache(
+		CompressedResourceCache compressedResourceCache)
+	{
+		this.compressedResourceCache = compressedResourceCache;
+		return this;
+	}
+
+	/**
+	 * Get the cache of processed resources.
+	 *
+	 * @return the cache, {@code null} if resources are processed on each request
+	 * @see #setProcessedResourceCache(ProcessedResourceCache)
+	 */
+	public ProcessedResourceCache getProcessedResourceCache()
+	{
+		return processedResourceCache;
+	}
+
+	/**
+	 * Set the cache of processed resources. If set, the content of
+	 * {@link org.apache.wicket.request.resource.PackageResource PackageResource}s is read and
+	 * processed, e.g. by the {@link #getJavaScriptCompressor() JavaScript} or
+	 * {@link #getCssCompressor() CSS compressor}, once per modification only, for the resource
+	 * itself and for all bundles containing it. Disabled by default.
+	 *
+	 * @param processedResourceCache
+	 *            the cache, {@code null} to process resources on each request
+	 * @return {@code this} object for chaining
+	 */
+	public ResourceSettings setProcessedResourceCache(
+		ProcessedResourceCache processedResourceCache)
+	{
+		this.processedResourceCache = processedResourceCache;
+		return this;
+	}
+
 	/**
 	 * Placeholder string for '..' within resource urls (which will be crippled by the browser and
 	 * not work anymore). Note that by default the placeholder string is <code>::</code>. Resources
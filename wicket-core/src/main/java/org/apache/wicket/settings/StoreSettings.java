@@ -47,6 +47,10 @@ public class StoreSettings
 
 	private int asynchronousQueueCapacity = DEFAULT_ASYNCHRONOUS_QUEUE_CAPACITY;
 
+	private int asynchronousWorkers = 1;
+
+	private boolean asynchronousVirtualThreads = false;
+
 	private boolean asynchronous = true;
 	
 	private boolean encrypted = false;
@@ -159,6 +163,60 @@ public class StoreSettings
 		return this;
 	}
 
+	/**
+	 * @return the number of workers storing pages asynchronously
+	 * @see org.apache.wicket.pageStore.AsynchronousPageStore
+	 */
+	public int getAsynchronousWorkers()
+	{
+		return asynchronousWorkers;
+	}
+
+	/**
+	 * Sets the number of workers storing pages asynchronously. Each worker has its own queue with
+	 * the capacity of {@link #getAsynchronousQueueCapacity()}, pages of a single session are always
+	 * stored by the same worker.
+	 *
+	 * @param workers
+	 *            the number of workers
+	 * @see org.apache.wicket.pageStore.AsynchronousPageStore
+	 * @return {@code this} object for chaining
+	 */
+	public StoreSettings setAsynchronousWorkers(int workers)
+	{
+		if (workers < 1)
+		{
+			throw new IllegalArgumentException(
+				"The number of asynchronous workers should be at least 1.");
+		}
+		asynchronousWorkers = workers;
+		return this;
+	}
+
+	/**
+	 * @return {@code true} if the workers storing pages asynchronously run on virtual threads
+	 * @see org.apache.wicket.pageStore.AsynchronousPageStore
+	 */
+	public boolean isAsynchronousVirtualThreads()
+	{
+		return asynchronousVirtualThreads;
+	}
+
+	/**
+	 * Sets a flag whether the workers storing pages asynchronously run on virtual threads instead of
+	 * platform threads.
+	 *
+	 * @param virtualThreads
+	 *            {@code true} to use virtual threads, {@code false} - otherwise
+	 * @see org.apache.wicket.pageStore.AsynchronousPageStore
+	 * @return {@code this} object for chaining
+	 */
+	public StoreSettings setAsynchronousVirtualThreads(boolean virtualThreads)
+	{
+		asynchronousVirtualThreads = virtualThreads;
+		return this;
+	}
+
 	/**
 	 * Sets a flag whether to wrap the configured {@link org.apache.wicket.pageStore.IPageStore} with
 	 * {@link org.apache.wicket.pageStore.AsynchronousPageStore}. By doing this the HTTP worker thread will not wait for the
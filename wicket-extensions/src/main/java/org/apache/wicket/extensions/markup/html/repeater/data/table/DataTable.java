@@ -376,6 +376,15 @@ public class DataTable<T, S> extends Panel implements IPageableItems
 		return datagrid.getItemCount();
 	}
 
+	/**
+	 * @see org.apache.wicket.markup.html.navigation.paging.IPageableItems#isItemCountExact()
+	 */
+	@Override
+	public boolean isItemCountExact()
+	{
+		return datagrid.isItemCountExact();
+	}
+
 	private void addToolbar(final AbstractToolbar toolbar, final ToolbarsContainer container)
 	{
 		Args.notNull(toolbar, "toolbar");
@@ -20,6 +20,7 @@ package org.apache.wicket.extensions.markup.html.repeater.data.table;
 import org.apache.wicket.util.io.IClusterable;
 import org.apache.wicket.markup.html.basic.Label;
 import org.apache.wicket.markup.html.navigation.paging.IPageableItems;
+import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
 import org.apache.wicket.model.StringResourceModel;
 
@@ -27,7 +28,10 @@ import org.apache.wicket.model.StringResourceModel;
 /**
  * Label that provides Showing x to y of z message given for a DataTable. The message can be
  * overridden using the <code>NavigatorLabel</code> property key, the default message is used is of
- * the format <code>Showing ${from} to ${to} of ${of}</code>. The message can also be configured
+ * the format <code>Showing ${from} to ${to} of ${of}</code>. If the item count is not
+ * {@link IPageableItems#isItemCountExact() exact}, the open-ended message of the
+ * <code>NavigatorLabel.open</code> property key is used, by default
+ * <code>Showing ${from} to ${to} of many</code>. The message can also be configured
  * pragmatically by setting it as the model object of the label.
  * 
  * @author Igor Vaynberg (ivaynberg)
@@ -46,8 +50,29 @@ public class NavigatorLabel extends Label
 	public NavigatorLabel(final String id, final IPageableItems pageable)
 	{
 		super(id);
-		setDefaultModel(new StringResourceModel("NavigatorLabel", this,
-			new Model<>(new LabelModelObject(pageable))));
+
+		final IModel<LabelModelObject> labelModelObject = new Model<>(new LabelModelObject(pageable));
+		final IModel<String> exact = new StringResourceModel("NavigatorLabel", this,
+			labelModelObject);
+		final IModel<String> open = new StringResourceModel("NavigatorLabel.open", this,
+			labelModelObject);
+		setDefaultModel(new IModel<String>()
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public String getObject()
+			{
+				return pageable.isItemCountExact() ? exact.getObject() : open.getObject();
+			}
+
+			@Override
+			public void detach()
+			{
+				exact.detach();
+				open.detach();
+			}
+		});
 	}
 
 	public static class LabelModelObject implements IClusterable
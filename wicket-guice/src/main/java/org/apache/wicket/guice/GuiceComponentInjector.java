@@ -122,6 +122,12 @@ public class GuiceComponentInjector extends org.apache.wicket.injection.Injector
 		inject(object, fieldValueFactory);
 	}
 
+	@Override
+	public void prepare(final Class<?>... classes)
+	{
+		prepare(fieldValueFactory, classes);
+	}
+
 	@Override
 	public void onInstantiation(final Component component)
 	{
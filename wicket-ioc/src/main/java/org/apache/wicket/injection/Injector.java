@@ -16,18 +16,27 @@
  */
 package org.apache.wicket.injection;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.proxy.LazyInitProxyFactory;
 import org.apache.wicket.util.collections.ClassMetaCache;
 
 /**
  * Injector scans fields of an object instance and checks if the specified
  * {@link IFieldValueFactory} can provide a value for a field; if it can, the field is set to that
  * value. Injector will ignore all non-null fields.
+ * <p>
+ * The fields to inject are looked up once per class and kept as a plan with method handles to read
+ * and write them. Plans and proxy classes can be prepared at startup with {@link #prepare(Class...)},
+ * so the first instantiation of a component does not have to pay for them.
  * 
  * @author Igor Vaynberg (ivaynberg)
  * 
@@ -39,7 +48,12 @@ public abstract class Injector
 		private static final long serialVersionUID = 1L;
 	};
 
-	private final ClassMetaCache<Field[]> cache = new ClassMetaCache<>();
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class,
+		Object.class);
+
+	private final ClassMetaCache<InjectedField[]> cache = new ClassMetaCache<>();
 
 	/**
 	 * Binds current instance of the injector to the Application. After this method is called this
@@ -71,6 +85,39 @@ public abstract class Injector
 	 */
 	public abstract void inject(Object object);
 
+	/**
+	 * Prepares the injection of instances of the specified classes, e.g. at application startup.
+	 * This method is usually implemented by delegating to
+	 * {@link #prepare(IFieldValueFactory, Class...)} with some {@link IFieldValueFactory}, by
+	 * default it does nothing.
+	 * 
+	 * @param classes
+	 *            classes of components or behaviors to be injected
+	 * 
+	 * @see #prepare(IFieldValueFactory, Class...)
+	 */
+	public void prepare(final Class<?>... classes)
+	{
+	}
+
+	/**
+	 * Looks up the fields of the specified classes that can be injected using the given field
+	 * value factory, and generates the classes of the lazy init proxies for their types.
+	 * 
+	 * @param factory
+	 * @param classes
+	 */
+	protected void prepare(final IFieldValueFactory factory, final Class<?>... classes)
+	{
+		for (Class<?> clazz : classes)
+		{
+			for (InjectedField injected : getFields(clazz, factory))
+			{
+				LazyInitProxyFactory.prepareProxyClass(injected.field.getType());
+			}
+		}
+	}
+
 	/**
 	 * traverse fields in the class hierarchy of the object and set their value with a locator
 	 * provided by the locator factory.
@@ -80,48 +127,21 @@ public abstract class Injector
 	 */
 	protected void inject(final Object object, final IFieldValueFactory factory)
 	{
-		final Class<?> clazz = object.getClass();
-
-		Field[] fields = null;
-
-		// try cache
-		fields = cache.get(clazz);
-
-		if (fields == null)
-		{
-			// cache miss, discover fields
-			fields = findFields(clazz, factory);
-
-			// write to cache
-			cache.put(clazz, fields);
-		}
-
-		for (final Field field : fields)
+		for (final InjectedField injected : getFields(object.getClass(), factory))
 		{
-			if (!field.canAccess(object))
-			{
-				field.setAccessible(true);
-			}
 			try
 			{
-
-				if (field.get(object) == null)
+				if (injected.get(object) == null)
 				{
-
-					Object value = factory.getFieldValue(field, object);
+					Object value = factory.getFieldValue(injected.field, object);
 
 					if (value != null)
 					{
-						field.set(object, value);
+						injected.set(object, value);
 					}
 				}
 			}
-			catch (IllegalArgumentException e)
-			{
-				throw new RuntimeException("error while injecting object [" + object.toString() +
-					"] of type [" + object.getClass().getName() + "]", e);
-			}
-			catch (IllegalAccessException e)
+			catch (IllegalArgumentException | ClassCastException | IllegalAccessException e)
 			{
 				throw new RuntimeException("error while injecting object [" + object.toString() +
 					"] of type [" + object.getClass().getName() + "]", e);
@@ -129,6 +149,25 @@ public abstract class Injector
 		}
 	}
 
+	/**
+	 * Returns the fields of a class that can be injected using the given field value factory
+	 */
+	private InjectedField[] getFields(final Class<?> clazz, final IFieldValueFactory factory)
+	{
+		// try cache
+		InjectedField[] fields = cache.get(clazz);
+
+		if (fields == null)
+		{
+			// cache miss, discover fields
+			fields = findFields(clazz, factory);
+
+			// write to cache
+			cache.put(clazz, fields);
+		}
+		return fields;
+	}
+
 	/**
 	 * Returns an array of fields that can be injected using the given field value factory
 	 * 
@@ -136,9 +175,9 @@ public abstract class Injector
 	 * @param factory
 	 * @return an array of fields that can be injected using the given field value factory
 	 */
-	private Field[] findFields(Class<?> clazz, final IFieldValueFactory factory)
+	private InjectedField[] findFields(Class<?> clazz, final IFieldValueFactory factory)
 	{
-		List<Field> matched = new ArrayList<>();
+		List<InjectedField> matched = new ArrayList<>();
 
 		while (clazz != null)
 		{
@@ -147,13 +186,103 @@ public abstract class Injector
 			{
 				if (factory.supportsField(field))
 				{
-					matched.add(field);
+					matched.add(new InjectedField(field));
 				}
 			}
 			clazz = clazz.getSuperclass();
 		}
 
-		return matched.toArray(new Field[matched.size()]);
+		return matched.toArray(new InjectedField[matched.size()]);
 	}
 
+	/**
+	 * A field to inject, with method handles to read and write it.
+	 */
+	private static final class InjectedField
+	{
+		private final Field field;
+
+		private final MethodHandle getter;
+
+		/** {@code null} if the field can not be written by a method handle, e.g. a static final field */
+		private final MethodHandle setter;
+
+		private InjectedField(final Field field)
+		{
+			this.field = field;
+
+			field.setAccessible(true);
+
+			boolean isStatic = Modifier.isStatic(field.getModifiers());
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			try
+			{
+				MethodHandle handle = lookup.unreflectGetter(field);
+				if (isStatic)
+				{
+					handle = MethodHandles.dropArguments(handle, 0, Object.class);
+				}
+				getter = handle.asType(GETTER_TYPE);
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new IllegalStateException(e);
+			}
+
+			MethodHandle handle;
+			try
+			{
+				handle = lookup.unreflectSetter(field);
+				if (isStatic)
+				{
+					handle = MethodHandles.dropArguments(handle, 0, Object.class);
+				}
+				handle = handle.asType(SETTER_TYPE);
+			}
+			catch (IllegalAccessException e)
+			{
+				handle = null;
+			}
+			setter = handle;
+		}
+
+		private Object get(final Object object)
+		{
+			try
+			{
+				return (Object)getter.invokeExact(object);
+			}
+			catch (RuntimeException | Error e)
+			{
+				throw e;
+			}
+			catch (Throwable e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+
+		private void set(final Object object, final Object value) throws IllegalAccessException
+		{
+			if (setter == null)
+			{
+				// let reflection report the failure
+				field.set(object, value);
+				return;
+			}
+
+			try
+			{
+				setter.invokeExact(object, value);
+			}
+			catch (RuntimeException | Error e)
+			{
+				throw e;
+			}
+			catch (Throwable e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+	}
 }
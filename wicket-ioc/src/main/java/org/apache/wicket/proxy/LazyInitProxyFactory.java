@@ -18,8 +18,8 @@ package org.apache.wicket.proxy;
 
 import java.io.ObjectStreamException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
+import java.lang.reflect.Modifier;
+import java.util.Set;
 
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.core.util.lang.WicketObjects;
@@ -96,7 +96,7 @@ public class LazyInitProxyFactory
 	/**
 	 * Primitive java types and their object wrappers
 	 */
-	private static final List<Class<?>> PRIMITIVES = Arrays.asList(String.class, byte.class, Byte.class,
+	private static final Set<Class<?>> PRIMITIVES = Set.of(String.class, byte.class, Byte.class,
 		short.class, Short.class, int.class, Integer.class, long.class, Long.class, float.class,
 		Float.class, double.class, Double.class, char.class, Character.class, boolean.class,
 		Boolean.class);
@@ -134,6 +134,41 @@ public class LazyInitProxyFactory
 		}
 	}
 	
+	/**
+	 * Generates the class of the lazy init proxies for the specified type ahead of the first
+	 * {@link #createProxy(Class, IProxyTargetLocator)}, e.g. at application startup. Types not
+	 * represented by a proxy and final classes are ignored.
+	 * 
+	 * @param type
+	 *            type that proxies will represent
+	 */
+	public static void prepareProxyClass(final Class<?> type)
+	{
+		if (PRIMITIVES.contains(type) || Enum.class.isAssignableFrom(type) || type.isArray() ||
+			(type.isInterface() == false && Modifier.isFinal(type.getModifiers())))
+		{
+			return;
+		}
+		else if (type.isInterface())
+		{
+			// the jdk caches the class of the proxy, the locator is never called
+			JDK_PROXY_FACTORY.createProxy(type, new IProxyTargetLocator()
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public <T> T locateProxyTarget()
+				{
+					return null;
+				}
+			});
+		}
+		else
+		{
+			ByteBuddyProxyFactory.createOrGetProxyClass(type);
+		}
+	}
+
 	/**
 	 * This interface is used to make the proxy forward writeReplace() call to the handler instead
 	 * of invoking it on itself. This allows us to serialize the replacement object instead of the
@@ -57,6 +57,30 @@ public class ByteBuddyProxyFactory implements IProxyFactory
 
 	private static final IInstantiator INSTANTIATOR = IInstantiator.getInstantiator();
 
+	/**
+	 * The no-arg constructors of the generated classes, {@code null} if the proxied type has none.
+	 */
+	private static final ClassValue<Constructor<?>> PROXY_CONSTRUCTORS = new ClassValue<>()
+	{
+		@Override
+		protected Constructor<?> computeValue(Class<?> proxyClass)
+		{
+			if (!hasNoArgConstructor(proxyClass.getSuperclass()))
+			{
+				return null;
+			}
+
+			try
+			{
+				return proxyClass.getDeclaredConstructor();
+			}
+			catch (NoSuchMethodException e)
+			{
+				throw new WicketRuntimeException(e);
+			}
+		}
+	};
+
 	/**
 	 * Create a lazy init proxy for the specified type. The target object will be located using the
 	 * provided locator upon first method invocation.
@@ -76,7 +100,8 @@ public class ByteBuddyProxyFactory implements IProxyFactory
 
 		T instance;
 
-		if (!hasNoArgConstructor(type))
+		Constructor<?> constructor = PROXY_CONSTRUCTORS.get(proxyClass);
+		if (constructor == null)
 		{
 			instance = INSTANTIATOR.newInstance(proxyClass);
 		}
@@ -84,9 +109,9 @@ public class ByteBuddyProxyFactory implements IProxyFactory
 		{
 			try
 			{
-				instance = proxyClass.getDeclaredConstructor().newInstance();
+				instance = proxyClass.cast(constructor.newInstance());
 			}
-			catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e)
+			catch (InstantiationException | IllegalAccessException | InvocationTargetException e)
 			{
 				throw new WicketRuntimeException(e);
 			}
@@ -59,6 +59,12 @@ public class InjectorTest
 			inject(object, factory);
 		}
 
+		@Override
+		public void prepare(final Class<?>... classes)
+		{
+			prepare(factory, classes);
+		}
+
 	}
 
 	/**
@@ -77,5 +83,27 @@ public class InjectorTest
 		assertEquals("inject", testObject.getDependency4().getMessage());
 	}
 
+	/**
+	 * Test injection with a prepared plan
+	 */
+	@Test
+	public void testPreparedInjection()
+	{
+		TestInjector injector = new TestInjector();
+		injector.prepare(TestObject.class);
+
+		for (int i = 0; i < 2; i++)
+		{
+			TestObject testObject = new TestObject();
+
+			injector.inject(testObject);
+
+			assertEquals("inject", testObject.getDependency1().getMessage());
+			assertEquals("dont-inject", testObject.getDependency2().getMessage());
+			assertEquals("dont-inject", testObject.getDependency3().getMessage());
+			assertEquals("inject", testObject.getDependency4().getMessage());
+		}
+	}
+
 
 }
@@ -27,6 +27,7 @@ import java.lang.reflect.Proxy;
 
 import org.apache.wicket.core.util.lang.WicketObjects;
 import org.apache.wicket.proxy.LazyInitProxyFactory.ProxyReplacement;
+import org.apache.wicket.proxy.bytebuddy.ByteBuddyProxyFactory;
 import org.apache.wicket.proxy.util.ConcreteObject;
 import org.apache.wicket.proxy.util.IInterface;
 import org.apache.wicket.proxy.util.IObjectMethodTester;
@@ -98,6 +99,23 @@ class LazyInitProxyFactoryTest
 		}
 	};
 
+	/**
+	 * Tests preparing the class of proxies
+	 */
+	@Test
+	void prepareProxyClass()
+	{
+		LazyInitProxyFactory.prepareProxyClass(ConcreteObject.class);
+		LazyInitProxyFactory.prepareProxyClass(IInterface.class);
+		LazyInitProxyFactory.prepareProxyClass(String.class);
+
+		ConcreteObject proxy = LazyInitProxyFactory.createProxy(ConcreteObject.class,
+			concreteObjectLocator);
+		assertSame(ByteBuddyProxyFactory.createOrGetProxyClass(ConcreteObject.class),
+			proxy.getClass());
+		assertEquals("concrete", proxy.getMessage());
+	}
+
 	/**
 	 * Tests lazy init proxy to represent interfaces
 	 */
@@ -41,6 +41,16 @@ public interface StoreSettingsMBean
 	 */
 	int getAsynchronousQueueCapacity();
 
+	/**
+	 * @return the number of workers storing pages asynchronously
+	 */
+	int getAsynchronousWorkers();
+
+	/**
+	 * @return {@code true} if the workers storing pages asynchronously run on virtual threads
+	 */
+	boolean isAsynchronousVirtualThreads();
+
 	/**
 	 * @return {@code true} when the HTTP worker thread doesn't wait for the storing of the page's
 	 *         bytes in {@link org.apache.wicket.pageStore.IPageStore}
@@ -54,6 +54,18 @@ public class StoreSettings implements StoreSettingsMBean
 		return application.getStoreSettings().getAsynchronousQueueCapacity();
 	}
 
+	@Override
+	public int getAsynchronousWorkers()
+	{
+		return application.getStoreSettings().getAsynchronousWorkers();
+	}
+
+	@Override
+	public boolean isAsynchronousVirtualThreads()
+	{
+		return application.getStoreSettings().isAsynchronousVirtualThreads();
+	}
+
 	@Override
 	public boolean isAsynchronous()
 	{
@@ -31,6 +31,9 @@ import org.apache.wicket.util.lang.Args;
 
 /**
  * Allows pushing events for processing to Pages that have active web sockets.
+ * <p>
+ * With a {@link VirtualThreadExecutor} the messages for each connection are processed in order,
+ * without slow connections holding up the others.
  *
  * @since 6.4
  * @author Mikko Tiihonen
@@ -177,6 +180,39 @@ public class WebSocketPushBroadcaster
 		process(application, wsConnections, message);
 	}
 
+	/**
+	 * Processes the given message in all pages of the given Web Socket connections, e.g. as looked up
+	 * in an {@link org.apache.wicket.protocol.ws.api.registry.IndexedWebSocketConnectionRegistry}.
+	 * The message is sent as an event to the Page and components of the session allowing the components
+	 * to be updated.
+	 *
+	 * This method can be invoked from any thread, even a non-wicket thread. By default all processing
+	 * is done in the caller thread. Use
+	 * {@link WebSocketSettings#setWebSocketPushMessageExecutor(org.apache.wicket.protocol.ws.concurrent.Executor)}
+	 * to move processing to background threads.
+	 *
+	 * If some connections are not in valid state they are silently ignored.
+	 *
+	 * @param application
+	 *			The wicket application
+	 * @param wsConnections
+	 *			The Web Socket connections
+	 * @param message
+	 *			The push message event
+	 */
+	public void broadcastAll(Application application, Collection<IWebSocketConnection> wsConnections, IWebSocketPushMessage message)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(wsConnections, "wsConnections");
+		Args.notNull(message, "message");
+
+		if (wsConnections.isEmpty())
+		{
+			return;
+		}
+		process(application, wsConnections, message);
+	}
+
 	private void process(final Application application, final Collection<IWebSocketConnection> wsConnections,
 	                     final IWebSocketPushMessage message)
 	{
@@ -184,7 +220,7 @@ public class WebSocketPushBroadcaster
 		Executor executor = webSocketSettings.getWebSocketPushMessageExecutor();
 		for (final IWebSocketConnection wsConnection : wsConnections)
 		{
-			executor.run(new Runnable()
+			Runnable task = new Runnable()
 			{
 				@Override
 				public void run()
@@ -198,7 +234,10 @@ public class WebSocketPushBroadcaster
 						wsConnection.sendMessage(message);
 					}
 				}
-			});
+			};
+
+			// keep messages of each connection in order
+			executor.run(wsConnection, task);
 		}
 	}
 }
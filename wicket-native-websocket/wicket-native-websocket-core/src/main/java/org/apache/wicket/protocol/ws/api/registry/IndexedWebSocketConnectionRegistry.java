@@ -0,0 +1,441 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api.registry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.protocol.ws.api.IWebSocketConnection;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A registry indexing the connections by their {@link IKey#getContext() context} (by default the
+ * page class name), their resource name and custom tags, so the connections for one of these can
+ * be looked up without visiting all connections.
+ * <p>
+ * The returned collections are not copied for each call, they are views of the registry. They
+ * reflect connections added or removed while iterating, but should not be kept for later use.
+ *
+ * @see org.apache.wicket.protocol.ws.WebSocketSettings#setConnectionRegistry(IWebSocketConnectionRegistry)
+ */
+public class IndexedWebSocketConnectionRegistry implements IWebSocketConnectionRegistry
+{
+	private static final MetaDataKey<Connections> KEY = new MetaDataKey<>()
+	{
+	};
+
+	@Override
+	public IWebSocketConnection getConnection(Application application, String sessionId, IKey key)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(sessionId, "sessionId");
+		Args.notNull(key, "key");
+
+		Connections connections = application.getMetaData(KEY);
+		if (connections != null)
+		{
+			ConcurrentMap<IKey, Entry> entries = connections.bySession.get(sessionId);
+			if (entries != null)
+			{
+				Entry entry = entries.get(key);
+				if (entry != null)
+				{
+					return entry.connection;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Collection<IWebSocketConnection> getConnections(Application application, String sessionId)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(sessionId, "sessionId");
+
+		Connections connections = application.getMetaData(KEY);
+		if (connections == null)
+		{
+			return Collections.emptyList();
+		}
+		ConcurrentMap<IKey, Entry> entries = connections.bySession.get(sessionId);
+		if (entries == null)
+		{
+			return Collections.emptyList();
+		}
+
+		Collection<IWebSocketConnection> result = new ArrayList<>(entries.size());
+		for (Entry entry : entries.values())
+		{
+			result.add(entry.connection);
+		}
+		return result;
+	}
+
+	@Override
+	public Collection<IWebSocketConnection> getConnections(Application application,
+		IConnectionsFilter connectionsFilter)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(connectionsFilter, "connectionsFilter");
+
+		Collection<IWebSocketConnection> result = new ArrayList<>();
+		Connections connections = application.getMetaData(KEY);
+		if (connections != null)
+		{
+			for (Entry entry : connections.all.keySet())
+			{
+				if (connectionsFilter.accept(entry.sessionId, entry.key))
+				{
+					result.add(entry.connection);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a live view of the currently active websockets.
+	 */
+	@Override
+	public Collection<IWebSocketConnection> getConnections(Application application)
+	{
+		Args.notNull(application, "application");
+
+		Connections connections = application.getMetaData(KEY);
+		if (connections == null)
+		{
+			return Collections.emptyList();
+		}
+		return connections.all.values();
+	}
+
+	/**
+	 * Get the connections with the given context.
+	 *
+	 * @param application
+	 *            the web application to look in
+	 * @param context
+	 *            the context of the connections, by default the page class name
+	 * @return a live view of the connections
+	 * @see IKey#getContext()
+	 */
+	public Collection<IWebSocketConnection> getConnectionsByContext(Application application,
+		String context)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(context, "context");
+
+		Connections connections = application.getMetaData(KEY);
+		return connections == null ? Collections.emptyList() : connections.byContext.get(context);
+	}
+
+	/**
+	 * Get the connections to the shared resource with the given name.
+	 *
+	 * @param application
+	 *            the web application to look in
+	 * @param resourceName
+	 *            the name of the shared resource
+	 * @return a live view of the connections
+	 */
+	public Collection<IWebSocketConnection> getConnectionsByResourceName(Application application,
+		String resourceName)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(resourceName, "resourceName");
+
+		Connections connections = application.getMetaData(KEY);
+		return connections == null ? Collections.emptyList()
+			: connections.byResourceName.get(resourceName);
+	}
+
+	/**
+	 * Get the connections with the given tag.
+	 *
+	 * @param application
+	 *            the web application to look in
+	 * @param tag
+	 *            the tag
+	 * @return a live view of the connections
+	 * @see #tag(Application, String, IKey, String)
+	 */
+	public Collection<IWebSocketConnection> getConnectionsByTag(Application application, String tag)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(tag, "tag");
+
+		Connections connections = application.getMetaData(KEY);
+		return connections == null ? Collections.emptyList() : connections.byTag.get(tag);
+	}
+
+	/**
+	 * Tag a connection, e.g. with the topic a client is interested in. The tag is removed
+	 * automatically when the connection is removed.
+	 *
+	 * @param application
+	 *            the web application to look in
+	 * @param sessionId
+	 *            the http session id
+	 * @param key
+	 *            the web socket client key
+	 * @param tag
+	 *            the tag
+	 * @return {@code false} if there is no such connection
+	 */
+	public boolean tag(Application application, String sessionId, IKey key, String tag)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(sessionId, "sessionId");
+		Args.notNull(key, "key");
+		Args.notNull(tag, "tag");
+
+		Connections connections = application.getMetaData(KEY);
+		if (connections == null)
+		{
+			return false;
+		}
+
+		synchronized (connections)
+		{
+			Entry entry = connections.getEntry(sessionId, key);
+			if (entry == null)
+			{
+				return false;
+			}
+			if (entry.tags.add(tag))
+			{
+				connections.byTag.add(tag, entry);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Remove a tag from a connection.
+	 *
+	 * @param application
+	 *            the web application to look in
+	 * @param sessionId
+	 *            the http session id
+	 * @param key
+	 *            the web socket client key
+	 * @param tag
+	 *            the tag
+	 */
+	public void untag(Application application, String sessionId, IKey key, String tag)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(sessionId, "sessionId");
+		Args.notNull(key, "key");
+		Args.notNull(tag, "tag");
+
+		Connections connections = application.getMetaData(KEY);
+		if (connections == null)
+		{
+			return;
+		}
+
+		synchronized (connections)
+		{
+			Entry entry = connections.getEntry(sessionId, key);
+			if (entry != null && entry.tags.remove(tag))
+			{
+				connections.byTag.remove(tag, entry);
+			}
+		}
+	}
+
+	@Override
+	public void setConnection(Application application, String sessionId, IKey key,
+		IWebSocketConnection connection)
+	{
+		Args.notNull(application, "application");
+		Args.notNull(sessionId, "sessionId");
+		Args.notNull(key, "key");
+
+		Connections connections = application.getMetaData(KEY);
+		if (connections == null)
+		{
+			if (connection == null)
+			{
+				return;
+			}
+
+			synchronized (KEY)
+			{
+				connections = application.getMetaData(KEY);
+				if (connections == null)
+				{
+					connections = new Connections();
+					application.setMetaData(KEY, connections);
+				}
+			}
+		}
+
+		synchronized (connections)
+		{
+			Entry old = connections.getEntry(sessionId, key);
+			if (old != null)
+			{
+				connections.remove(old);
+			}
+
+			if (connection != null)
+			{
+				Entry entry = new Entry(sessionId, key, connection);
+				if (old != null)
+				{
+					// keep the tags of a replaced connection
+					entry.tags.addAll(old.tags);
+				}
+				connections.add(entry);
+			}
+		}
+	}
+
+	@Override
+	public void removeConnection(Application application, String sessionId, IKey key)
+	{
+		setConnection(application, sessionId, key, null);
+	}
+
+	private static String getResourceName(IKey key)
+	{
+		if (key instanceof ResourceNameKey)
+		{
+			return ((ResourceNameKey)key).getResourceName();
+		}
+		else if (key instanceof ResourceNameTokenKey)
+		{
+			return ((ResourceNameTokenKey)key).getResourceName();
+		}
+		return null;
+	}
+
+	/**
+	 * A registered connection.
+	 */
+	private static class Entry
+	{
+		private final String sessionId;
+
+		private final IKey key;
+
+		private final IWebSocketConnection connection;
+
+		private final Set<String> tags = ConcurrentHashMap.newKeySet();
+
+		private Entry(String sessionId, IKey key, IWebSocketConnection connection)
+		{
+			this.sessionId = sessionId;
+			this.key = key;
+			this.connection = connection;
+		}
+	}
+
+	/**
+	 * Connections by some index value.
+	 */
+	private static class Index
+	{
+		private final ConcurrentMap<String, ConcurrentMap<Entry, IWebSocketConnection>> entries = new ConcurrentHashMap<>();
+
+		private Collection<IWebSocketConnection> get(String value)
+		{
+			ConcurrentMap<Entry, IWebSocketConnection> connections = entries.get(value);
+			return connections == null ? Collections.emptyList() : connections.values();
+		}
+
+		private void add(String value, Entry entry)
+		{
+			if (value != null)
+			{
+				entries.computeIfAbsent(value, v -> new ConcurrentHashMap<>())
+					.put(entry, entry.connection);
+			}
+		}
+
+		private void remove(String value, Entry entry)
+		{
+			if (value != null)
+			{
+				entries.computeIfPresent(value, (v, connections) -> {
+					connections.remove(entry);
+					return connections.isEmpty() ? null : connections;
+				});
+			}
+		}
+	}
+
+	/**
+	 * All connections of an application. Modifications are synchronized on this instance, lookups
+	 * are lock free.
+	 */
+	private static class Connections
+	{
+		private final ConcurrentMap<String, ConcurrentMap<IKey, Entry>> bySession = new ConcurrentHashMap<>();
+
+		private final ConcurrentMap<Entry, IWebSocketConnection> all = new ConcurrentHashMap<>();
+
+		private final Index byContext = new Index();
+
+		private final Index byResourceName = new Index();
+
+		private final Index byTag = new Index();
+
+		private Entry getEntry(String sessionId, IKey key)
+		{
+			ConcurrentMap<IKey, Entry> entries = bySession.get(sessionId);
+			return entries == null ? null : entries.get(key);
+		}
+
+		private void add(Entry entry)
+		{
+			bySession.computeIfAbsent(entry.sessionId, id -> new ConcurrentHashMap<>())
+				.put(entry.key, entry);
+			all.put(entry, entry.connection);
+			byContext.add(entry.key.getContext(), entry);
+			byResourceName.add(getResourceName(entry.key), entry);
+			for (String tag : entry.tags)
+			{
+				byTag.add(tag, entry);
+			}
+		}
+
+		private void remove(Entry entry)
+		{
+			bySession.computeIfPresent(entry.sessionId, (id, entries) -> {
+				entries.remove(entry.key, entry);
+				return entries.isEmpty() ? null : entries;
+			});
+			all.remove(entry);
+			byContext.remove(entry.key.getContext(), entry);
+			byResourceName.remove(getResourceName(entry.key), entry);
+			for (String tag : entry.tags)
+			{
+				byTag.remove(tag, entry);
+			}
+		}
+	}
+}
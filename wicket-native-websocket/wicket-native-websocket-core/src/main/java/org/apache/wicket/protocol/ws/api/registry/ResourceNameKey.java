@@ -36,6 +36,14 @@ public class ResourceNameKey extends AbstractKey
 		this.resourceName = Args.notNull(resourceName, "resourceName");
 	}
 
+	/**
+	 * @return the name of the shared resource
+	 */
+	public String getResourceName()
+	{
+		return resourceName;
+	}
+
 	@Override
 	public boolean equals(Object o)
 	{
@@ -41,6 +41,14 @@ public class ResourceNameTokenKey extends AbstractKey
 		this.connectionToken = Args.notNull(connectionToken, "connectionToken");
 	}
 
+	/**
+	 * @return the name of the shared resource
+	 */
+	public String getResourceName()
+	{
+		return resourceName;
+	}
+
 	@Override
 	public boolean equals(Object o)
 	{
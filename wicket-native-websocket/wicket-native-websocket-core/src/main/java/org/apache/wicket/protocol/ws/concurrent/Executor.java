@@ -29,4 +29,21 @@ public interface Executor
 	 * @see     java.lang.Thread#run()
 	 */
 	void run(Runnable command);
+
+	/**
+	 * Runs a task after all previously submitted tasks with an equal key, e.g. the messages pushed
+	 * to a Web Socket connection, so they are run in order.
+	 * <p>
+	 * This default implementation ignores the key and delegates to {@link #run(Runnable)}, it
+	 * keeps the order only if that runs tasks one after another.
+	 *
+	 * @param key
+	 *            key of the task
+	 * @param command
+	 *            task to run
+	 */
+	default void run(Object key, Runnable command)
+	{
+		run(command);
+	}
 }
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.wicket.util.lang.Args;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An executor running each task in a virtual thread.
+ * <p>
+ * Tasks submitted with a key (e.g. a Web Socket connection) are run one after another in the order
+ * of submission, so a slow receiver holds up its own tasks only. At most {@code capacity} tasks
+ * are pending for each key, further tasks are handled according to the {@link Overflow} policy.
+ *
+ * @see org.apache.wicket.protocol.ws.WebSocketSettings#setWebSocketPushMessageExecutor(Executor)
+ */
+public class VirtualThreadExecutor implements Executor
+{
+	private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadExecutor.class);
+
+	/**
+	 * What to do with a task, when there are already {@code capacity} tasks pending for its key.
+	 */
+	public enum Overflow
+	{
+		/**
+		 * Discard the oldest pending task.
+		 */
+		DROP_OLDEST,
+
+		/**
+		 * Discard the new task.
+		 */
+		DROP_NEWEST,
+
+		/**
+		 * Discard all pending tasks, only the new task is kept.
+		 */
+		COALESCE
+	}
+
+	private final int capacity;
+
+	private final Overflow overflow;
+
+	private final ConcurrentMap<Object, Lane> lanes = new ConcurrentHashMap<>();
+
+	private final LongAdder dropped = new LongAdder();
+
+	private final AtomicInteger counter = new AtomicInteger();
+
+	/**
+	 * Constructor with a capacity of 16 pending tasks per key, dropping the oldest ones.
+	 */
+	public VirtualThreadExecutor()
+	{
+		this(16, Overflow.DROP_OLDEST);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param capacity
+	 *            maximum count of pending tasks per key
+	 * @param overflow
+	 *            what to do with tasks exceeding the capacity
+	 */
+	public VirtualThreadExecutor(int capacity, Overflow overflow)
+	{
+		this.capacity = Args.withinRange(1, Integer.MAX_VALUE, capacity, "capacity");
+		this.overflow = Args.notNull(overflow, "overflow");
+	}
+
+	/**
+	 * Runs the task in a new virtual thread.
+	 */
+	@Override
+	public void run(Runnable command)
+	{
+		Thread.ofVirtual()
+			.name("Wicket-WebSocket-Push-Thread-" + counter.getAndIncrement())
+			.start(() -> execute(command));
+	}
+
+	/**
+	 * Runs the task in a virtual thread, after all previously submitted tasks with an equal key
+	 * have been run.
+	 *
+	 * @param key
+	 *            key of the task
+	 * @param command
+	 *            task to run
+	 */
+	@Override
+	public void run(Object key, Runnable command)
+	{
+		Args.notNull(key, "key");
+		Args.notNull(command, "command");
+
+		while (true)
+		{
+			Lane lane = lanes.computeIfAbsent(key, Lane::new);
+			if (lane.offer(command))
+			{
+				return;
+			}
+
+			// lane was just retired, retry with a new one
+		}
+	}
+
+	/**
+	 * Get the count of tasks discarded because of the overflow policy.
+	 *
+	 * @return count of discarded tasks
+	 */
+	public long getDroppedCount()
+	{
+		return dropped.sum();
+	}
+
+	private void execute(Runnable command)
+	{
+		try
+		{
+			command.run();
+		}
+		catch (RuntimeException ex)
+		{
+			LOG.error("An error occurred while running a Web Socket push task", ex);
+		}
+	}
+
+	/**
+	 * Pending tasks of a key, run by at most one virtual thread at a time.
+	 */
+	private class Lane implements Runnable
+	{
+		private final Object key;
+
+		private final Deque<Runnable> pending = new ArrayDeque<>();
+
+		private boolean running;
+
+		private boolean retired;
+
+		private Lane(Object key)
+		{
+			this.key = key;
+		}
+
+		/**
+		 * Offer a task.
+		 *
+		 * @return {@code false} if this lane is retired and cannot take any more tasks
+		 */
+		private synchronized boolean offer(Runnable command)
+		{
+			if (retired)
+			{
+				return false;
+			}
+
+			if (pending.size() >= capacity)
+			{
+				switch (overflow)
+				{
+					case DROP_OLDEST :
+						pending.pollFirst();
+						dropped.increment();
+						break;
+					case DROP_NEWEST :
+						dropped.increment();
+						return true;
+					case COALESCE :
+						dropped.add(pending.size());
+						pending.clear();
+						break;
+				}
+			}
+			pending.addLast(command);
+
+			if (running == false)
+			{
+				running = true;
+				VirtualThreadExecutor.this.run(this);
+			}
+			return true;
+		}
+
+		private synchronized Runnable poll()
+		{
+			Runnable next = pending.pollFirst();
+			if (next == null)
+			{
+				running = false;
+				retired = true;
+				lanes.remove(key, this);
+			}
+			return next;
+		}
+
+		@Override
+		public void run()
+		{
+			Runnable next;
+			while ((next = poll()) != null)
+			{
+				execute(next);
+			}
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.api.registry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Set;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.protocol.ws.api.IWebSocketConnection;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link IndexedWebSocketConnectionRegistry}.
+ */
+class IndexedWebSocketConnectionRegistryTest extends WicketTestCase
+{
+	private final IndexedWebSocketConnectionRegistry registry = new IndexedWebSocketConnectionRegistry();
+
+	@Test
+	void indexes()
+	{
+		Application application = tester.getApplication();
+
+		IWebSocketConnection page1 = mock(IWebSocketConnection.class);
+		IWebSocketConnection page2 = mock(IWebSocketConnection.class);
+		IWebSocketConnection resource = mock(IWebSocketConnection.class);
+
+		registry.setConnection(application, "s1", new PageIdKey(1, "HomePage"), page1);
+		registry.setConnection(application, "s2", new PageIdKey(1, "HomePage"), page2);
+		registry.setConnection(application, "s2", new ResourceNameTokenKey("res", "token"), resource);
+
+		assertSame(page2, registry.getConnection(application, "s2", new PageIdKey(1)));
+		assertEquals(Set.of(page2, resource), Set.copyOf(registry.getConnections(application, "s2")));
+		assertEquals(Set.of(page1, page2, resource), Set.copyOf(registry.getConnections(application)));
+		assertEquals(Set.of(page1, page2),
+			Set.copyOf(registry.getConnectionsByContext(application, "HomePage")));
+		assertEquals(Set.of(resource),
+			Set.copyOf(registry.getConnectionsByResourceName(application, "res")));
+
+		registry.removeConnection(application, "s1", new PageIdKey(1));
+
+		assertNull(registry.getConnection(application, "s1", new PageIdKey(1)));
+		assertEquals(Set.of(page2),
+			Set.copyOf(registry.getConnectionsByContext(application, "HomePage")));
+		assertEquals(Set.of(page2, resource), Set.copyOf(registry.getConnections(application)));
+	}
+
+	@Test
+	void tags()
+	{
+		Application application = tester.getApplication();
+
+		IWebSocketConnection connection = mock(IWebSocketConnection.class);
+		PageIdKey key = new PageIdKey(1);
+
+		assertFalse(registry.tag(application, "s1", key, "news"));
+
+		registry.setConnection(application, "s1", key, connection);
+		assertTrue(registry.tag(application, "s1", key, "news"));
+		assertEquals(Set.of(connection), Set.copyOf(registry.getConnectionsByTag(application, "news")));
+
+		registry.untag(application, "s1", key, "news");
+		assertTrue(registry.getConnectionsByTag(application, "news").isEmpty());
+
+		registry.tag(application, "s1", key, "news");
+		registry.removeConnection(application, "s1", key);
+		assertTrue(registry.getConnectionsByTag(application, "news").isEmpty());
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.ws.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.wicket.protocol.ws.concurrent.VirtualThreadExecutor.Overflow;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link VirtualThreadExecutor}.
+ */
+class VirtualThreadExecutorTest
+{
+	@Test
+	void keyedTasksRunInOrder() throws Exception
+	{
+		VirtualThreadExecutor executor = new VirtualThreadExecutor(1000, Overflow.DROP_NEWEST);
+
+		List<Integer> done = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(100);
+		for (int i = 0; i < 100; i++)
+		{
+			int n = i;
+			executor.run("key", () -> {
+				done.add(n);
+				latch.countDown();
+			});
+		}
+
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < 100; i++)
+		{
+			assertEquals(i, done.get(i));
+		}
+		assertEquals(0, executor.getDroppedCount());
+	}
+
+	@Test
+	void dropOldest() throws Exception
+	{
+		assertOverflow(Overflow.DROP_OLDEST, List.of("blocker", "b", "c"), 1);
+	}
+
+	@Test
+	void dropNewest() throws Exception
+	{
+		assertOverflow(Overflow.DROP_NEWEST, List.of("blocker", "a", "b"), 1);
+	}
+
+	@Test
+	void coalesce() throws Exception
+	{
+		assertOverflow(Overflow.COALESCE, List.of("blocker", "c"), 2);
+	}
+
+	/**
+	 * Submits "a", "b" and "c" while the key is blocked, with a capacity of 2.
+	 */
+	private void assertOverflow(Overflow overflow, List<String> expected, long dropped)
+		throws Exception
+	{
+		VirtualThreadExecutor executor = new VirtualThreadExecutor(2, overflow);
+
+		List<String> done = new CopyOnWriteArrayList<>();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		executor.run("key", () -> {
+			started.countDown();
+			try
+			{
+				blocked.await();
+			}
+			catch (InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+			}
+			done.add("blocker");
+		});
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		executor.run("key", () -> done.add("a"));
+		executor.run("key", () -> done.add("b"));
+		executor.run("key", () -> done.add("c"));
+
+		blocked.countDown();
+		long deadline = System.currentTimeMillis() + 10000;
+		while (done.size() < expected.size() && System.currentTimeMillis() < deadline)
+		{
+			Thread.sleep(10);
+		}
+
+		assertEquals(expected, done);
+		assertEquals(dropped, executor.getDroppedCount());
+	}
+}
@@ -17,10 +17,15 @@
 package org.apache.wicket.request.mapper;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.wicket.request.IRequestHandler;
 import org.apache.wicket.request.IRequestMapper;
@@ -34,6 +39,13 @@ import org.slf4j.LoggerFactory;
  * Thread safe compound {@link IRequestMapper}. The mappers are searched depending on their
  * compatibility score and the orders they were registered. If two or more {@link IRequestMapper}s
  * have the same compatibility score, the last registered mapper has highest priority.
+ * <p>
+ * {@link IPrefixedRequestMapper}s are indexed by their prefix segments, so only those are asked for
+ * their compatibility score, whose prefix matches the request's URL.
+ * <p>
+ * For handlers with a {@link #getHandlerKey(IRequestHandler) key}, the mapper which mapped the
+ * handler is remembered, so following handlers with an equal key are mapped by this mapper
+ * directly.
  * 
  * @author igor.vaynberg
  * @author Matej Knopp
@@ -95,25 +107,45 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 		}
 	}
 
+	/**
+	 * Maximum count of handler keys to remember the mapper for.
+	 */
+	private static final int MAX_HANDLER_KEYS = 1000;
+
 	private final List<IRequestMapper> mappers = new CopyOnWriteArrayList<>();
 
+	private volatile Index index = new Index(mappers);
+
+	private final LongAdder handlerCacheHits = new LongAdder();
+
+	private final LongAdder handlerCacheMisses = new LongAdder();
+
 	@Override
 	public CompoundRequestMapper add(final IRequestMapper mapper)
 	{
-		mappers.add(0, mapper);
+		synchronized (mappers)
+		{
+			mappers.add(0, mapper);
+			index = new Index(mappers);
+		}
 		return this;
 	}
 
 	@Override
 	public CompoundRequestMapper remove(final IRequestMapper mapper)
 	{
-		mappers.remove(mapper);
+		synchronized (mappers)
+		{
+			mappers.remove(mapper);
+			index = new Index(mappers);
+		}
 		return this;
 	}
 
 	/**
 	 * Searches the registered {@link IRequestMapper}s to find one that can map the {@link Request}.
-	 * Each registered {@link IRequestMapper} is asked to provide its compatibility score. Then the
+	 * Each registered {@link IRequestMapper} is asked to provide its compatibility score (except
+	 * {@link IPrefixedRequestMapper}s not matching the URL, these have a score of 0). Then the
 	 * mappers are asked to map the request in order depending on the provided compatibility
 	 * score.
 	 * <p>
@@ -126,12 +158,24 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 	@Override
 	public IRequestHandler mapRequest(final Request request)
 	{
-		List<MapperWithScore> list = new ArrayList<>(mappers.size());
+		Index index = this.index;
+
+		// all other mappers have a score of 0
+		BitSet candidates = index.getCandidates(request);
 
-		for (IRequestMapper mapper : this)
+		List<MapperWithScore> list = new ArrayList<>(candidates.cardinality());
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1))
 		{
+			IRequestMapper mapper = index.mappers[i];
 			int score = mapper.getCompatibilityScore(request);
-			list.add(new MapperWithScore(mapper, score));
+			if (score == 0)
+			{
+				candidates.clear(i);
+			}
+			else
+			{
+				list.add(new MapperWithScore(mapper, score));
+			}
 		}
 
 		Collections.sort(list);
@@ -141,10 +185,30 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 			logMappers(list, request.getUrl().toString());
 		}
 
-		for (MapperWithScore mapperWithScore : list)
+		int next = 0;
+		for (; next < list.size() && list.get(next).compatibilityScore > 0; next++)
+		{
+			IRequestHandler handler = list.get(next).getMapper().mapRequest(request);
+			if (handler != null)
+			{
+				return handler;
+			}
+		}
+
+		// mappers with a score of 0 in order of registration
+		for (int i = candidates.nextClearBit(0); i < index.mappers.length;
+			i = candidates.nextClearBit(i + 1))
 		{
-			IRequestMapper mapper = mapperWithScore.getMapper();
-			IRequestHandler handler = mapper.mapRequest(request);
+			IRequestHandler handler = index.mappers[i].mapRequest(request);
+			if (handler != null)
+			{
+				return handler;
+			}
+		}
+
+		for (; next < list.size(); next++)
+		{
+			IRequestHandler handler = list.get(next).getMapper().mapRequest(request);
 			if (handler != null)
 			{
 				return handler;
@@ -198,6 +262,9 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 	 * <p>
 	 * The mappers are searched in reverse order as they have been registered. More recently
 	 * registered mappers have bigger priority.
+	 * <p>
+	 * If the handler has a {@link #getHandlerKey(IRequestHandler) key} and a handler with an
+	 * equal key was mapped before, the same mapper is asked first.
 	 * 
 	 * @param handler
 	 * @return Url for the handler or <code>null</code> if no mapper for the handler is found.
@@ -205,17 +272,77 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 	@Override
 	public Url mapHandler(final IRequestHandler handler)
 	{
-		for (IRequestMapper mapper : this)
+		Index index = this.index;
+
+		Object key = getHandlerKey(handler);
+		if (key != null)
+		{
+			IRequestMapper mapper = index.handlerMappers.get(key);
+			if (mapper != null)
+			{
+				Url url = mapper.mapHandler(handler);
+				if (url != null)
+				{
+					handlerCacheHits.increment();
+					return url;
+				}
+			}
+			handlerCacheMisses.increment();
+		}
+
+		for (IRequestMapper mapper : index.mappers)
 		{
 			Url url = mapper.mapHandler(handler);
 			if (url != null)
 			{
+				if (key != null)
+				{
+					index.putHandlerMapper(key, mapper);
+				}
 				return url;
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Get a key for the given handler, to remember the mapper which was able to map it.
+	 * <p>
+	 * Two handlers may have equal keys only, if each registered mapper maps either both or none
+	 * of them, i.e. the key has to include everything the mappers decide on. The remembered mappers
+	 * are forgotten whenever a mapper is added or removed.
+	 * <p>
+	 * This default implementation returns {@code null}, so no mappers are remembered.
+	 * 
+	 * @param handler
+	 *            handler to map
+	 * @return key or {@code null} if the mapper should not be remembered
+	 */
+	protected Object getHandlerKey(final IRequestHandler handler)
+	{
+		return null;
+	}
+
+	/**
+	 * Get the count of handlers which were mapped by a remembered mapper.
+	 * 
+	 * @return count of hits
+	 */
+	public long getHandlerCacheHits()
+	{
+		return handlerCacheHits.sum();
+	}
+
+	/**
+	 * Get the count of handlers with a key, which could not be mapped by a remembered mapper.
+	 * 
+	 * @return count of misses
+	 */
+	public long getHandlerCacheMisses()
+	{
+		return handlerCacheMisses.sum();
+	}
+
 	/**
 	 * The scope of the compound mapper is the highest score of the registered mappers.
 	 * 
@@ -224,10 +351,14 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 	@Override
 	public int getCompatibilityScore(final Request request)
 	{
-		int score = Integer.MIN_VALUE;
-		for (IRequestMapper mapper : this)
+		Index index = this.index;
+
+		BitSet candidates = index.getCandidates(request);
+
+		int score = candidates.cardinality() < index.mappers.length ? 0 : Integer.MIN_VALUE;
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1))
 		{
-			score = Math.max(score, mapper.getCompatibilityScore(request));
+			score = Math.max(score, index.mappers[i].getCompatibilityScore(request));
 		}
 		return score;
 	}
@@ -237,4 +368,103 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 	{
 		return mappers.iterator();
 	}
+
+	/**
+	 * Index of mappers by their prefix segments.
+	 */
+	private static class Index
+	{
+		/**
+		 * All mappers in order of priority.
+		 */
+		private final IRequestMapper[] mappers;
+
+		/**
+		 * Positions of mappers without prefix.
+		 */
+		private final BitSet unprefixed = new BitSet();
+
+		private final Node root = new Node();
+
+		/**
+		 * Mappers by handler key.
+		 */
+		private final Map<Object, IRequestMapper> handlerMappers = new ConcurrentHashMap<>();
+
+		private Index(List<IRequestMapper> mappers)
+		{
+			this.mappers = mappers.toArray(new IRequestMapper[0]);
+
+			for (int i = 0; i < this.mappers.length; i++)
+			{
+				String[] segments = null;
+				if (this.mappers[i] instanceof IPrefixedRequestMapper)
+				{
+					segments = ((IPrefixedRequestMapper)this.mappers[i]).getPrefixSegments();
+				}
+
+				if (segments == null)
+				{
+					unprefixed.set(i);
+				}
+				else
+				{
+					Node node = root;
+					for (String segment : segments)
+					{
+						node = node.children.computeIfAbsent(segment, key -> new Node());
+					}
+					node.positions.set(i);
+				}
+			}
+		}
+
+		/**
+		 * Get the positions of all mappers that might be compatible with the given request.
+		 */
+		private BitSet getCandidates(Request request)
+		{
+			BitSet candidates = (BitSet)unprefixed.clone();
+
+			Node node = root;
+			candidates.or(node.positions);
+			for (String segment : request.getUrl().getSegments())
+			{
+				node = node.children.get(segment);
+				if (node == null)
+				{
+					break;
+				}
+				candidates.or(node.positions);
+			}
+
+			return candidates;
+		}
+
+		/**
+		 * Remember the mapper for a handler key.
+		 */
+		private void putHandlerMapper(Object key, IRequestMapper mapper)
+		{
+			if (handlerMappers.size() >= MAX_HANDLER_KEYS)
+			{
+				// too many keys, start over
+				handlerMappers.clear();
+			}
+			handlerMappers.put(key, mapper);
+		}
+	}
+
+	/**
+	 * A node in the tree of prefix segments.
+	 */
+	private static class Node
+	{
+		private final Map<String, Node> children = new HashMap<>();
+
+		/**
+		 * Positions of mappers with the prefix segments leading to this node.
+		 */
+		private final BitSet positions = new BitSet();
+	}
 }
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.mapper;
+
+import org.apache.wicket.request.IRequestMapper;
+import org.apache.wicket.request.Request;
+
+/**
+ * A mapper that is compatible with requests starting with fixed segments only.
+ * <p>
+ * {@link CompoundRequestMapper} uses these segments to ask only those mappers for their
+ * {@link #getCompatibilityScore(Request) compatibility score}, which might be compatible with a
+ * request's URL at all.
+ */
+public interface IPrefixedRequestMapper extends IRequestMapper
+{
+	/**
+	 * Get the segments all compatible URLs start with, i.e. for any request whose URL does not
+	 * start with these segments the {@link #getCompatibilityScore(Request) compatibility score}
+	 * <em>must</em> be {@code 0}.
+	 *
+	 * @return segments or {@code null} if the mapper might be compatible with any URL
+	 */
+	String[] getPrefixSegments();
+}
@@ -17,8 +17,20 @@
 package org.apache.wicket.request.mapper;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.wicket.request.IRequestCycle;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.IRequestMapper;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.Url;
 import org.apache.wicket.request.mapper.CompoundRequestMapper.MapperWithScore;
 import org.junit.jupiter.api.Test;
 
@@ -45,8 +57,258 @@ class CompoundRequestMapperTest
 		assertTrue(score(Integer.MAX_VALUE).compareTo(score(10)) < 0);
 	}
 
+	/**
+	 * Prefixed mappers are asked for their score only if their prefix matches.
+	 */
+	@Test
+	void prefixedMappers()
+	{
+		TestMapper a = new TestMapper(2, "a");
+		TestMapper ab = new TestMapper(3, "a", "b");
+		TestMapper x = new TestMapper(5, "x");
+		TestMapper any = new TestMapper(1, (String[])null);
+
+		CompoundRequestMapper compound = new CompoundRequestMapper();
+		compound.add(any).add(a).add(ab).add(x);
+
+		assertSame(ab, mapRequest(compound, "a/b/c"));
+		assertSame(a, mapRequest(compound, "a/c"));
+		assertSame(any, mapRequest(compound, "b"));
+		assertSame(any, mapRequest(compound, ""));
+
+		assertEquals(0, x.scored);
+		assertEquals(4, any.scored);
+
+		assertEquals(3, compound.getCompatibilityScore(request("a/b")));
+		assertEquals(1, compound.getCompatibilityScore(request("c")));
+		assertEquals(0, x.scored);
+	}
+
+	/**
+	 * The index is updated when mappers are added or removed.
+	 */
+	@Test
+	void addAndRemove()
+	{
+		TestMapper a = new TestMapper(2, "a");
+		TestMapper ab = new TestMapper(3, "a", "b");
+
+		CompoundRequestMapper compound = new CompoundRequestMapper();
+		assertNull(mapRequest(compound, "a/b"));
+		assertEquals(Integer.MIN_VALUE, compound.getCompatibilityScore(request("a/b")));
+
+		compound.add(a);
+		assertSame(a, mapRequest(compound, "a/b"));
+
+		compound.add(ab);
+		assertSame(ab, mapRequest(compound, "a/b"));
+
+		compound.remove(ab);
+		assertSame(a, mapRequest(compound, "a/b"));
+
+		compound.remove(a);
+		assertNull(mapRequest(compound, "a/b"));
+	}
+
+	/**
+	 * Mappers with a score of 0 are asked in reverse order of their registration, before mappers
+	 * with a negative score.
+	 */
+	@Test
+	void zeroScores()
+	{
+		TestMapper negative = new TestMapper(-1, (String[])null);
+		TestMapper first = new TestMapper(0, (String[])null);
+		TestMapper second = new TestMapper(2, "x");
+		TestMapper third = new TestMapper(0, (String[])null);
+
+		CompoundRequestMapper compound = new CompoundRequestMapper();
+		compound.add(negative).add(first).add(second).add(third);
+
+		// second is not compatible, but is still asked to map the request
+		second.handlesAny = true;
+		assertSame(third, mapRequest(compound, "a"));
+
+		third.handles = false;
+		assertSame(second, mapRequest(compound, "a"));
+
+		second.handles = false;
+		assertSame(first, mapRequest(compound, "a"));
+
+		first.handles = false;
+		assertSame(negative, mapRequest(compound, "a"));
+	}
+
+	/**
+	 * The mapper of a handler is remembered by the handler's key.
+	 */
+	@Test
+	void handlerKeys()
+	{
+		TestMapper first = new TestMapper(0, "first");
+		TestMapper second = new TestMapper(0, "second");
+		second.handles = false;
+
+		CompoundRequestMapper compound = new CompoundRequestMapper()
+		{
+			@Override
+			protected Object getHandlerKey(IRequestHandler handler)
+			{
+				return ((TestHandler)handler).mapper == null ? "key" : null;
+			}
+		};
+		compound.add(first).add(second);
+
+		TestHandler handler = new TestHandler(null);
+		assertEquals("first", compound.mapHandler(handler).toString());
+		assertEquals(1, second.mapped);
+		assertEquals(0, compound.getHandlerCacheHits());
+		assertEquals(1, compound.getHandlerCacheMisses());
+
+		// second is no longer asked
+		assertEquals("first", compound.mapHandler(handler).toString());
+		assertEquals(1, second.mapped);
+		assertEquals(1, compound.getHandlerCacheHits());
+		assertEquals(1, compound.getHandlerCacheMisses());
+
+		// remembered mapper no longer maps the handler
+		first.handles = false;
+		second.handles = true;
+		assertEquals("second", compound.mapHandler(handler).toString());
+		assertEquals(1, compound.getHandlerCacheHits());
+		assertEquals(2, compound.getHandlerCacheMisses());
+
+		// remembered mappers are forgotten on add
+		TestMapper third = new TestMapper(0, "third");
+		compound.add(third);
+		assertEquals("third", compound.mapHandler(handler).toString());
+		assertEquals(1, compound.getHandlerCacheHits());
+		assertEquals(3, compound.getHandlerCacheMisses());
+
+		// handler without key
+		compound.mapHandler(new TestHandler(first));
+		assertEquals(1, compound.getHandlerCacheHits());
+		assertEquals(3, compound.getHandlerCacheMisses());
+	}
+
 	private MapperWithScore score(int score)
 	{
 		return new MapperWithScore(null, score);
 	}
+
+	private IRequestMapper mapRequest(CompoundRequestMapper compound, String url)
+	{
+		TestHandler handler = (TestHandler)compound.mapRequest(request(url));
+		return handler == null ? null : handler.mapper;
+	}
+
+	private Request request(String url)
+	{
+		Url parsed = Url.parse(url);
+		return new Request()
+		{
+			@Override
+			public Url getUrl()
+			{
+				return parsed;
+			}
+
+			@Override
+			public Url getClientUrl()
+			{
+				return parsed;
+			}
+
+			@Override
+			public Locale getLocale()
+			{
+				return Locale.ENGLISH;
+			}
+
+			@Override
+			public Charset getCharset()
+			{
+				return StandardCharsets.UTF_8;
+			}
+
+			@Override
+			public Object getContainerRequest()
+			{
+				return null;
+			}
+		};
+	}
+
+	private static class TestMapper implements IPrefixedRequestMapper
+	{
+		private final int score;
+
+		private final String[] prefix;
+
+		private boolean handles = true;
+
+		private boolean handlesAny;
+
+		private int scored;
+
+		private int mapped;
+
+		TestMapper(int score, String... prefix)
+		{
+			this.score = score;
+			this.prefix = prefix;
+		}
+
+		@Override
+		public String[] getPrefixSegments()
+		{
+			return prefix;
+		}
+
+		private boolean matches(Request request)
+		{
+			if (prefix == null)
+			{
+				return true;
+			}
+			List<String> segments = request.getUrl().getSegments();
+			return segments.size() >= prefix.length &&
+				segments.subList(0, prefix.length).equals(List.of(prefix));
+		}
+
+		@Override
+		public int getCompatibilityScore(Request request)
+		{
+			scored++;
+			return matches(request) ? score : 0;
+		}
+
+		@Override
+		public IRequestHandler mapRequest(Request request)
+		{
+			return handles && (handlesAny || matches(request)) ? new TestHandler(this) : null;
+		}
+
+		@Override
+		public Url mapHandler(IRequestHandler requestHandler)
+		{
+			mapped++;
+			return handles ? Url.parse(String.join("/", prefix)) : null;
+		}
+	}
+
+	private static class TestHandler implements IRequestHandler
+	{
+		private final IRequestMapper mapper;
+
+		TestHandler(IRequestMapper mapper)
+		{
+			this.mapper = mapper;
+		}
+
+		@Override
+		public void respond(IRequestCycle requestCycle)
+		{
+		}
+	}
 }
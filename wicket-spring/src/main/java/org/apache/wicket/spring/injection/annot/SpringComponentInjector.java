@@ -124,6 +124,12 @@ public class SpringComponentInjector extends Injector
 		inject(object, fieldValueFactory);
 	}
 
+	@Override
+	public void prepare(final Class<?>... classes)
+	{
+		prepare(fieldValueFactory, classes);
+	}
+
 	@Override
 	public void onInstantiation(final Component component)
 	{
@@ -33,11 +33,11 @@ public final class VariableAssignmentParser extends MetaPatternParser
 	private static final MetaPattern namespace = new OptionalMetaPattern(new MetaPattern[] {
 			MetaPattern.VARIABLE_NAME, MetaPattern.COLON, new OptionalMetaPattern(new MetaPattern[] {MetaPattern.VARIABLE_NAME, MetaPattern.COLON })});
 
-	/** The key (lvalue) like "name" or "namespace:name" or "namespace:name:subname" */
-	private final Group key = new Group(new MetaPattern(namespace, MetaPattern.XML_ATTRIBUTE_NAME));
+	/** The pattern for the default value pattern, compiled once only */
+	private static final Assignment STRING_ASSIGNMENT = new Assignment(MetaPattern.STRING);
 
-	/** The rvalue of the assignment */
-	private final Group value;
+	/** The pattern to parse with */
+	private final Assignment assignment;
 
 	/**
 	 * Construct a variable assignment parser against a given input character sequence
@@ -62,16 +62,16 @@ public final class VariableAssignmentParser extends MetaPatternParser
 	{
 		super(input);
 
-		// Create group for value pattern
-		value = new Group(valuePattern);
+		if (valuePattern == MetaPattern.STRING)
+		{
+			assignment = STRING_ASSIGNMENT;
+		}
+		else
+		{
+			assignment = new Assignment(valuePattern);
+		}
 
-		// Pattern for =<value>
-		final MetaPattern variableAssignment = new MetaPattern(MetaPattern.OPTIONAL_WHITESPACE,
-			MetaPattern.EQUALS, MetaPattern.OPTIONAL_WHITESPACE, value);
-
-		// Set parse pattern to <key>=<value>?
-		setPattern(new MetaPattern(MetaPattern.OPTIONAL_WHITESPACE, key, new OptionalMetaPattern(
-			variableAssignment), MetaPattern.OPTIONAL_WHITESPACE));
+		setPattern(assignment.pattern);
 	}
 
 	/**
@@ -82,7 +82,7 @@ public final class VariableAssignmentParser extends MetaPatternParser
 	 */
 	public String getKey()
 	{
-		return key.get(matcher());
+		return assignment.key.get(matcher());
 	}
 
 	/**
@@ -92,6 +92,35 @@ public final class VariableAssignmentParser extends MetaPatternParser
 	 */
 	public String getValue()
 	{
-		return value.get(matcher());
+		return assignment.value.get(matcher());
+	}
+
+	/**
+	 * The pattern for a value pattern, with its groups for key and value.
+	 */
+	private static final class Assignment
+	{
+		/** The key (lvalue) like "name" or "namespace:name" or "namespace:name:subname" */
+		private final Group key = new Group(new MetaPattern(namespace, MetaPattern.XML_ATTRIBUTE_NAME));
+
+		/** The rvalue of the assignment */
+		private final Group value;
+
+		/** The pattern key=value? */
+		private final MetaPattern pattern;
+
+		private Assignment(final MetaPattern valuePattern)
+		{
+			// Create group for value pattern
+			value = new Group(valuePattern);
+
+			// Pattern for =<value>
+			final MetaPattern variableAssignment = new MetaPattern(MetaPattern.OPTIONAL_WHITESPACE,
+				MetaPattern.EQUALS, MetaPattern.OPTIONAL_WHITESPACE, value);
+
+			// Set parse pattern to <key>=<value>?
+			pattern = new MetaPattern(MetaPattern.OPTIONAL_WHITESPACE, key, new OptionalMetaPattern(
+				variableAssignment), MetaPattern.OPTIONAL_WHITESPACE);
+		}
 	}
 }
@@ -98,4 +98,22 @@ class VariableAssignmentParserTest
 		assertEquals("@test4", key);
 		assertEquals("\"test4\"", value);
 	}
+
+	/**
+	 * Parsers share their compiled pattern, but keep their own match.
+	 */
+	@Test
+	void interleavedParsers()
+	{
+		VariableAssignmentParser first = new VariableAssignmentParser("a first='1'");
+		VariableAssignmentParser second = new VariableAssignmentParser("b second=\"2\"");
+
+		assertTrue(first.matcher().find(1));
+		assertTrue(second.matcher().find(1));
+
+		assertEquals("first", first.getKey());
+		assertEquals("'1'", first.getValue());
+		assertEquals("second", second.getKey());
+		assertEquals("\"2\"", second.getValue());
+	}
 }